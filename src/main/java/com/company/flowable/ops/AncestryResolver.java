@@ -0,0 +1,239 @@
+package com.company.flowable.ops;
+
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLSyntaxErrorException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+import org.flowable.engine.ManagementService;
+import org.flowable.engine.impl.cmd.AbstractCustomSqlExecution;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Resolves the direct parent, root instance and depth of process instances in call-activity
+ * chains with one recursive query per batch ({@link ExecutionMapper#selectAncestors}). Parent links
+ * never change while an instance runs, so results are kept in a bounded LRU cache and reused by
+ * later pages and scans. If the database rejects the recursive query as unsupported SQL, the
+ * chains are walked one level per round trip from then on; other failures only affect the call
+ * they happen in.
+ */
+public class AncestryResolver {
+    private static final Logger logger = LoggerFactory.getLogger(AncestryResolver.class);
+    static final int MAX_DEPTH = 32;
+    static final int MAX_ENTRIES = 100_000;
+
+    private final ManagementService managementService;
+    private final IdListQuery idListQuery;
+    private final Map<String, Ancestry> cache = Collections.synchronizedMap(
+        new LinkedHashMap<String, Ancestry>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Ancestry> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        });
+    private volatile boolean recursiveQuery = true;
+
+    public AncestryResolver(ManagementService managementService, IdListQuery idListQuery) {
+        this.managementService = managementService;
+        this.idListQuery = idListQuery;
+    }
+
+    /**
+     * Ancestry of every given instance that has a runtime root execution.
+     */
+    public Map<String, Ancestry> resolve(Collection<String> processInstanceIds) {
+        Map<String, Ancestry> result = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String pid : new LinkedHashSet<>(processInstanceIds)) {
+            Ancestry cached = cache.get(pid);
+            if (cached != null) {
+                result.put(pid, cached);
+            } else {
+                missing.add(pid);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
+        Map<String, Ancestry> loaded = null;
+        if (recursiveQuery) {
+            try {
+                loaded = fold(missing, select("ancestors", missing,
+                    (mapper, ids) -> mapper.selectAncestors(ids, MAX_DEPTH)));
+            } catch (RuntimeException ex) {
+                if (isUnsupportedSql(ex)) {
+                    recursiveQuery = false;
+                    logger.warn("Recursive ancestry query not supported; resolving call-activity chains level by level", ex);
+                } else {
+                    logger.warn("Recursive ancestry query failed; resolving this batch level by level", ex);
+                }
+            }
+        }
+        if (loaded == null) {
+            loaded = walk(missing);
+        }
+        cache.putAll(loaded);
+        result.putAll(loaded);
+        return result;
+    }
+
+    /**
+     * True if {@code ex} was caused by the database rejecting the statement itself: a syntax or
+     * feature error, or SQLState class 42 (syntax error or access rule violation) or 0A (feature
+     * not supported) from drivers that throw plain {@link SQLException}s.
+     */
+    static boolean isUnsupportedSql(Throwable ex) {
+        for (Throwable current = ex; current != null; current = current.getCause()) {
+            if (current instanceof SQLSyntaxErrorException || current instanceof SQLFeatureNotSupportedException) {
+                return true;
+            }
+            if (current instanceof SQLException) {
+                String state = ((SQLException) current).getSQLState();
+                if (state != null && (state.startsWith("42") || state.startsWith("0A"))) {
+                    return true;
+                }
+            }
+            if (current.getCause() == current) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Turns ancestor rows into one {@link Ancestry} per requested instance. Instances without rows
+     * are their own root.
+     */
+    static Map<String, Ancestry> fold(List<String> processInstanceIds, List<ExecutionMapper.AncestorRow> rows) {
+        Map<String, String> parents = new HashMap<>();
+        Map<String, ExecutionMapper.AncestorRow> roots = new HashMap<>();
+        for (ExecutionMapper.AncestorRow row : rows) {
+            if (row.getDepth() == 1) {
+                parents.put(row.getProcessInstanceId(), row.getAncestorId());
+            }
+            ExecutionMapper.AncestorRow root = roots.get(row.getProcessInstanceId());
+            if (root == null || row.getDepth() > root.getDepth()) {
+                roots.put(row.getProcessInstanceId(), row);
+            }
+        }
+        Map<String, Ancestry> result = new HashMap<>();
+        for (String pid : processInstanceIds) {
+            ExecutionMapper.AncestorRow root = roots.get(pid);
+            result.put(pid, root == null ? new Ancestry(null, pid, 0)
+                : new Ancestry(parents.get(pid), root.getAncestorId(), root.getDepth()));
+        }
+        return result;
+    }
+
+    /**
+     * Follows SUPER_EXEC_ links one level per step for all instances at once: root executions of
+     * the current ancestors, then the calling executions they point to.
+     */
+    private Map<String, Ancestry> walk(List<String> processInstanceIds) {
+        Map<String, String> parents = new HashMap<>();
+        Map<String, String> tops = new HashMap<>();
+        Map<String, Integer> depths = new HashMap<>();
+        for (String pid : processInstanceIds) {
+            tops.put(pid, pid);
+            depths.put(pid, 0);
+        }
+        List<String> open = new ArrayList<>(processInstanceIds);
+        for (int level = 1; level <= MAX_DEPTH && !open.isEmpty(); level++) {
+            List<String> frontier = new ArrayList<>(new LinkedHashSet<>(mapAll(open, tops)));
+            Map<String, String> superExecutionByInstance = new HashMap<>();
+            for (ExecutionMapper.ExecutionRow row : select("ancestryRoots", frontier, ExecutionMapper::selectByIds)) {
+                if (row.getSuperExecutionId() != null && row.getId().equals(row.getProcessInstanceId())) {
+                    superExecutionByInstance.put(row.getId(), row.getSuperExecutionId());
+                }
+            }
+            Map<String, String> instanceByExecution = new HashMap<>();
+            if (!superExecutionByInstance.isEmpty()) {
+                List<String> callers = new ArrayList<>(new LinkedHashSet<>(superExecutionByInstance.values()));
+                for (ExecutionMapper.ExecutionRow row : select("ancestryCallers", callers, ExecutionMapper::selectByIds)) {
+                    instanceByExecution.put(row.getId(), row.getProcessInstanceId());
+                }
+            }
+            List<String> next = new ArrayList<>();
+            for (String pid : open) {
+                String superExecution = superExecutionByInstance.get(tops.get(pid));
+                String caller = superExecution == null ? null : instanceByExecution.get(superExecution);
+                if (caller == null) {
+                    continue;
+                }
+                if (level == 1) {
+                    parents.put(pid, caller);
+                }
+                tops.put(pid, caller);
+                depths.put(pid, level);
+                next.add(pid);
+            }
+            open = next;
+        }
+        Map<String, Ancestry> result = new HashMap<>();
+        for (String pid : processInstanceIds) {
+            result.put(pid, new Ancestry(parents.get(pid), tops.get(pid), depths.get(pid)));
+        }
+        return result;
+    }
+
+    private static List<String> mapAll(List<String> keys, Map<String, String> map) {
+        List<String> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(map.get(key));
+        }
+        return values;
+    }
+
+    private <R> List<R> select(String name, List<String> ids,
+                               BiFunction<ExecutionMapper, List<String>, List<R>> select) {
+        List<R> result = new ArrayList<>();
+        for (List<String> batch : idListQuery.batches(ids)) {
+            List<String> padded = idListQuery.pad(batch);
+            result.addAll(managementService.executeCustomSql(
+                new AbstractCustomSqlExecution<ExecutionMapper, List<R>>(ExecutionMapper.class) {
+                    @Override
+                    public List<R> execute(ExecutionMapper mapper) {
+                        return select.apply(mapper, padded);
+                    }
+                }));
+            idListQuery.recordExecution(name, name + "/" + padded.size(), batch.size(), padded.size());
+        }
+        return result;
+    }
+
+    public static final class Ancestry {
+        private final String parentPid;
+        private final String rootPid;
+        private final int depth;
+
+        Ancestry(String parentPid, String rootPid, int depth) {
+            this.parentPid = parentPid;
+            this.rootPid = rootPid;
+            this.depth = depth;
+        }
+
+        /**
+         * Direct calling instance, or null for a top-level instance.
+         */
+        public String getParentPid() {
+            return parentPid;
+        }
+
+        public String getRootPid() {
+            return rootPid;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+    }
+}
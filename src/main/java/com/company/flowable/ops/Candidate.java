@@ -15,6 +15,8 @@ public class Candidate {
     private String starterEmail;
     private boolean isSubprocess;
     private String parentPid;
+    private String rootPid;
+    private int depth;
     private final List<TaskSummary> tasks = new ArrayList<>();
     private List<String> activeActivityIds = new ArrayList<>();
     private int jobCount;
@@ -104,6 +106,29 @@ public class Candidate {
         this.parentPid = parentPid;
     }
 
+    /**
+     * Top-level process instance of the call-activity chain this instance belongs to; its own id
+     * when it is not a subprocess.
+     */
+    public String getRootPid() {
+        return rootPid;
+    }
+
+    public void setRootPid(String rootPid) {
+        this.rootPid = rootPid;
+    }
+
+    /**
+     * Number of call-activity levels above this instance; 0 for a top-level instance.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
     public List<TaskSummary> getTasks() {
         return tasks;
     }
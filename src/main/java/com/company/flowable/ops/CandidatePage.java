@@ -0,0 +1,30 @@
+package com.company.flowable.ops;
+
+import java.util.List;
+
+public class CandidatePage {
+    private final List<Candidate> candidates;
+    private final int rowCount;
+    private final ScanCursor cursor;
+
+    public CandidatePage(List<Candidate> candidates, int rowCount, ScanCursor cursor) {
+        this.candidates = candidates;
+        this.rowCount = rowCount;
+        this.cursor = cursor;
+    }
+
+    public List<Candidate> getCandidates() {
+        return candidates;
+    }
+
+    /**
+     * Number of historic rows read for this page, including rows that did not yield a candidate.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public ScanCursor getCursor() {
+        return cursor;
+    }
+}
@@ -0,0 +1,11 @@
+package com.company.flowable.ops;
+
+import java.time.Instant;
+
+public interface CandidateProjection {
+    /**
+     * Loads the page after {@code cursor} within {@code partition} of the id space.
+     */
+    CandidatePage loadPage(Instant cutoff, Instant now, FilterCriteria criteria, ScanPartition partition, ScanCursor cursor,
+                           int pageSize);
+}
@@ -0,0 +1,9 @@
+package com.company.flowable.ops;
+
+/**
+ * Receives candidates as a scan produces them, one page at a time.
+ */
+@FunctionalInterface
+public interface CandidateSink {
+    void accept(Candidate candidate);
+}
@@ -0,0 +1,182 @@
+package com.company.flowable.ops;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Holds the classified result of recent scans so that page flips, summary counts and exports over
+ * the same filters are served from one scan. Snapshots are keyed by the filters that shape the scan
+ * itself (hours, process definition key, starter) plus a cutoff bucket; action and hasTasks only
+ * narrow a classified result and are applied when reading. A scan whose action and hasTasks filters
+ * were pushed into SQL holds only matching instances and is kept under a narrowed key. Entries expire after a TTL, the least
+ * recently used entry is evicted beyond {@code maxEntries}, and scans larger than
+ * {@code maxItems} are not cached at all.
+ */
+public class CandidateSnapshotCache {
+    private final Map<Key, Snapshot> cache;
+    private final long ttlMillis;
+    private final long cutoffBucketMillis;
+    private final int maxItems;
+    private final AtomicLong generation = new AtomicLong();
+
+    public CandidateSnapshotCache(int maxEntries, long ttlMillis, long cutoffBucketMillis, int maxItems) {
+        this.ttlMillis = ttlMillis;
+        this.cutoffBucketMillis = Math.max(1, cutoffBucketMillis);
+        this.maxItems = maxItems;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<Key, Snapshot>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Snapshot> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public Key keyFor(FilterCriteria criteria, int hours, Instant cutoff) {
+        return new Key(hours,
+            normalize(criteria.getProcDefKey()),
+            normalize(criteria.getStarterUserId()),
+            cutoff.toEpochMilli() / cutoffBucketMillis,
+            null,
+            null);
+    }
+
+    /**
+     * Key for a scan that already applied the action and hasTasks filters of {@code criteria}.
+     */
+    public Key narrowedKeyFor(FilterCriteria criteria, int hours, Instant cutoff) {
+        String action = normalize(criteria.getAction());
+        return new Key(hours,
+            normalize(criteria.getProcDefKey()),
+            normalize(criteria.getStarterUserId()),
+            cutoff.toEpochMilli() / cutoffBucketMillis,
+            action == null ? null : action.toUpperCase(),
+            criteria.getHasTasks());
+    }
+
+    /**
+     * Returns the cached snapshot for {@code key}, or {@code null} if absent or expired.
+     */
+    public List<ProcessSummaryDto> get(Key key, Instant now) {
+        Snapshot snapshot = cache.get(key);
+        if (snapshot == null) {
+            return null;
+        }
+        if (now.toEpochMilli() - snapshot.createdAt.toEpochMilli() > ttlMillis) {
+            cache.remove(key, snapshot);
+            return null;
+        }
+        return snapshot.items;
+    }
+
+    /**
+     * Starts collecting a snapshot for {@code key}. The builder drops its items once more than
+     * {@code maxItems} arrive, and it is discarded on publish if the cache was invalidated while the
+     * scan was running.
+     */
+    public Builder builder(Key key, Instant now) {
+        return new Builder(key, now, generation.get());
+    }
+
+    /**
+     * Drops every snapshot, e.g. after process instances were terminated.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.clear();
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    public final class Builder {
+        private final Key key;
+        private final Instant createdAt;
+        private final long startGeneration;
+        private List<ProcessSummaryDto> items = new ArrayList<>();
+
+        private Builder(Key key, Instant createdAt, long startGeneration) {
+            this.key = key;
+            this.createdAt = createdAt;
+            this.startGeneration = startGeneration;
+        }
+
+        public void add(ProcessSummaryDto dto) {
+            if (items == null) {
+                return;
+            }
+            if (items.size() >= maxItems) {
+                items = null;
+                return;
+            }
+            items.add(dto);
+        }
+
+        public void publish() {
+            if (items == null || generation.get() != startGeneration) {
+                return;
+            }
+            cache.put(key, new Snapshot(createdAt, Collections.unmodifiableList(items)));
+        }
+    }
+
+    private static final class Snapshot {
+        final Instant createdAt;
+        final List<ProcessSummaryDto> items;
+
+        Snapshot(Instant createdAt, List<ProcessSummaryDto> items) {
+            this.createdAt = createdAt;
+            this.items = items;
+        }
+    }
+
+    public static final class Key {
+        private final int hours;
+        private final String procDefKey;
+        private final String starterUserId;
+        private final long cutoffBucket;
+        private final String action;
+        private final Boolean hasTasks;
+
+        Key(int hours, String procDefKey, String starterUserId, long cutoffBucket, String action, Boolean hasTasks) {
+            this.hours = hours;
+            this.procDefKey = procDefKey;
+            this.starterUserId = starterUserId;
+            this.cutoffBucket = cutoffBucket;
+            this.action = action;
+            this.hasTasks = hasTasks;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hours == other.hours
+                && cutoffBucket == other.cutoffBucket
+                && Objects.equals(procDefKey, other.procDefKey)
+                && Objects.equals(starterUserId, other.starterUserId)
+                && Objects.equals(action, other.action)
+                && Objects.equals(hasTasks, other.hasTasks);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hours, procDefKey, starterUserId, cutoffBucket, action, hasTasks);
+        }
+    }
+}
@@ -8,8 +8,10 @@ import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -47,6 +49,8 @@ public class CleanupCli {
         cfg.setDatabaseSchemaUpdate(ProcessEngineConfiguration.DB_SCHEMA_UPDATE_FALSE);
         cfg.setAsyncExecutorActivate(false);
         cfg.setAsyncHistoryExecutorActivate(false);
+        cfg.setCustomMybatisMappers(new HashSet<>(Arrays.asList(JobCountMapper.class, ExecutionMapper.class,
+            IdentityLinkMapper.class)));
 
         ProcessEngine engine = cfg.buildProcessEngine();
         RuntimeService runtimeService = engine.getRuntimeService();
@@ -57,15 +61,38 @@ public class CleanupCli {
 
         Instant now = Instant.now();
         Instant cutoff = now.minus(config.getCutoffDuration());
-        String runId = UUID.randomUUID().toString();
-
-        try (AuditLogger auditLogger = new AuditLogger(config.getAuditFile(), runId)) {
-            JobCountStrategy jobCountStrategy = new ApiOnlyJobCountStrategy(managementService);
-            CleanupScanner scanner = new CleanupScanner(config, runtimeService, historyService, taskService, managementService, identityService, jobCountStrategy);
+        String runId = config.getResume().isEmpty() ? UUID.randomUUID().toString() : config.getResume();
+        logger.info("Run id {}", runId);
+
+        try (AuditLogger auditLogger = new AuditLogger(config.getAuditFile(), runId);
+             PrefetchExecutor prefetchExecutor = new PrefetchExecutor(config.getPrefetchParallelism(),
+                 cfg.getJdbcMaxActiveConnections(), config.getPrefetchTimeoutMillis())) {
+            IdListQuery idListQuery = new IdListQuery(config.getInClauseLimit());
+            JobCountStrategy jobCountStrategy = config.isJobCountMapper()
+                ? new MapperJobCountStrategy(managementService, idListQuery)
+                : new ApiOnlyJobCountStrategy(managementService);
+            CleanupScanner scanner = new CleanupScanner(config, runtimeService, historyService, taskService, managementService, identityService, jobCountStrategy, null, prefetchExecutor, idListQuery);
             CleanupClassifier classifier = new CleanupClassifier();
 
             List<Candidate> candidates;
-            if (config.getDeleteMode() == DeleteMode.SELECTED) {
+            DeleteJournal.Replay replay = null;
+            if (!config.getResume().isEmpty()) {
+                if (config.getJournalDir().isEmpty()) {
+                    logger.warn("--resume needs the --journalDir of the interrupted run.");
+                    return;
+                }
+                long replayStart = System.nanoTime();
+                replay = DeleteJournal.replay(Path.of(config.getJournalDir()), runId);
+                if (!replay.isPlanComplete()) {
+                    logger.warn("Journal of run {} has an incomplete plan ({} entries, no PLAN_END); the run stopped "
+                        + "before deleting anything. Start a new run without --resume.", runId, replay.getPlannedCount());
+                    return;
+                }
+                candidates = replay.pending();
+                logger.info("Resuming run {}: {} planned, {} completed, {} in doubt, {} failed, {} pending (replayed in {} ms)",
+                    runId, replay.getPlannedCount(), replay.getCompletedCount(), replay.getInDoubtCount(),
+                    replay.getFailedCount(), candidates.size(), (System.nanoTime() - replayStart) / 1_000_000);
+            } else if (config.getDeleteMode() == DeleteMode.SELECTED) {
                 List<String> ids = new ArrayList<>();
                 if (!config.getSelectedFile().isEmpty()) {
                     ids.addAll(CleanupConfig.readSelectedFile(config.getSelectedFile()));
@@ -83,14 +110,30 @@ public class CleanupCli {
                 }
                 candidates = scanner.scanSelected(ids, cutoff, now, config.isForce());
             } else {
+                long scanStart = System.nanoTime();
                 candidates = scanner.scan(cutoff, now);
+                logger.info("Scan found {} candidates in {} ms ({} partitions)", candidates.size(),
+                    (System.nanoTime() - scanStart) / 1_000_000, config.getScanPartitions());
             }
+            if (replay == null) {
+                for (Map.Entry<String, PrefetchExecutor.LookupTiming> entry : scanner.getPrefetchTimings().entrySet()) {
+                    PrefetchExecutor.LookupTiming timing = entry.getValue();
+                    logger.info("Prefetch {}: calls={} avgMs={} maxMs={}", entry.getKey(), timing.getCount(),
+                        timing.getAvgMillis(), timing.getMaxMillis());
+                }
+                for (Map.Entry<String, IdListQuery.StatementStats> entry : scanner.getIdListStatistics().entrySet()) {
+                    IdListQuery.StatementStats stats = entry.getValue();
+                    logger.info("Id lookup {}: executions={} parses={} ids={} paddedIds={}", entry.getKey(),
+                        stats.getExecutions(), stats.getParses(), stats.getIds(), stats.getPaddedIds());
+                }
 
-            for (Candidate candidate : candidates) {
-                ClassificationResult result = classifier.classify(candidate, config);
-                candidate.setClassification(result.getClassification());
-                candidate.setRecommendedAction(result.getRecommendedAction());
-                auditLogger.logEvaluation(candidate, result);
+                // Resumed candidates keep the classification recorded in the journal.
+                for (Candidate candidate : candidates) {
+                    ClassificationResult result = classifier.classify(candidate, config);
+                    candidate.setClassification(result.getClassification());
+                    candidate.setRecommendedAction(result.getRecommendedAction());
+                    auditLogger.logEvaluation(candidate, result);
+                }
             }
 
             Summary summary = summarize(candidates);
@@ -120,8 +163,16 @@ public class CleanupCli {
                 return;
             }
 
-            CleanupExecutor executor = new CleanupExecutor(config, runtimeService, taskService, managementService, auditLogger);
-            executor.execute(candidates, now);
+            try (DeleteJournal journal = config.getJournalDir().isEmpty() ? null
+                : DeleteJournal.open(Path.of(config.getJournalDir()), runId, replay == null ? 0 : replay.getValidLength(),
+                    config.getJournalSyncEvery(), config.getJournalSyncMillis())) {
+                if (journal != null) {
+                    logger.info("Journaling deletions to {}; resume with --resume={}", journal.getFile(), runId);
+                }
+                CleanupExecutor executor = new CleanupExecutor(config, runtimeService, taskService, managementService,
+                    auditLogger, journal);
+                executor.execute(candidates, now);
+            }
         } finally {
             engine.close();
         }
@@ -42,6 +42,23 @@ public class CleanupConfig implements ScannerConfig {
     private String selectedPids = "";
     private boolean force = false;
     private long deletePauseMillis = 100;
+    private int prefetchParallelism = 4;
+    private long prefetchTimeoutMillis = 60000;
+    private int readAheadDepth = 2;
+    private int scanPartitions = 1;
+    private ScanPartition.Function scanPartitionFunction = ScanPartition.Function.ORA_HASH;
+    private int inClauseLimit = 1000;
+    private boolean jobCountMapper = false;
+    private boolean adaptiveRate = false;
+    private double minDeletesPerSecond = 2;
+    private double maxDeletesPerSecond = 50;
+    private double deleteRateIncreasePerSecond = 2;
+    private double deleteRateDecreaseFactor = 0.5;
+    private long deleteLatencyTargetMillis = 2000;
+    private String journalDir = "journal";
+    private int journalSyncEvery = 256;
+    private long journalSyncMillis = 200;
+    private String resume = "";
     private String configFile = "";
 
     public static CleanupConfig fromArgs(String[] args) throws IOException {
@@ -146,6 +163,57 @@ public class CleanupConfig implements ScannerConfig {
         if (map.containsKey("deletePauseMillis")) {
             deletePauseMillis = Long.parseLong(map.get("deletePauseMillis"));
         }
+        if (map.containsKey("prefetchParallelism")) {
+            prefetchParallelism = Integer.parseInt(map.get("prefetchParallelism"));
+        }
+        if (map.containsKey("prefetchTimeoutMillis")) {
+            prefetchTimeoutMillis = Long.parseLong(map.get("prefetchTimeoutMillis"));
+        }
+        if (map.containsKey("readAheadDepth")) {
+            readAheadDepth = Integer.parseInt(map.get("readAheadDepth"));
+        }
+        if (map.containsKey("scanPartitions")) {
+            scanPartitions = Integer.parseInt(map.get("scanPartitions"));
+        }
+        if (map.containsKey("scanPartitionFunction")) {
+            scanPartitionFunction = ScanPartition.Function.valueOf(map.get("scanPartitionFunction").trim().toUpperCase());
+        }
+        if (map.containsKey("inClauseLimit")) {
+            inClauseLimit = Integer.parseInt(map.get("inClauseLimit"));
+        }
+        if (map.containsKey("jobCountMapper")) {
+            jobCountMapper = Boolean.parseBoolean(map.get("jobCountMapper"));
+        }
+        if (map.containsKey("adaptiveRate")) {
+            adaptiveRate = Boolean.parseBoolean(map.get("adaptiveRate"));
+        }
+        if (map.containsKey("minDeletesPerSecond")) {
+            minDeletesPerSecond = Double.parseDouble(map.get("minDeletesPerSecond"));
+        }
+        if (map.containsKey("maxDeletesPerSecond")) {
+            maxDeletesPerSecond = Double.parseDouble(map.get("maxDeletesPerSecond"));
+        }
+        if (map.containsKey("deleteRateIncreasePerSecond")) {
+            deleteRateIncreasePerSecond = Double.parseDouble(map.get("deleteRateIncreasePerSecond"));
+        }
+        if (map.containsKey("deleteRateDecreaseFactor")) {
+            deleteRateDecreaseFactor = Double.parseDouble(map.get("deleteRateDecreaseFactor"));
+        }
+        if (map.containsKey("deleteLatencyTargetMillis")) {
+            deleteLatencyTargetMillis = Long.parseLong(map.get("deleteLatencyTargetMillis"));
+        }
+        if (map.containsKey("journalDir")) {
+            journalDir = map.get("journalDir");
+        }
+        if (map.containsKey("journalSyncEvery")) {
+            journalSyncEvery = Integer.parseInt(map.get("journalSyncEvery"));
+        }
+        if (map.containsKey("journalSyncMillis")) {
+            journalSyncMillis = Long.parseLong(map.get("journalSyncMillis"));
+        }
+        if (map.containsKey("resume")) {
+            resume = map.get("resume").trim();
+        }
     }
 
     private static Set<String> parseSet(String csv) {
@@ -296,6 +364,91 @@ public class CleanupConfig implements ScannerConfig {
         return deletePauseMillis;
     }
 
+    public int getPrefetchParallelism() {
+        return prefetchParallelism;
+    }
+
+    public long getPrefetchTimeoutMillis() {
+        return prefetchTimeoutMillis;
+    }
+
+    public int getReadAheadDepth() {
+        return readAheadDepth;
+    }
+
+    public int getInClauseLimit() {
+        return inClauseLimit;
+    }
+
+    public int getScanPartitions() {
+        return scanPartitions;
+    }
+
+    public ScanPartition.Function getScanPartitionFunction() {
+        return scanPartitionFunction;
+    }
+
+    public boolean isJobCountMapper() {
+        return jobCountMapper;
+    }
+
+    public boolean isAdaptiveRate() {
+        return adaptiveRate;
+    }
+
+    public double getMinDeletesPerSecond() {
+        return minDeletesPerSecond;
+    }
+
+    public double getMaxDeletesPerSecond() {
+        return maxDeletesPerSecond;
+    }
+
+    public double getDeleteRateIncreasePerSecond() {
+        return deleteRateIncreasePerSecond;
+    }
+
+    public double getDeleteRateDecreaseFactor() {
+        return deleteRateDecreaseFactor;
+    }
+
+    public long getDeleteLatencyTargetMillis() {
+        return deleteLatencyTargetMillis;
+    }
+
+    /**
+     * Adaptive rate settings of the CLI in the service's form. Concurrency runs from one worker
+     * up to {@code parallelism}.
+     */
+    public OpsCleanupProperties.DeleteRate getDeleteRate() {
+        OpsCleanupProperties.DeleteRate settings = new OpsCleanupProperties.DeleteRate();
+        settings.setEnabled(adaptiveRate);
+        settings.setMinConcurrency(1);
+        settings.setMaxConcurrency(parallelism);
+        settings.setMinPerSecond(minDeletesPerSecond);
+        settings.setMaxPerSecond(maxDeletesPerSecond);
+        settings.setIncreasePerSecond(deleteRateIncreasePerSecond);
+        settings.setDecreaseFactor(deleteRateDecreaseFactor);
+        settings.setLatencyTargetMillis(deleteLatencyTargetMillis);
+        return settings;
+    }
+
+    public String getJournalDir() {
+        return journalDir;
+    }
+
+    public int getJournalSyncEvery() {
+        return journalSyncEvery;
+    }
+
+    public long getJournalSyncMillis() {
+        return journalSyncMillis;
+    }
+
+    public String getResume() {
+        return resume;
+    }
+
     public String getConfigFile() {
         return configFile;
     }
@@ -2,15 +2,8 @@ package com.company.flowable.ops;
 
 import java.time.Instant;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 import org.flowable.common.engine.api.FlowableObjectNotFoundException;
 import org.flowable.common.engine.api.FlowableOptimisticLockingException;
@@ -28,26 +21,27 @@ public class CleanupExecutor {
     private final TaskService taskService;
     private final ManagementService managementService;
     private final AuditLogger auditLogger;
+    private final DeleteJournal journal;
 
+    /**
+     * @param journal journal of this run, or null to run without one
+     */
     public CleanupExecutor(CleanupConfig config,
                            RuntimeService runtimeService,
                            TaskService taskService,
                            ManagementService managementService,
-                           AuditLogger auditLogger) {
+                           AuditLogger auditLogger,
+                           DeleteJournal journal) {
         this.config = config;
         this.runtimeService = runtimeService;
         this.taskService = taskService;
         this.managementService = managementService;
         this.auditLogger = auditLogger;
+        this.journal = journal;
     }
 
     public void execute(List<Candidate> candidates, Instant now) {
         List<Candidate> targets = filterCandidates(candidates);
-        Map<String, Candidate> map = new HashMap<>();
-        for (Candidate c : candidates) {
-            map.put(c.getProcessInstanceId(), c);
-        }
-        targets.sort(Comparator.comparingInt((Candidate c) -> computeDepth(c, map)).reversed());
 
         if (config.isDryRun()) {
             logger.info("Dry run enabled; no deletions will be performed.");
@@ -59,28 +53,33 @@ public class CleanupExecutor {
             return;
         }
 
-        if (config.getParallelism() <= 1) {
-            for (Candidate candidate : targets) {
-                deleteSingle(candidate);
-                pause();
-            }
-        } else {
-            ExecutorService executor = Executors.newFixedThreadPool(config.getParallelism());
-            List<Future<Void>> futures = new ArrayList<>();
-            for (Candidate candidate : targets) {
-                futures.add(executor.submit(new DeleteTask(candidate)));
+        DeleteRateController rateController = config.isAdaptiveRate()
+            ? DeleteRateController.from(config.getDeleteRate())
+            : null;
+        Consumer<Candidate> delete = candidate -> deleteSingle(candidate, rateController);
+        if (journal != null) {
+            if (config.getResume().isEmpty()) {
+                // A resumed run replays its plan from the journal instead.
+                journal.plan(targets);
             }
-            for (Future<Void> future : futures) {
-                try {
-                    future.get();
-                } catch (InterruptedException ex) {
-                    Thread.currentThread().interrupt();
-                    logger.warn("Deletion interrupted", ex);
-                } catch (ExecutionException ex) {
-                    logger.warn("Deletion task failed", ex.getCause());
-                }
+            delete = candidate -> {
+                journal.started(candidate.getProcessInstanceId());
+                journal.finished(candidate.getProcessInstanceId(), deleteSingle(candidate, rateController));
+            };
+        }
+
+        DeleteScheduler scheduler = rateController != null
+            ? new DeleteScheduler("ops-cleanup-delete", rateController)
+            : new DeleteScheduler("ops-cleanup-delete", config.getParallelism(), config.getDeletePauseMillis());
+        List<Candidate> notAttempted = scheduler.run(targets, delete);
+        for (Candidate candidate : notAttempted) {
+            auditLogger.logDeleteAttempt(candidate, 0, "FAIL", "Not attempted: deletion stopped early");
+            if (journal != null) {
+                journal.finished(candidate.getProcessInstanceId(), false);
             }
-            executor.shutdown();
+        }
+        if (rateController != null) {
+            logger.info("Adaptive delete rate at end of run: {}", rateController.getStatus());
         }
     }
 
@@ -95,31 +94,18 @@ public class CleanupExecutor {
         return targets;
     }
 
-    private int computeDepth(Candidate candidate, Map<String, Candidate> map) {
-        if (!candidate.isSubprocess()) {
-            return 0;
-        }
-        int depth = 0;
-        String current = candidate.getParentPid();
-        while (current != null) {
-            depth++;
-            Candidate parent = map.get(current);
-            if (parent == null) {
-                break;
-            }
-            current = parent.getParentPid();
-        }
-        return depth;
-    }
-
-    private void deleteSingle(Candidate candidate) {
+    /**
+     * @param rateController adaptive controller told about locking conflicts, or null
+     * @return true if the instance is gone (deleted and verified, or no longer active)
+     */
+    private boolean deleteSingle(Candidate candidate, DeleteRateController rateController) {
         boolean active = runtimeService.createProcessInstanceQuery()
             .processInstanceId(candidate.getProcessInstanceId())
             .active()
             .count() > 0;
         if (!active) {
             auditLogger.logSkip(candidate, "Process instance not active");
-            return;
+            return true;
         }
 
         int maxAttempts = Math.max(0, config.getRetryCount());
@@ -130,24 +116,28 @@ public class CleanupExecutor {
                 VerificationSnapshot snapshot = verify(candidate);
                 if (snapshot.isDeleted()) {
                     auditLogger.logVerify(candidate, snapshot, "OK", null);
-                    return;
+                    return true;
                 }
                 auditLogger.logVerify(candidate, snapshot, "FAIL", "Verification failed");
                 if (attempt < maxAttempts) {
                     backoff(attempt);
                     continue;
                 }
-                return;
+                return false;
             } catch (Exception ex) {
+                if (isRetryable(ex) && rateController != null) {
+                    rateController.onConflict();
+                }
                 if (isRetryable(ex) && attempt < maxAttempts) {
                     auditLogger.logDeleteAttempt(candidate, attempt + 1, "FAIL", ex.getMessage());
                     backoff(attempt);
                     continue;
                 }
                 auditLogger.logDeleteAttempt(candidate, attempt + 1, "FAIL", ex.getMessage());
-                return;
+                return false;
             }
         }
+        return false;
     }
 
     private VerificationSnapshot verify(Candidate candidate) {
@@ -184,29 +174,4 @@ public class CleanupExecutor {
             Thread.currentThread().interrupt();
         }
     }
-
-    private void pause() {
-        if (config.getDeletePauseMillis() <= 0) {
-            return;
-        }
-        try {
-            Thread.sleep(config.getDeletePauseMillis());
-        } catch (InterruptedException ex) {
-            Thread.currentThread().interrupt();
-        }
-    }
-
-    private class DeleteTask implements Callable<Void> {
-        private final Candidate candidate;
-
-        DeleteTask(Candidate candidate) {
-            this.candidate = candidate;
-        }
-
-        @Override
-        public Void call() {
-            deleteSingle(candidate);
-            return null;
-        }
-    }
 }
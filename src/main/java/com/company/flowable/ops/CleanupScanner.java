@@ -12,20 +12,28 @@ import org.flowable.engine.IdentityService;
 import org.flowable.engine.ManagementService;
 import org.flowable.engine.RuntimeService;
 import org.flowable.engine.TaskService;
+import org.flowable.common.engine.api.query.NativeQuery;
+import org.flowable.engine.impl.cmd.AbstractCustomSqlExecution;
+import org.flowable.engine.history.HistoricActivityInstance;
 import org.flowable.engine.history.HistoricProcessInstance;
+import org.flowable.engine.history.NativeHistoricProcessInstanceQuery;
 import org.flowable.idm.api.User;
-import org.flowable.identitylink.api.IdentityLink;
+import org.flowable.job.api.Job;
 import org.flowable.engine.runtime.Execution;
-import org.flowable.engine.runtime.NativeExecutionQuery;
+import org.flowable.engine.repository.ProcessDefinition;
+import org.flowable.engine.runtime.NativeProcessInstanceQuery;
 import org.flowable.engine.runtime.ProcessInstance;
 import org.flowable.task.api.Task;
+import org.flowable.task.api.history.HistoricTaskInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 @Service
 public class CleanupScanner {
     private static final Logger logger = LoggerFactory.getLogger(CleanupScanner.class);
+    private static final int PAGE_SIZE = 200;
 
     private final ScannerConfig config;
     private final RuntimeService runtimeService;
@@ -34,14 +42,28 @@ public class CleanupScanner {
     private final ManagementService managementService;
     private final IdentityService identityService;
     private final JobCountStrategy jobCountStrategy;
-
+    private final CandidateProjection candidateProjection;
+    private final PrefetchExecutor prefetchExecutor;
+    private final IdListQuery idListQuery;
+    private final AncestryResolver ancestryResolver;
+
+    /**
+     * @param candidateProjection optional single-statement page loader used when the native SQL
+     *                            scan strategy is enabled; {@code null} keeps the API-only scan
+     * @param prefetchExecutor    runs the per-page prefetch lookups; {@code null} runs them sequentially
+     * @param idListQuery         builds the batched id lookups; {@code null} uses a private instance
+     *                            sized to the configured IN-list limit
+     */
     public CleanupScanner(ScannerConfig config,
                           RuntimeService runtimeService,
                           HistoryService historyService,
                           TaskService taskService,
                           ManagementService managementService,
                           IdentityService identityService,
-                          JobCountStrategy jobCountStrategy) {
+                          JobCountStrategy jobCountStrategy,
+                          @Nullable CandidateProjection candidateProjection,
+                          @Nullable PrefetchExecutor prefetchExecutor,
+                          @Nullable IdListQuery idListQuery) {
         this.config = config;
         this.runtimeService = runtimeService;
         this.historyService = historyService;
@@ -49,6 +71,18 @@ public class CleanupScanner {
         this.managementService = managementService;
         this.identityService = identityService;
         this.jobCountStrategy = jobCountStrategy;
+        this.candidateProjection = candidateProjection;
+        this.prefetchExecutor = prefetchExecutor == null ? PrefetchExecutor.sequential() : prefetchExecutor;
+        this.idListQuery = idListQuery == null ? new IdListQuery(config.getInClauseLimit()) : idListQuery;
+        this.ancestryResolver = new AncestryResolver(managementService, this.idListQuery);
+    }
+
+    public java.util.Map<String, PrefetchExecutor.LookupTiming> getPrefetchTimings() {
+        return prefetchExecutor.getTimings();
+    }
+
+    public java.util.Map<String, IdListQuery.StatementStats> getIdListStatistics() {
+        return idListQuery.getStatistics();
     }
 
     public List<Candidate> scan(Instant cutoff, Instant now) {
@@ -57,56 +91,263 @@ public class CleanupScanner {
 
     public List<Candidate> scanWithFilters(Instant cutoff, Instant now, FilterCriteria criteria) {
         List<Candidate> results = new ArrayList<>();
-        int pageSize = 200;
-        int startIndex = 0;
-        boolean historyAvailable = true;
+        scanWithFilters(cutoff, now, criteria, results::add);
+        return results;
+    }
 
-        while (results.size() < config.getMaxPerRun()) {
-            List<HistoricProcessInstance> page;
+    /**
+     * Streams candidates to {@code sink} page by page in (START_TIME_, ID_) order. Only the page
+     * being processed is held in memory, so callers that aggregate or write out candidates as they
+     * arrive scan any number of instances in constant heap.
+     *
+     * @return number of candidates passed to the sink
+     */
+    public int scanWithFilters(Instant cutoff, Instant now, FilterCriteria criteria, CandidateSink sink) {
+        return scanWithFilters(cutoff, now, criteria, ScanCursor.start(), sink);
+    }
+
+    /**
+     * Like {@link #scanWithFilters(Instant, Instant, FilterCriteria, CandidateSink)} but resumes after
+     * {@code start}, e.g. to pick up only instances that crossed the cutoff since an earlier scan.
+     */
+    public int scanWithFilters(Instant cutoff, Instant now, FilterCriteria criteria, ScanCursor start, CandidateSink sink) {
+        if (config.getScanPartitions() > 1) {
+            int emitted = scanPartitioned(cutoff, now, criteria, start, sink);
+            if (emitted >= 0) {
+                return emitted;
+            }
+        }
+        boolean[] historyFailed = new boolean[1];
+        int emitted = scanPages(cutoff, now, criteria, ScanPartition.all(), start, config.getReadAheadDepth(),
+            historyFailed, sink);
+        if (historyFailed[0] && emitted == 0) {
+            emitted = scanRuntimeFallback(cutoff, now, criteria, start, sink);
+        }
+        return emitted;
+    }
+
+    /**
+     * Scans {@code scanPartitions} hash partitions of the id space on separate threads (and so on
+     * separate pooled connections) and merges them in scan order. Read-ahead is off per partition,
+     * so a scan holds at most one history connection per partition besides prefetching.
+     *
+     * @return number of candidates passed to the sink, or {@code -1} if the partitioned scan failed
+     *         before passing any, in which case the caller scans sequentially
+     */
+    private int scanPartitioned(Instant cutoff, Instant now, FilterCriteria criteria, ScanCursor start, CandidateSink sink) {
+        List<ScanPartition> partitions = new ArrayList<>();
+        for (int i = 0; i < config.getScanPartitions(); i++) {
+            partitions.add(ScanPartition.of(i, config.getScanPartitions(), config.getScanPartitionFunction()));
+        }
+        long startNanos = System.nanoTime();
+        try (PartitionedScan scan = new PartitionedScan("ops-scan-partition", partitions, PAGE_SIZE,
+            (partition, partitionSink) -> {
+                boolean[] historyFailed = new boolean[1];
+                scanPages(cutoff, now, criteria, partition, start, 0, historyFailed, partitionSink);
+                if (historyFailed[0]) {
+                    throw new IllegalStateException("History query failed in partition " + partition);
+                }
+            })) {
             try {
-                org.flowable.engine.history.HistoricProcessInstanceQuery query = historyService.createHistoricProcessInstanceQuery()
-                    .unfinished()
-                    .startedBefore(Date.from(cutoff));
-                if (criteria != null) {
-                    if (criteria.getProcDefKey() != null && !criteria.getProcDefKey().isEmpty()) {
-                        query.processDefinitionKey(criteria.getProcDefKey());
+                int emitted = scan.mergeInto(sink, config.getMaxPerRun());
+                logger.debug("Partitioned scan ({} partitions) emitted {} candidates in {} ms", partitions.size(),
+                    emitted, (System.nanoTime() - startNanos) / 1_000_000);
+                return emitted;
+            } catch (RuntimeException ex) {
+                if (scan.getEmitted() > 0) {
+                    throw ex;
+                }
+                logger.warn("Partitioned scan failed; continuing with a sequential scan", ex);
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Pages through one partition from {@code start}. A failed history query ends the scan and is
+     * reported through {@code historyFailed}.
+     */
+    private int scanPages(Instant cutoff, Instant now, FilterCriteria criteria, ScanPartition partition, ScanCursor start,
+                          int readAheadDepth, boolean[] historyFailed, CandidateSink sink) {
+        int emitted = 0;
+        ScanCursor cursor = start;
+        boolean useProjection = candidateProjection != null;
+        int pageNumber = 0;
+
+        PageReadAhead<HistoricProcessInstance> readAhead = null;
+        try {
+            while (emitted < config.getMaxPerRun()) {
+                if (useProjection) {
+                    CandidatePage projected;
+                    long pageStart = System.nanoTime();
+                    try {
+                        projected = candidateProjection.loadPage(cutoff, now, criteria, partition, cursor, PAGE_SIZE);
+                    } catch (Exception ex) {
+                        logger.warn("Native candidate projection failed; continuing with API-only scan", ex);
+                        useProjection = false;
+                        continue;
+                    }
+                    if (projected.getRowCount() == 0) {
+                        break;
                     }
-                    if (criteria.getStarterUserId() != null && !criteria.getStarterUserId().isEmpty()) {
-                        query.startedBy(criteria.getStarterUserId());
+                    logger.debug("Projected page {} ({} rows) loaded in {} ms", pageNumber, projected.getRowCount(),
+                        (System.nanoTime() - pageStart) / 1_000_000);
+                    cursor = projected.getCursor();
+                    pageNumber++;
+                    applyAncestry(projected.getCandidates());
+                    for (Candidate candidate : projected.getCandidates()) {
+                        if (emitted >= config.getMaxPerRun()) {
+                            break;
+                        }
+                        if (acceptProjected(candidate)) {
+                            sink.accept(candidate);
+                            emitted++;
+                        }
                     }
+                    if (projected.getRowCount() < PAGE_SIZE) {
+                        break;
+                    }
+                    continue;
                 }
-                page = query.listPage(startIndex, pageSize);
-            } catch (Exception ex) {
-                historyAvailable = false;
-                logger.warn("HistoricProcessInstance query failed; fallback to runtime-only scan", ex);
-                break;
-            }
-            if (page == null || page.isEmpty()) {
-                break;
-            }
-            PrefetchData prefetch = prefetchData(page, now);
-            for (HistoricProcessInstance historic : page) {
-                if (results.size() >= config.getMaxPerRun()) {
+
+                if (readAhead == null && readAheadDepth > 0) {
+                    readAhead = startReadAhead(cutoff, now, criteria, partition, cursor, readAheadDepth);
+                }
+                List<HistoricProcessInstance> page;
+                long pageStart = System.nanoTime();
+                try {
+                    page = readAhead != null ? readAhead.next()
+                        : fetchHistoricPage(cutoff, now, criteria, partition, cursor, PAGE_SIZE);
+                } catch (Exception ex) {
+                    historyFailed[0] = true;
+                    logger.warn("HistoricProcessInstance query failed; fallback to runtime-only scan", ex);
                     break;
                 }
-                if (!matchesBaseFilters(historic, criteria)) {
-                    continue;
+                if (page == null || page.isEmpty()) {
+                    break;
+                }
+                logger.debug("History page {} ({} rows) ready after {} ms", pageNumber, page.size(),
+                    (System.nanoTime() - pageStart) / 1_000_000);
+                HistoricProcessInstance last = page.get(page.size() - 1);
+                cursor = ScanCursor.after(last.getStartTime(), last.getId());
+                pageNumber++;
+
+                for (Candidate candidate : buildCandidates(page, cutoff, now, criteria)) {
+                    if (emitted >= config.getMaxPerRun()) {
+                        break;
+                    }
+                    sink.accept(candidate);
+                    emitted++;
                 }
-                Candidate candidate = buildCandidateFromHistoric(historic, cutoff, now, prefetch);
-                if (candidate != null) {
-                    results.add(candidate);
+                if (page.size() < PAGE_SIZE) {
+                    break;
                 }
             }
-            startIndex += pageSize;
+        } finally {
+            if (readAhead != null) {
+                readAhead.close();
+            }
         }
+        return emitted;
+    }
 
-        if (!historyAvailable && results.isEmpty()) {
-            results.addAll(scanRuntimeFallback(cutoff, now, criteria));
+    /**
+     * Builds the candidates of one historic page through the API-only prefetch path.
+     */
+    List<Candidate> buildCandidates(List<HistoricProcessInstance> page, Instant cutoff, Instant now, FilterCriteria criteria) {
+        List<InstanceRow> rows = new ArrayList<>();
+        for (HistoricProcessInstance historic : page) {
+            if (historic != null) {
+                rows.add(InstanceRow.of(historic));
+            }
         }
+        return buildCandidatesFromRows(rows, null, cutoff, now, criteria);
+    }
 
+    /**
+     * Prefetches and builds one page of rows. {@code activeRuntime} are runtime instances the page
+     * was read from; when given, the runtime lookup is skipped.
+     */
+    private List<Candidate> buildCandidatesFromRows(List<InstanceRow> rows, List<ProcessInstance> activeRuntime,
+                                                    Instant cutoff, Instant now, FilterCriteria criteria) {
+        List<Candidate> candidates = new ArrayList<>();
+        PrefetchData prefetch = prefetchData(rows, activeRuntime, now);
+        for (InstanceRow row : rows) {
+            if (!matchesBaseFilters(row, criteria)) {
+                continue;
+            }
+            Candidate candidate = buildCandidate(row, cutoff, now, prefetch);
+            if (candidate != null) {
+                candidates.add(candidate);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Rebuilds the candidates for the given instances in one batched pass per page. Instances that
+     * ended, were suspended or no longer match the filters are absent from the result.
+     */
+    public List<Candidate> reloadCandidates(java.util.Collection<String> processInstanceIds, Instant cutoff, Instant now,
+                                            FilterCriteria criteria) {
+        List<Candidate> results = new ArrayList<>();
+        List<String> ids = new ArrayList<>(processInstanceIds);
+        String select = historicSelect();
+        for (int i = 0; i < ids.size(); i += PAGE_SIZE) {
+            List<String> chunk = ids.subList(i, Math.min(ids.size(), i + PAGE_SIZE));
+            List<HistoricProcessInstance> page = listByIds("reloadCandidates", chunk, "pid",
+                inList -> historyService.createNativeHistoricProcessInstanceQuery()
+                    .sql(select + " WHERE RES.END_TIME_ IS NULL AND RES.ID_ IN " + inList));
+            results.addAll(buildCandidates(page, cutoff, now, criteria));
+        }
         return results;
     }
 
+    /**
+     * Returns the process instances whose classification inputs may have changed since
+     * {@code since}: instances that ended, tasks created or completed, activities entered or left,
+     * and jobs or timers that fell due before {@code now}.
+     */
+    public java.util.Set<String> findChangedProcessIds(Instant since, Instant now) {
+        java.util.Set<String> changed = new java.util.HashSet<>();
+        Date sinceDate = Date.from(since);
+        Date nowDate = Date.from(now);
+
+        String historyTable = managementService.getTableName(HistoricProcessInstance.class);
+        for (HistoricProcessInstance ended : historyService.createNativeHistoricProcessInstanceQuery()
+            .sql("SELECT RES.* FROM " + historyTable + " RES WHERE RES.END_TIME_ >= #{since}")
+            .parameter("since", sinceDate)
+            .list()) {
+            changed.add(ended.getId());
+        }
+
+        String taskTable = managementService.getTableName(HistoricTaskInstance.class);
+        for (HistoricTaskInstance task : historyService.createNativeHistoricTaskInstanceQuery()
+            .sql("SELECT RES.* FROM " + taskTable + " RES WHERE RES.START_TIME_ >= #{since} OR RES.END_TIME_ >= #{since}")
+            .parameter("since", sinceDate)
+            .list()) {
+            changed.add(task.getProcessInstanceId());
+        }
+
+        String activityTable = managementService.getTableName(HistoricActivityInstance.class);
+        for (HistoricActivityInstance activity : historyService.createNativeHistoricActivityInstanceQuery()
+            .sql("SELECT RES.* FROM " + activityTable + " RES WHERE RES.START_TIME_ >= #{since} OR RES.END_TIME_ >= #{since}")
+            .parameter("since", sinceDate)
+            .list()) {
+            changed.add(activity.getProcessInstanceId());
+        }
+
+        // Overdue counts move with the clock even when no row changes.
+        for (Job job : managementService.createJobQuery().duedateHigherThan(sinceDate).duedateLowerThan(nowDate).list()) {
+            changed.add(job.getProcessInstanceId());
+        }
+        for (Job timer : managementService.createTimerJobQuery().duedateHigherThan(sinceDate).duedateLowerThan(nowDate).list()) {
+            changed.add(timer.getProcessInstanceId());
+        }
+        changed.remove(null);
+        return changed;
+    }
+
     public List<Candidate> scanSelected(List<String> ids, Instant cutoff, Instant now, boolean force) {
         List<Candidate> results = new ArrayList<>();
         java.util.Set<String> seen = new java.util.HashSet<>();
@@ -136,8 +377,9 @@ public class CleanupScanner {
                 logger.info("Skipping {} because it is newer than cutoff", pid);
                 continue;
             }
-            PrefetchData prefetch = prefetchData(java.util.Collections.singletonList(historic), now);
-            Candidate candidate = buildCandidateFromHistoric(historic, cutoff, now, prefetch);
+            InstanceRow row = InstanceRow.of(historic);
+            PrefetchData prefetch = prefetchData(java.util.Collections.singletonList(row), null, now);
+            Candidate candidate = buildCandidate(row, cutoff, now, prefetch);
             if (candidate != null) {
                 results.add(candidate);
             }
@@ -145,80 +387,224 @@ public class CleanupScanner {
         return results;
     }
 
-    private List<Candidate> scanRuntimeFallback(Instant cutoff, Instant now, FilterCriteria criteria) {
-        List<Candidate> results = new ArrayList<>();
-        int pageSize = 200;
-        int startIndex = 0;
-        while (results.size() < config.getMaxPerRun()) {
-            List<ProcessInstance> page = runtimeService.createProcessInstanceQuery()
-                .active()
-                .listPage(startIndex, pageSize);
+    /**
+     * Scan used when the history tables cannot be queried. Root executions are read with the same
+     * (START_TIME_, ID_) keyset and the same cutoff and filter predicates as the history scan, so
+     * only stale instances are read, and candidates are built from the runtime rows alone.
+     */
+    private int scanRuntimeFallback(Instant cutoff, Instant now, FilterCriteria criteria, ScanCursor start,
+                                    CandidateSink sink) {
+        int emitted = 0;
+        ScanCursor cursor = start;
+        while (emitted < config.getMaxPerRun()) {
+            List<ProcessInstance> page = fetchRuntimePage(cutoff, now, criteria, cursor, PAGE_SIZE);
             if (page == null || page.isEmpty()) {
                 break;
             }
-            List<String> ids = new ArrayList<>();
+            ProcessInstance last = page.get(page.size() - 1);
+            cursor = ScanCursor.after(last.getStartTime(), last.getId());
+            List<InstanceRow> rows = new ArrayList<>();
             for (ProcessInstance instance : page) {
-                ids.add(instance.getId());
+                rows.add(InstanceRow.of(instance));
             }
-            List<HistoricProcessInstance> historics = historyService.createHistoricProcessInstanceQuery()
-                .processInstanceIds(new java.util.HashSet<>(ids))
-                .list();
-            PrefetchData prefetch = prefetchData(historics, now);
-            for (HistoricProcessInstance historic : historics) {
-                if (results.size() >= config.getMaxPerRun()) {
+            for (Candidate candidate : buildCandidatesFromRows(rows, page, cutoff, now, criteria)) {
+                if (emitted >= config.getMaxPerRun()) {
                     break;
                 }
-                if (historic == null || historic.getStartTime() == null) {
-                    continue;
-                }
-                if (historic.getStartTime().toInstant().isAfter(cutoff)) {
-                    continue;
-                }
-                if (!matchesBaseFilters(historic, criteria)) {
-                    continue;
-                }
-                Candidate candidate = buildCandidateFromHistoric(historic, cutoff, now, prefetch);
-                if (candidate != null) {
-                    results.add(candidate);
-                }
+                sink.accept(candidate);
+                emitted++;
+            }
+            if (page.size() < PAGE_SIZE) {
+                break;
             }
-            startIndex += pageSize;
         }
-        return results;
+        return emitted;
+    }
+
+    /**
+     * Starts loading history pages from {@code cursor} on a reader thread so the next page is
+     * already in flight while the current one is prefetched and classified.
+     */
+    private PageReadAhead<HistoricProcessInstance> startReadAhead(Instant cutoff, Instant now, FilterCriteria criteria,
+                                                              ScanPartition partition, ScanCursor cursor, int depth) {
+        return new PageReadAhead<>("ops-scan-read-ahead", depth, PAGE_SIZE, cursor,
+            position -> fetchHistoricPage(cutoff, now, criteria, partition, position, PAGE_SIZE),
+            historic -> ScanCursor.after(historic.getStartTime(), historic.getId()));
+    }
+
+    /**
+     * Reads the next page of unfinished historic instances after the cursor, ordered by
+     * (START_TIME_, ID_). The seek predicate keeps every page a top-N read regardless of how far
+     * the scan has progressed, and the total order guarantees pages neither overlap nor skip rows.
+     * Allow/deny keys and the action, hasTasks and subprocess filters are pushed down so
+     * non-matching instances are skipped by the database instead of being prefetched and classified.
+     */
+    private List<HistoricProcessInstance> fetchHistoricPage(Instant cutoff, Instant now, FilterCriteria criteria,
+                                                            ScanPartition partition, ScanCursor cursor, int pageSize) {
+        StringBuilder sql = new StringBuilder(historicSelect())
+            .append(" WHERE RES.END_TIME_ IS NULL AND RES.START_TIME_ <= #{cutoff}");
+        boolean byKey = criteria != null && criteria.getProcDefKey() != null && !criteria.getProcDefKey().isEmpty();
+        boolean byStarter = criteria != null && criteria.getStarterUserId() != null && !criteria.getStarterUserId().isEmpty();
+        if (byKey) {
+            sql.append(" AND DEF.KEY_ = #{procDefKey}");
+        }
+        if (byStarter) {
+            sql.append(" AND RES.START_USER_ID_ = #{starterUserId}");
+        }
+        java.util.Map<String, Object> pushdownParams = new java.util.HashMap<>();
+        ScanFilterPushdown.ParameterBinder binder = (name, value) -> {
+            pushdownParams.put(name, value);
+            return "#{" + name + "}";
+        };
+        ScanFilterPushdown.appendKeyPredicates(sql, "DEF.KEY_", config.getProcDefKeyAllowList(),
+            config.getProcDefKeyDenyList(), config.getInClauseLimit(), binder);
+        filterPushdown().appendPredicates(sql, "RES.ID_", criteria, config.isIncludeSubprocesses(),
+            config.getTaskEscalationHours(), now, binder);
+        partition.appendPredicate(sql, "RES.ID_", binder);
+        appendSeekPredicate(sql, cursor);
+        sql.append(" ORDER BY RES.START_TIME_ ASC, RES.ID_ ASC");
+
+        NativeHistoricProcessInstanceQuery query = historyService.createNativeHistoricProcessInstanceQuery()
+            .sql(sql.toString())
+            .parameter("cutoff", Date.from(cutoff));
+        for (java.util.Map.Entry<String, Object> param : pushdownParams.entrySet()) {
+            query.parameter(param.getKey(), param.getValue());
+        }
+        if (byKey) {
+            query.parameter("procDefKey", criteria.getProcDefKey());
+        }
+        if (byStarter) {
+            query.parameter("starterUserId", criteria.getStarterUserId());
+        }
+        bindSeekParameters(query, cursor);
+        return query.listPage(0, pageSize);
+    }
+
+    /**
+     * Historic instances as {@code RES} with the definition columns the API query would join in.
+     */
+    private String historicSelect() {
+        return "SELECT RES.*, DEF.KEY_ AS PROC_DEF_KEY_, DEF.NAME_ AS PROC_DEF_NAME_, "
+            + "DEF.VERSION_ AS PROC_DEF_VERSION_, DEF.DEPLOYMENT_ID_ AS DEPLOYMENT_ID_ FROM "
+            + managementService.getTableName(HistoricProcessInstance.class) + " RES LEFT OUTER JOIN "
+            + managementService.getTableName(ProcessDefinition.class) + " DEF ON RES.PROC_DEF_ID_ = DEF.ID_";
+    }
+
+    private ScanFilterPushdown filterPushdown() {
+        return new ScanFilterPushdown(managementService.getTableName(Task.class),
+            managementService.getTableName(Execution.class), managementService.getTableName(Job.class),
+            runtimeTable("RU_TIMER_JOB"), "PROCESS_INSTANCE_ID_", "DUEDATE_");
+    }
+
+    /**
+     * Name of a runtime table the engine API has no type for, with the same prefix (schema and
+     * table prefix) as the execution table.
+     */
+    private String runtimeTable(String suffix) {
+        String executionTable = managementService.getTableName(Execution.class);
+        return executionTable.endsWith("RU_EXECUTION")
+            ? executionTable.substring(0, executionTable.length() - "RU_EXECUTION".length()) + suffix
+            : "ACT_" + suffix;
+    }
+
+    /**
+     * Runtime counterpart of {@link #fetchHistoricPage}: active root executions started at or before
+     * the cutoff, ordered by (START_TIME_, ID_) with the same seek and filter predicates. The root
+     * execution's ID_ is the process instance id. Definition columns are aliased to what the
+     * engine's process instance mapping expects.
+     */
+    private List<ProcessInstance> fetchRuntimePage(Instant cutoff, Instant now, FilterCriteria criteria,
+                                                   ScanCursor cursor, int pageSize) {
+        StringBuilder sql = new StringBuilder("SELECT RES.*, DEF.KEY_ AS ProcessDefinitionKey, ")
+            .append("DEF.NAME_ AS ProcessDefinitionName, DEF.VERSION_ AS ProcessDefinitionVersion, ")
+            .append("DEF.DEPLOYMENT_ID_ AS DeploymentId FROM ")
+            .append(managementService.getTableName(Execution.class))
+            .append(" RES LEFT OUTER JOIN ")
+            .append(managementService.getTableName(ProcessDefinition.class))
+            .append(" DEF ON RES.PROC_DEF_ID_ = DEF.ID_")
+            .append(" WHERE RES.PARENT_ID_ IS NULL AND RES.ID_ = RES.PROC_INST_ID_ AND RES.SUSPENSION_STATE_ = 1")
+            .append(" AND RES.START_TIME_ <= #{cutoff}");
+        boolean byKey = criteria != null && criteria.getProcDefKey() != null && !criteria.getProcDefKey().isEmpty();
+        boolean byStarter = criteria != null && criteria.getStarterUserId() != null && !criteria.getStarterUserId().isEmpty();
+        if (byKey) {
+            sql.append(" AND DEF.KEY_ = #{procDefKey}");
+        }
+        if (byStarter) {
+            sql.append(" AND RES.START_USER_ID_ = #{starterUserId}");
+        }
+        java.util.Map<String, Object> pushdownParams = new java.util.HashMap<>();
+        ScanFilterPushdown.ParameterBinder binder = (name, value) -> {
+            pushdownParams.put(name, value);
+            return "#{" + name + "}";
+        };
+        ScanFilterPushdown.appendKeyPredicates(sql, "DEF.KEY_", config.getProcDefKeyAllowList(),
+            config.getProcDefKeyDenyList(), config.getInClauseLimit(), binder);
+        filterPushdown().appendPredicates(sql, "RES.ID_", criteria, config.isIncludeSubprocesses(),
+            config.getTaskEscalationHours(), now, binder);
+        appendSeekPredicate(sql, cursor);
+        sql.append(" ORDER BY RES.START_TIME_ ASC, RES.ID_ ASC");
+
+        NativeProcessInstanceQuery query = runtimeService.createNativeProcessInstanceQuery()
+            .sql(sql.toString())
+            .parameter("cutoff", Date.from(cutoff));
+        for (java.util.Map.Entry<String, Object> param : pushdownParams.entrySet()) {
+            query.parameter(param.getKey(), param.getValue());
+        }
+        if (byKey) {
+            query.parameter("procDefKey", criteria.getProcDefKey());
+        }
+        if (byStarter) {
+            query.parameter("starterUserId", criteria.getStarterUserId());
+        }
+        bindSeekParameters(query, cursor);
+        return query.listPage(0, pageSize);
+    }
+
+    private void appendSeekPredicate(StringBuilder sql, ScanCursor cursor) {
+        if (cursor.hasPosition()) {
+            sql.append(" AND (RES.START_TIME_ > #{lastStartTime} OR (RES.START_TIME_ = #{lastStartTime} AND RES.ID_ > #{lastId}))");
+        }
     }
 
-    private Candidate buildCandidateFromHistoric(HistoricProcessInstance historic, Instant cutoff, Instant now, PrefetchData prefetch) {
-        if (historic == null) {
+    private void bindSeekParameters(NativeQuery<?, ?> query, ScanCursor cursor) {
+        if (cursor.hasPosition()) {
+            query.parameter("lastStartTime", cursor.getLastStartTime());
+            query.parameter("lastId", cursor.getLastId());
+        }
+    }
+
+    private Candidate buildCandidate(InstanceRow row, Instant cutoff, Instant now, PrefetchData prefetch) {
+        if (row == null) {
             return null;
         }
-        if (historic.getStartTime() == null) {
+        if (row.startTime == null) {
             return null;
         }
-        Instant startTime = historic.getStartTime().toInstant();
+        Instant startTime = row.startTime.toInstant();
         if (startTime.isAfter(cutoff)) {
             return null;
         }
 
-        ProcessInstance runtime = prefetch.runtimeByProcessId.get(historic.getId());
+        ProcessInstance runtime = prefetch.runtimeByProcessId.get(row.id);
         if (runtime == null) {
             return null;
         }
 
-        String procDefKey = historic.getProcessDefinitionKey();
+        String procDefKey = row.processDefinitionKey;
         if (!isKeyAllowed(procDefKey)) {
             return null;
         }
 
         Candidate candidate = new Candidate();
-        candidate.setProcessInstanceId(historic.getId());
-        candidate.setProcessDefinitionId(historic.getProcessDefinitionId());
+        candidate.setProcessInstanceId(row.id);
+        candidate.setProcessDefinitionId(row.processDefinitionId);
         candidate.setProcessDefinitionKey(procDefKey);
         candidate.setStartTime(startTime);
         candidate.setHoursRunning(Duration.between(startTime, now).toHours());
 
-        String starterUserId = historic.getStartUserId();
+        String starterUserId = row.startUserId;
         if (starterUserId == null || starterUserId.trim().isEmpty()) {
-            starterUserId = findStarterUserId(historic.getId());
+            starterUserId = prefetch.starterUserIdByProcessId.get(row.id);
         }
         candidate.setStarterUserId(starterUserId);
         if (starterUserId != null && !starterUserId.isEmpty()) {
@@ -231,25 +617,21 @@ public class CleanupScanner {
             }
         }
 
-        List<Task> tasks = prefetch.tasksByProcessId.getOrDefault(historic.getId(), java.util.Collections.emptyList());
+        List<Task> tasks = prefetch.tasksByProcessId.getOrDefault(row.id, java.util.Collections.emptyList());
         for (Task task : tasks) {
             Instant createTime = task.getCreateTime() == null ? null : task.getCreateTime().toInstant();
             long ageHours = createTime == null ? 0 : Duration.between(createTime, now).toHours();
             candidate.getTasks().add(new TaskSummary(task.getId(), task.getName(), task.getAssignee(), createTime, ageHours));
         }
 
-        candidate.setActiveActivityIds(prefetch.activeActivityIdsByProcessId.getOrDefault(historic.getId(), Collections.emptyList()));
+        candidate.setActiveActivityIds(prefetch.activeActivityIdsByProcessId.getOrDefault(row.id, Collections.emptyList()));
 
-        candidate.setJobCount(prefetch.jobCountByProcessId.getOrDefault(historic.getId(), 0));
-        candidate.setOverdueJobCount(prefetch.overdueJobCountByProcessId.getOrDefault(historic.getId(), 0));
-        candidate.setTimerCount(prefetch.timerCountByProcessId.getOrDefault(historic.getId(), 0));
-        candidate.setOverdueTimerCount(prefetch.overdueTimerCountByProcessId.getOrDefault(historic.getId(), 0));
+        candidate.setJobCount(prefetch.jobCountByProcessId.getOrDefault(row.id, 0));
+        candidate.setOverdueJobCount(prefetch.overdueJobCountByProcessId.getOrDefault(row.id, 0));
+        candidate.setTimerCount(prefetch.timerCountByProcessId.getOrDefault(row.id, 0));
+        candidate.setOverdueTimerCount(prefetch.overdueTimerCountByProcessId.getOrDefault(row.id, 0));
 
-        String parentPid = prefetch.parentPidByProcessId.get(historic.getId());
-        if (parentPid != null) {
-            candidate.setSubprocess(true);
-            candidate.setParentPid(parentPid);
-        }
+        applyAncestry(candidate, prefetch.ancestryByProcessId.get(row.id));
 
         if (!config.isIncludeSubprocesses() && candidate.isSubprocess()) {
             return null;
@@ -258,111 +640,199 @@ public class CleanupScanner {
         return candidate;
     }
 
-    private boolean matchesBaseFilters(HistoricProcessInstance historic, FilterCriteria criteria) {
+    private boolean acceptProjected(Candidate candidate) {
+        if (!isKeyAllowed(candidate.getProcessDefinitionKey())) {
+            return false;
+        }
+        return config.isIncludeSubprocesses() || !candidate.isSubprocess();
+    }
+
+    private boolean matchesBaseFilters(InstanceRow row, FilterCriteria criteria) {
         if (criteria == null) {
             return true;
         }
         if (criteria.getProcDefKey() != null && !criteria.getProcDefKey().isEmpty()) {
-            if (!criteria.getProcDefKey().equals(historic.getProcessDefinitionKey())) {
+            if (!criteria.getProcDefKey().equals(row.processDefinitionKey)) {
                 return false;
             }
         }
         if (criteria.getStarterUserId() != null && !criteria.getStarterUserId().isEmpty()) {
-            if (!criteria.getStarterUserId().equals(historic.getStartUserId())) {
+            if (!criteria.getStarterUserId().equals(row.startUserId)) {
                 return false;
             }
         }
         return true;
     }
 
-    private PrefetchData prefetchData(List<HistoricProcessInstance> page, Instant now) {
+    private PrefetchData prefetchData(List<InstanceRow> page, List<ProcessInstance> activeRuntime, Instant now) {
         List<String> ids = new ArrayList<>();
+        List<String> idsWithoutStarter = new ArrayList<>();
         java.util.Set<String> starterUserIds = new java.util.HashSet<>();
-        for (HistoricProcessInstance historic : page) {
-            if (historic != null) {
-                ids.add(historic.getId());
-                if (historic.getStartUserId() != null && !historic.getStartUserId().trim().isEmpty()) {
-                    starterUserIds.add(historic.getStartUserId().trim());
-                }
+        for (InstanceRow row : page) {
+            ids.add(row.id);
+            if (row.startUserId != null && !row.startUserId.trim().isEmpty()) {
+                starterUserIds.add(row.startUserId.trim());
+            } else {
+                idsWithoutStarter.add(row.id);
             }
         }
         PrefetchData data = new PrefetchData();
         if (ids.isEmpty()) {
             return data;
         }
+        if (activeRuntime != null) {
+            for (ProcessInstance instance : activeRuntime) {
+                data.runtimeByProcessId.put(instance.getId(), instance);
+            }
+        }
 
+        // The lookups are independent; each returns a merge step that is applied on this thread.
+        java.util.Map<String, java.util.concurrent.Callable<java.util.function.Consumer<PrefetchData>>> lookups =
+            new java.util.LinkedHashMap<>();
+        if (activeRuntime == null) {
+            lookups.put("runtime", () -> prefetchRuntimeInstances(ids));
+        }
+        lookups.put("executions", () -> prefetchExecutions(ids));
+        lookups.put("ancestry", () -> prefetchAncestry(ids));
+        lookups.put("tasks", () -> prefetchTasks(ids));
+        lookups.put("jobs", () -> prefetchJobCounts(ids, now));
+        if (!starterUserIds.isEmpty() || !idsWithoutStarter.isEmpty()) {
+            lookups.put("users", () -> prefetchUsers(starterUserIds, idsWithoutStarter));
+        }
+        long start = System.nanoTime();
+        java.util.Map<String, Long> timings = prefetchExecutor.invokeAll(lookups, data);
+        logger.debug("Prefetch for {} instances took {} ms (per lookup: {})", ids.size(),
+            (System.nanoTime() - start) / 1_000_000, timings);
+        return data;
+    }
+
+    private java.util.function.Consumer<PrefetchData> prefetchRuntimeInstances(List<String> ids) {
         // Prefetch active runtime instances to avoid per-candidate lookups.
         List<ProcessInstance> runtimeInstances = runtimeService.createProcessInstanceQuery()
             .processInstanceIds(new java.util.HashSet<>(ids))
             .active()
             .list();
-        for (ProcessInstance pi : runtimeInstances) {
-            data.runtimeByProcessId.put(pi.getId(), pi);
-        }
+        return data -> {
+            for (ProcessInstance pi : runtimeInstances) {
+                data.runtimeByProcessId.put(pi.getId(), pi);
+            }
+        };
+    }
 
-        // Prefetch executions in batches via native query (Flowable 6.7 lacks processInstanceIdIn on ExecutionQuery)
-        java.util.Map<String, List<Execution>> executionsByPid = new java.util.HashMap<>();
-        List<Execution> executions = fetchExecutionsByProcessIds(ids);
-        for (Execution execution : executions) {
+    private java.util.function.Consumer<PrefetchData> prefetchExecutions(List<String> ids) {
+        // Prefetch executions in batches as compact rows (Flowable 6.7 lacks processInstanceIdIn on ExecutionQuery)
+        java.util.Map<String, List<ExecutionMapper.ExecutionRow>> executionsByPid = new java.util.HashMap<>();
+        List<ExecutionMapper.ExecutionRow> executions = fetchExecutionsByProcessIds(ids);
+        for (ExecutionMapper.ExecutionRow execution : executions) {
             executionsByPid.computeIfAbsent(execution.getProcessInstanceId(), k -> new ArrayList<>()).add(execution);
         }
 
-        // Active activity IDs and subprocess mapping
-        java.util.Map<String, String> subProcessExecutionIds = new java.util.HashMap<>();
-        for (java.util.Map.Entry<String, List<Execution>> entry : executionsByPid.entrySet()) {
+        // Active activity IDs; call-activity parents come from the ancestry lookup
+        java.util.Map<String, List<String>> activeActivityIds = new java.util.HashMap<>();
+        for (java.util.Map.Entry<String, List<ExecutionMapper.ExecutionRow>> entry : executionsByPid.entrySet()) {
             String pid = entry.getKey();
-            for (Execution execution : entry.getValue()) {
+            for (ExecutionMapper.ExecutionRow execution : entry.getValue()) {
                 if (execution.getActivityId() != null) {
-                    data.activeActivityIdsByProcessId
+                    activeActivityIds
                         .computeIfAbsent(pid, k -> new ArrayList<>())
                         .add(execution.getActivityId());
                 }
-                if (execution.getSuperExecutionId() != null) {
-                    subProcessExecutionIds.put(execution.getSuperExecutionId(), pid);
-                }
             }
         }
-        if (!subProcessExecutionIds.isEmpty()) {
-            List<Execution> parentExecutions = fetchExecutionsByIds(new ArrayList<>(subProcessExecutionIds.keySet()));
-            for (Execution parent : parentExecutions) {
-                String subProcessId = subProcessExecutionIds.get(parent.getId());
-                if (subProcessId != null) {
-                    data.parentPidByProcessId.put(subProcessId, parent.getProcessInstanceId());
-                }
-            }
+        return data -> data.activeActivityIdsByProcessId.putAll(activeActivityIds);
+    }
+
+    private java.util.function.Consumer<PrefetchData> prefetchAncestry(List<String> ids) {
+        java.util.Map<String, AncestryResolver.Ancestry> ancestry = ancestryResolver.resolve(ids);
+        return data -> data.ancestryByProcessId.putAll(ancestry);
+    }
+
+    /**
+     * Sets parent, root and depth on candidates built without the prefetch path, e.g. by the
+     * native projection, which only knows the direct parent.
+     */
+    private void applyAncestry(List<Candidate> candidates) {
+        List<String> ids = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            ids.add(candidate.getProcessInstanceId());
+        }
+        java.util.Map<String, AncestryResolver.Ancestry> ancestry = ancestryResolver.resolve(ids);
+        for (Candidate candidate : candidates) {
+            applyAncestry(candidate, ancestry.get(candidate.getProcessInstanceId()));
         }
+    }
 
-        List<Task> tasks = taskService.createTaskQuery().processInstanceIdIn(new java.util.HashSet<>(ids)).active().list();
-        for (Task task : tasks) {
-            data.tasksByProcessId.computeIfAbsent(task.getProcessInstanceId(), k -> new ArrayList<>()).add(task);
+    private static void applyAncestry(Candidate candidate, AncestryResolver.Ancestry ancestry) {
+        if (ancestry == null) {
+            candidate.setRootPid(candidate.getProcessInstanceId());
+            return;
+        }
+        if (ancestry.getParentPid() != null) {
+            candidate.setSubprocess(true);
+            candidate.setParentPid(ancestry.getParentPid());
         }
+        candidate.setRootPid(ancestry.getRootPid());
+        candidate.setDepth(ancestry.getDepth());
+    }
 
-        jobCountStrategy.countJobsAndTimers(ids, now, data);
+    private java.util.function.Consumer<PrefetchData> prefetchTasks(List<String> ids) {
+        List<Task> tasks = taskService.createTaskQuery().processInstanceIdIn(new java.util.HashSet<>(ids)).active().list();
+        return data -> {
+            for (Task task : tasks) {
+                data.tasksByProcessId.computeIfAbsent(task.getProcessInstanceId(), k -> new ArrayList<>()).add(task);
+            }
+        };
+    }
 
-        if (!starterUserIds.isEmpty()) {
-            List<User> users = identityService.createUserQuery()
-                .userIds(new ArrayList<>(starterUserIds))
-                .list();
+    private java.util.function.Consumer<PrefetchData> prefetchJobCounts(List<String> ids, Instant now) {
+        // Strategies write into the PrefetchData they are given, so count into a private instance.
+        PrefetchData counts = new PrefetchData();
+        jobCountStrategy.countJobsAndTimers(ids, now, counts);
+        return data -> {
+            data.jobCountByProcessId.putAll(counts.jobCountByProcessId);
+            data.overdueJobCountByProcessId.putAll(counts.overdueJobCountByProcessId);
+            data.timerCountByProcessId.putAll(counts.timerCountByProcessId);
+            data.overdueTimerCountByProcessId.putAll(counts.overdueTimerCountByProcessId);
+        };
+    }
+
+    /**
+     * Loads the users of a page in one query. Instances without a start user on the history row
+     * (e.g. legacy definitions) are first resolved through their 'starter' identity links, so
+     * those users are part of the same fetch.
+     */
+    private java.util.function.Consumer<PrefetchData> prefetchUsers(java.util.Set<String> starterUserIds,
+                                                                     List<String> idsWithoutStarter) {
+        java.util.Map<String, String> linkedStarters = fetchStarterLinks(idsWithoutStarter);
+        java.util.Set<String> userIds = new java.util.HashSet<>(starterUserIds);
+        userIds.addAll(linkedStarters.values());
+        List<User> users = userIds.isEmpty() ? Collections.emptyList() : identityService.createUserQuery()
+            .userIds(new ArrayList<>(userIds))
+            .list();
+        return data -> {
+            data.starterUserIdByProcessId.putAll(linkedStarters);
             for (User user : users) {
                 data.usersById.put(user.getId(), user);
             }
-        }
-        return data;
+        };
     }
 
-
-    private String findStarterUserId(String processInstanceId) {
-        try {
-            List<IdentityLink> links = runtimeService.getIdentityLinksForProcessInstance(processInstanceId);
-            for (IdentityLink link : links) {
-                if ("starter".equalsIgnoreCase(link.getType())) {
-                    return link.getUserId();
-                }
-            }
-        } catch (Exception ex) {
-            logger.debug("Starter user lookup failed for {}", processInstanceId, ex);
-        }
-        return null;
+    /**
+     * Maps process instance ids to the user of their 'starter' identity link, read through
+     * {@link IdentityLinkMapper} once per padded batch. The lowest user id wins when an instance
+     * has several links.
+     */
+    private java.util.Map<String, String> fetchStarterLinks(List<String> processIds) {
+        java.util.Map<String, String> starters = new java.util.HashMap<>();
+        if (processIds.isEmpty()) {
+            return starters;
+        }
+        List<IdentityLinkMapper.StarterLinkRow> links = selectRows("starterLinks", processIds,
+            IdentityLinkMapper.class, IdentityLinkMapper::selectStarterLinks);
+        for (IdentityLinkMapper.StarterLinkRow link : links) {
+            starters.putIfAbsent(link.getProcessInstanceId(), link.getUserId());
+        }
+        return starters;
     }
 
     private boolean isKeyAllowed(String key) {
@@ -378,68 +848,86 @@ public class CleanupScanner {
         return true;
     }
 
-    private List<Execution> fetchExecutionsByProcessIds(List<String> processIds) {
-        List<Execution> result = new ArrayList<>();
+    private List<ExecutionMapper.ExecutionRow> fetchExecutionsByProcessIds(List<String> processIds) {
         if (processIds == null || processIds.isEmpty()) {
-            return result;
-        }
-        String tableName = managementService.getTableName(Execution.class);
-        int chunkSize = 200;
-        for (int i = 0; i < processIds.size(); i += chunkSize) {
-            List<String> chunk = processIds.subList(i, Math.min(processIds.size(), i + chunkSize));
-            StringBuilder sql = new StringBuilder("SELECT * FROM ")
-                .append(tableName)
-                .append(" WHERE PROC_INST_ID_ IN (");
-            List<String> paramNames = new ArrayList<>();
-            for (int j = 0; j < chunk.size(); j++) {
-                String param = "pid" + j;
-                paramNames.add(param);
-                sql.append("#{").append(param).append("}");
-                if (j < chunk.size() - 1) {
-                    sql.append(",");
-                }
-            }
-            sql.append(")");
-            NativeExecutionQuery query = runtimeService.createNativeExecutionQuery().sql(sql.toString());
-            for (int j = 0; j < chunk.size(); j++) {
-                query.parameter(paramNames.get(j), chunk.get(j));
-            }
-            result.addAll(query.list());
+            return new ArrayList<>();
+        }
+        return selectRows("executionsByProcessId", processIds, ExecutionMapper.class,
+            ExecutionMapper::selectByProcessInstanceIds);
+    }
+
+    /**
+     * Runs a custom mapper select once per padded batch of {@code ids} inside the engine's session.
+     * Rows are plain column holders, so no entities are built or cached.
+     */
+    private <M, R> List<R> selectRows(String name, List<String> ids, Class<M> mapperClass,
+                                      java.util.function.BiFunction<M, List<String>, List<R>> select) {
+        List<R> result = new ArrayList<>();
+        for (List<String> batch : idListQuery.batches(ids)) {
+            List<String> padded = idListQuery.pad(batch);
+            List<R> rows = managementService.executeCustomSql(
+                new AbstractCustomSqlExecution<M, List<R>>(mapperClass) {
+                    @Override
+                    public List<R> execute(M mapper) {
+                        return select.apply(mapper, padded);
+                    }
+                });
+            result.addAll(rows);
+            idListQuery.recordExecution(name, name + "/" + padded.size(), batch.size(), padded.size());
         }
         return result;
     }
 
-    private List<Execution> fetchExecutionsByIds(List<String> executionIds) {
-        List<Execution> result = new ArrayList<>();
-        if (executionIds == null || executionIds.isEmpty()) {
-            return result;
-        }
-        String tableName = managementService.getTableName(Execution.class);
-        int chunkSize = 200;
-        for (int i = 0; i < executionIds.size(); i += chunkSize) {
-            List<String> chunk = executionIds.subList(i, Math.min(executionIds.size(), i + chunkSize));
-            StringBuilder sql = new StringBuilder("SELECT * FROM ")
-                .append(tableName)
-                .append(" WHERE ID_ IN (");
-            List<String> paramNames = new ArrayList<>();
-            for (int j = 0; j < chunk.size(); j++) {
-                String param = "id" + j;
-                paramNames.add(param);
-                sql.append("#{").append(param).append("}");
-                if (j < chunk.size() - 1) {
-                    sql.append(",");
-                }
-            }
-            sql.append(")");
-            NativeExecutionQuery query = runtimeService.createNativeExecutionQuery().sql(sql.toString());
-            for (int j = 0; j < chunk.size(); j++) {
-                query.parameter(paramNames.get(j), chunk.get(j));
+    /**
+     * Runs a native query once per padded batch of {@code ids}. {@code queryForInList} receives the
+     * parenthesized placeholder list for the batch; the ids are bound as {@code paramPrefix0..n}.
+     */
+    private <T> List<T> listByIds(String name, List<String> ids, String paramPrefix,
+                                  java.util.function.Function<String, NativeQuery<?, T>> queryForInList) {
+        List<T> result = new ArrayList<>();
+        for (List<String> batch : idListQuery.batches(ids)) {
+            List<String> padded = idListQuery.pad(batch);
+            String inList = IdListQuery.namedPlaceholders(paramPrefix, padded.size());
+            NativeQuery<?, T> query = queryForInList.apply(inList);
+            for (int i = 0; i < padded.size(); i++) {
+                query.parameter(paramPrefix + i, padded.get(i));
             }
             result.addAll(query.list());
+            idListQuery.recordExecution(name, name + "/" + padded.size(), batch.size(), padded.size());
         }
         return result;
     }
 
+    /**
+     * The columns a candidate is built from, read from either a historic or a runtime instance.
+     */
+    private static final class InstanceRow {
+        final String id;
+        final String processDefinitionId;
+        final String processDefinitionKey;
+        final Date startTime;
+        final String startUserId;
+
+        private InstanceRow(String id, String processDefinitionId, String processDefinitionKey, Date startTime,
+                            String startUserId) {
+            this.id = id;
+            this.processDefinitionId = processDefinitionId;
+            this.processDefinitionKey = processDefinitionKey;
+            this.startTime = startTime;
+            this.startUserId = startUserId;
+        }
+
+        static InstanceRow of(HistoricProcessInstance historic) {
+            return new InstanceRow(historic.getId(), historic.getProcessDefinitionId(),
+                historic.getProcessDefinitionKey(), historic.getStartTime(), historic.getStartUserId());
+        }
+
+        static InstanceRow of(ProcessInstance instance) {
+            return new InstanceRow(instance.getId(), instance.getProcessDefinitionId(),
+                instance.getProcessDefinitionKey(), instance.getStartTime(), instance.getStartUserId());
+        }
+    }
+
     static class PrefetchData {
         final java.util.Map<String, ProcessInstance> runtimeByProcessId = new java.util.HashMap<>();
         final java.util.Map<String, List<Task>> tasksByProcessId = new java.util.HashMap<>();
@@ -448,7 +936,8 @@ public class CleanupScanner {
         final java.util.Map<String, Integer> timerCountByProcessId = new java.util.HashMap<>();
         final java.util.Map<String, Integer> overdueTimerCountByProcessId = new java.util.HashMap<>();
         final java.util.Map<String, User> usersById = new java.util.HashMap<>();
+        final java.util.Map<String, String> starterUserIdByProcessId = new java.util.HashMap<>();
         final java.util.Map<String, List<String>> activeActivityIdsByProcessId = new java.util.HashMap<>();
-        final java.util.Map<String, String> parentPidByProcessId = new java.util.HashMap<>();
+        final java.util.Map<String, AncestryResolver.Ancestry> ancestryByProcessId = new java.util.HashMap<>();
     }
 }
@@ -0,0 +1,365 @@
+package com.company.flowable.ops;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of one CLI deletion run ({@code <dir>/<runId>.journal}). The run first
+ * records every planned candidate and a PLAN_END entry with their count, then a STARTED and a
+ * COMPLETED or FAILED entry per delete, so
+ * {@code --resume=<runId>} can continue with the pending candidates without scanning again.
+ * Writes are group-committed: entries are buffered and forced to disk every {@code syncEvery}
+ * entries or {@code syncMillis}. The plan is written in chunks of {@code PLAN_CHUNK_BYTES} and
+ * forced before the first delete; a journal without PLAN_END was cut off while planning. A delete whose
+ * COMPLETED entry was lost in a crash is simply attempted again; the executor skips instances
+ * that are no longer active.
+ *
+ * <p>Each entry is {@code [int length][byte type][payload][int crc32]}. Replay maps the file and
+ * reads it sequentially, stopping at the first torn or corrupt entry, which is cut off before
+ * new entries are appended.
+ */
+public class DeleteJournal implements AutoCloseable {
+    static final byte PLANNED = 1;
+    static final byte STARTED = 2;
+    static final byte COMPLETED = 3;
+    static final byte FAILED = 4;
+    static final byte PLAN_END = 5;
+    private static final int PLAN_CHUNK_BYTES = 64 * 1024;
+    private static final int MAGIC = 0x4f50534a;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 8;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int syncEvery;
+    private final long syncNanos;
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private int unsynced;
+    private long firstUnsyncedNanos;
+
+    private DeleteJournal(Path file, FileChannel channel, int syncEvery, long syncMillis) {
+        this.file = file;
+        this.channel = channel;
+        this.syncEvery = Math.max(1, syncEvery);
+        this.syncNanos = Math.max(0, syncMillis) * 1_000_000L;
+    }
+
+    public static Path pathFor(Path dir, String runId) {
+        return dir.resolve(runId + ".journal");
+    }
+
+    /**
+     * Opens the journal of {@code runId} for appending, creating it if needed. Entries after
+     * {@code validLength} (a torn tail found by {@link #replay}) are discarded first.
+     */
+    public static DeleteJournal open(Path dir, String runId, long validLength, int syncEvery, long syncMillis)
+        throws IOException {
+        Files.createDirectories(dir);
+        Path file = pathFor(dir, runId);
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE);
+        DeleteJournal journal = new DeleteJournal(file, channel, syncEvery, syncMillis);
+        if (channel.size() < HEADER_SIZE || validLength < HEADER_SIZE) {
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            channel.write(header, 0);
+            channel.force(true);
+            channel.position(HEADER_SIZE);
+        } else {
+            channel.truncate(validLength);
+            channel.position(validLength);
+        }
+        return journal;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Records the candidates of the run followed by PLAN_END and forces them to disk before any
+     * delete starts. The buffer is written out whenever it reaches {@code PLAN_CHUNK_BYTES}.
+     */
+    public synchronized void plan(List<Candidate> candidates) {
+        for (Candidate candidate : candidates) {
+            ByteBuffer payload = ByteBuffer.allocate(256);
+            payload = putString(payload, candidate.getProcessInstanceId());
+            payload = putString(payload, candidate.getProcessDefinitionId());
+            payload = putString(payload, candidate.getProcessDefinitionKey());
+            payload = ensure(payload, 8);
+            payload.putLong(candidate.getStartTime() == null ? Long.MIN_VALUE : candidate.getStartTime().toEpochMilli());
+            payload = putString(payload, candidate.getStarterUserId());
+            payload = ensure(payload, 1);
+            payload.put((byte) (candidate.isSubprocess() ? 1 : 0));
+            payload = putString(payload, candidate.getParentPid());
+            payload = putString(payload, candidate.getRootPid());
+            payload = ensure(payload, 4);
+            payload.putInt(candidate.getDepth());
+            payload = putString(payload, candidate.getClassification() == null ? null : candidate.getClassification().name());
+            payload = putString(payload, candidate.getRecommendedAction() == null ? null : candidate.getRecommendedAction().name());
+            payload.flip();
+            append(PLANNED, payload);
+            if (pending.position() >= PLAN_CHUNK_BYTES) {
+                write();
+            }
+        }
+        ByteBuffer end = ByteBuffer.allocate(4).putInt(candidates.size());
+        end.flip();
+        append(PLAN_END, end);
+        sync();
+    }
+
+    public synchronized void started(String pid) {
+        appendPid(STARTED, pid);
+    }
+
+    public synchronized void finished(String pid, boolean completed) {
+        appendPid(completed ? COMPLETED : FAILED, pid);
+    }
+
+    private void appendPid(byte type, String pid) {
+        ByteBuffer payload = putString(ByteBuffer.allocate(pid.length() + 2), pid);
+        payload.flip();
+        append(type, payload);
+        if (unsynced >= syncEvery || System.nanoTime() - firstUnsyncedNanos >= syncNanos) {
+            sync();
+        }
+    }
+
+    private void append(byte type, ByteBuffer payload) {
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload.duplicate());
+        pending = ensure(pending, payload.remaining() + 9);
+        pending.putInt(payload.remaining() + 1).put(type).put(payload).putInt((int) crc.getValue());
+        if (unsynced++ == 0) {
+            firstUnsyncedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Writes buffered entries and forces them to disk.
+     */
+    public synchronized void sync() {
+        if (unsynced == 0) {
+            return;
+        }
+        write();
+        try {
+            channel.force(false);
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write deletion journal " + file, ex);
+        }
+        unsynced = 0;
+    }
+
+    private void write() {
+        pending.flip();
+        try {
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to write deletion journal " + file, ex);
+        } finally {
+            pending.clear();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads the journal of {@code runId} with one sequential pass over a memory-mapped view.
+     */
+    public static Replay replay(Path dir, String runId) throws IOException {
+        Path file = pathFor(dir, runId);
+        if (!Files.exists(file)) {
+            throw new IOException("No deletion journal for run " + runId + " at " + file);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Deletion journal too large to replay: " + file);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < HEADER_SIZE || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IOException("Not a deletion journal: " + file);
+            }
+            Replay replay = new Replay();
+            CRC32 crc = new CRC32();
+            while (buffer.remaining() >= 4) {
+                int start = buffer.position();
+                int length = buffer.getInt();
+                if (length < 1 || length > buffer.remaining() - 4) {
+                    break;
+                }
+                ByteBuffer entry = buffer.slice();
+                entry.limit(length);
+                crc.reset();
+                crc.update(entry.duplicate());
+                buffer.position(start + 4 + length);
+                if (buffer.getInt() != (int) crc.getValue()) {
+                    buffer.position(start);
+                    break;
+                }
+                replay.apply(entry);
+                replay.validLength = buffer.position();
+            }
+            if (replay.validLength == 0) {
+                replay.validLength = HEADER_SIZE;
+            }
+            return replay;
+        }
+    }
+
+    private static ByteBuffer putString(ByteBuffer buffer, String value) {
+        if (value == null) {
+            buffer = ensure(buffer, 2);
+            buffer.putShort((short) -1);
+            return buffer;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        buffer = ensure(buffer, bytes.length + 2);
+        buffer.putShort((short) bytes.length).put(bytes);
+        return buffer;
+    }
+
+    private static String getString(ByteBuffer buffer) {
+        int length = buffer.getShort();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer ensure(ByteBuffer buffer, int extra) {
+        if (buffer.remaining() >= extra) {
+            return buffer;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + extra));
+        buffer.flip();
+        return grown.put(buffer);
+    }
+
+    /**
+     * State of a run as recorded in its journal.
+     */
+    public static final class Replay {
+        private final Map<String, Candidate> planned = new LinkedHashMap<>();
+        private final Set<String> completed = new HashSet<>();
+        private final Set<String> inDoubt = new HashSet<>();
+        private int failed;
+        private int planEndCount = -1;
+        private long validLength;
+
+        private void apply(ByteBuffer entry) {
+            byte type = entry.get();
+            if (type == PLANNED) {
+                Candidate candidate = new Candidate();
+                candidate.setProcessInstanceId(getString(entry));
+                candidate.setProcessDefinitionId(getString(entry));
+                candidate.setProcessDefinitionKey(getString(entry));
+                long start = entry.getLong();
+                candidate.setStartTime(start == Long.MIN_VALUE ? null : Instant.ofEpochMilli(start));
+                candidate.setStarterUserId(getString(entry));
+                candidate.setSubprocess(entry.get() == 1);
+                candidate.setParentPid(getString(entry));
+                candidate.setRootPid(getString(entry));
+                candidate.setDepth(entry.getInt());
+                String classification = getString(entry);
+                candidate.setClassification(classification == null ? null : Classification.valueOf(classification));
+                String action = getString(entry);
+                candidate.setRecommendedAction(action == null ? null : RecommendedAction.valueOf(action));
+                planned.put(candidate.getProcessInstanceId(), candidate);
+                return;
+            }
+            if (type == PLAN_END) {
+                planEndCount = entry.getInt();
+                return;
+            }
+            String pid = getString(entry);
+            if (type == STARTED) {
+                inDoubt.add(pid);
+            } else if (type == COMPLETED) {
+                inDoubt.remove(pid);
+                completed.add(pid);
+            } else if (type == FAILED) {
+                inDoubt.remove(pid);
+                failed++;
+            }
+        }
+
+        public int getPlannedCount() {
+            return planned.size();
+        }
+
+        /**
+         * True if the journal holds a PLAN_END entry and every candidate it counts. A run that
+         * died while planning has no PLAN_END and never started deleting.
+         */
+        public boolean isPlanComplete() {
+            return planEndCount >= 0 && planEndCount == planned.size();
+        }
+
+        public int getCompletedCount() {
+            return completed.size();
+        }
+
+        /**
+         * Deletes that were started but never reported, i.e. were running when the run died.
+         */
+        public int getInDoubtCount() {
+            return inDoubt.size();
+        }
+
+        public int getFailedCount() {
+            return failed;
+        }
+
+        /**
+         * Planned candidates without a COMPLETED entry, in plan order. Failed and in-doubt
+         * deletes are included and attempted again.
+         */
+        public List<Candidate> pending() {
+            List<Candidate> result = new ArrayList<>();
+            for (Candidate candidate : planned.values()) {
+                if (!completed.contains(candidate.getProcessInstanceId())) {
+                    result.add(candidate);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Length of the intact prefix of the file; anything after it is a torn write.
+         */
+        public long getValidLength() {
+            return validLength;
+        }
+    }
+}
@@ -1,28 +1,35 @@
 package com.company.flowable.ops;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 @Service
 public class DeleteOrchestrator {
+    private static final Logger logger = LoggerFactory.getLogger(DeleteOrchestrator.class);
+
     private final OpsCleanupProperties props;
     private final DeleteWorker deleteWorker;
     private final OpsCleanupService cleanupService;
     private final AuditService auditService;
+    private final DeleteRateController deleteRateController;
 
     public DeleteOrchestrator(OpsCleanupProperties props,
                               DeleteWorker deleteWorker,
                               OpsCleanupService cleanupService,
-                              AuditService auditService) {
+                              AuditService auditService,
+                              DeleteRateController deleteRateController) {
         this.props = props;
         this.deleteWorker = deleteWorker;
         this.cleanupService = cleanupService;
         this.auditService = auditService;
+        this.deleteRateController = deleteRateController;
     }
 
     public List<DeleteResultDto> terminateSelected(List<String> pids, String reason, boolean verify, String user) {
@@ -35,18 +42,24 @@ public class DeleteOrchestrator {
         return deleteByIds(pids, reason, verify, user);
     }
 
-    public List<DeleteResultDto> terminateAll(FilterCriteria criteria, String reason, String user) {
-        criteria.setPage(0);
-        criteria.setSize(props.getMaxBulkDelete());
-        PageResult<ProcessSummaryDto> page = cleanupService.findCandidates(criteria);
-        List<String> ids = new ArrayList<>();
-        for (ProcessSummaryDto dto : page.getItems()) {
-            ids.add(dto.getProcessInstanceId());
-        }
-        if (ids.isEmpty()) {
+    /**
+     * Deletes one chunk of a terminate-all job ({@link TerminateJobService}), with verification.
+     */
+    public List<DeleteResultDto> terminateChunk(List<String> pids, String reason, String user) {
+        if (pids.isEmpty()) {
             return new ArrayList<>();
         }
-        return deleteByIds(ids, reason, true, user);
+        return deleteByIds(pids, reason, true, user);
+    }
+
+    /**
+     * Current limits of the adaptive delete rate; {@code enabled} is false when fixed pacing is used.
+     */
+    public Map<String, Object> getDeleteRateStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", props.getDeleteRate().isEnabled());
+        status.putAll(deleteRateController.getStatus());
+        return status;
     }
 
     private List<DeleteResultDto> deleteByIds(List<String> pids, String reason, boolean verify, String user) {
@@ -80,46 +93,74 @@ public class DeleteOrchestrator {
             }
             candidates.add(candidate);
         }
-        Map<String, Candidate> map = new HashMap<>();
-        for (Candidate c : candidates) {
-            map.put(c.getProcessInstanceId(), c);
-        }
-        candidates.sort(Comparator.comparingInt((Candidate c) -> computeDepth(c, map)).reversed());
-
-        for (Candidate candidate : candidates) {
-            DeleteOutcome outcome = deleteWorker.deleteProcess(candidate.getProcessInstanceId(), reason, verify);
-            results.add(new DeleteResultDto(candidate.getProcessInstanceId(), outcome.getResult(), outcome.getError()));
-            auditService.logEvent("DELETE", candidate, outcome.getResult(), user, reason, outcome.getError());
-            pause();
+        List<DeleteResultDto> deleted = Collections.synchronizedList(new ArrayList<>());
+        // The adaptive controller is shared by all requests, so concurrent requests share one rate.
+        DeleteScheduler scheduler = props.getDeleteRate().isEnabled()
+            ? new DeleteScheduler("ops-delete", deleteRateController)
+            : new DeleteScheduler("ops-delete", props.getDeleteParallelism(), props.getDelayBetweenDeletesMillis());
+        long start = System.nanoTime();
+        try {
+            List<Candidate> notAttempted;
+            if (props.getDeleteBatchSize() > 1) {
+                notAttempted = scheduler.runBatches(candidates, props.getDeleteBatchSize(),
+                    batch -> deleteBatch(batch, reason, verify, user, deleted));
+            } else {
+                notAttempted = scheduler.run(candidates, candidate -> {
+                    DeleteOutcome outcome = deleteWorker.deleteProcess(candidate.getProcessInstanceId(), reason, verify);
+                    record(candidate, outcome, reason, user, deleted);
+                });
+            }
+            for (Candidate candidate : notAttempted) {
+                record(candidate, DeleteOutcome.fail("Not attempted: deletion stopped early"), reason, user, deleted);
+            }
+        } finally {
+            results.addAll(deleted);
+            if (!candidates.isEmpty()) {
+                cleanupService.invalidateSnapshots();
+                long millis = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+                logger.info("Deleted {} instances in {} ms ({} per second, batch size {}, parallelism {})",
+                    candidates.size(), millis, candidates.size() * 1000L / millis, props.getDeleteBatchSize(),
+                    props.getDeleteRate().isEnabled() ? deleteRateController.getStatus() : props.getDeleteParallelism());
+            }
         }
         return results;
     }
 
-    private int computeDepth(Candidate candidate, Map<String, Candidate> map) {
-        if (!candidate.isSubprocess()) {
-            return 0;
+    /**
+     * Deletes {@code batch} in one transaction. If the batch fails it is rolled back and split in
+     * half, down to single instances, which go through the regular per-instance delete with
+     * retries. Each committed instance is audited on its own.
+     */
+    private void deleteBatch(List<Candidate> batch, String reason, boolean verify, String user,
+                             List<DeleteResultDto> deleted) {
+        if (batch.size() == 1) {
+            Candidate candidate = batch.get(0);
+            record(candidate, deleteWorker.deleteProcess(candidate.getProcessInstanceId(), reason, verify),
+                reason, user, deleted);
+            return;
         }
-        int depth = 0;
-        String current = candidate.getParentPid();
-        while (current != null) {
-            depth++;
-            Candidate parent = map.get(current);
-            if (parent == null) {
-                break;
-            }
-            current = parent.getParentPid();
+        List<String> pids = new ArrayList<>();
+        for (Candidate candidate : batch) {
+            pids.add(candidate.getProcessInstanceId());
         }
-        return depth;
-    }
-
-    private void pause() {
-        if (props.getDelayBetweenDeletesMillis() <= 0) {
+        Map<String, DeleteOutcome> outcomes;
+        try {
+            outcomes = deleteWorker.deleteBatch(pids, reason, verify);
+        } catch (RuntimeException ex) {
+            logger.info("Delete batch of {} instances rolled back ({}); splitting it", batch.size(), ex.getMessage());
+            int half = batch.size() / 2;
+            deleteBatch(batch.subList(0, half), reason, verify, user, deleted);
+            deleteBatch(batch.subList(half, batch.size()), reason, verify, user, deleted);
             return;
         }
-        try {
-            Thread.sleep(props.getDelayBetweenDeletesMillis());
-        } catch (InterruptedException ex) {
-            Thread.currentThread().interrupt();
+        for (Candidate candidate : batch) {
+            record(candidate, outcomes.get(candidate.getProcessInstanceId()), reason, user, deleted);
         }
     }
+
+    private void record(Candidate candidate, DeleteOutcome outcome, String reason, String user,
+                        List<DeleteResultDto> deleted) {
+        deleted.add(new DeleteResultDto(candidate.getProcessInstanceId(), outcome.getResult(), outcome.getError()));
+        auditService.logEvent("DELETE", candidate, outcome.getResult(), user, reason, outcome.getError());
+    }
 }
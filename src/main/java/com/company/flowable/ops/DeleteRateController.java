@@ -0,0 +1,150 @@
+package com.company.flowable.ops;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Adapts delete concurrency and rate with additive increase / multiplicative decrease. Every
+ * delete that finishes within {@code latencyTargetMillis} adds {@code 1 / concurrency} to the
+ * concurrency limit and {@code increasePerSecond / concurrency} to the rate, i.e. one permit and
+ * {@code increasePerSecond} per round of deletes. An optimistic locking conflict, a failed delete or
+ * a slow delete multiplies both by {@code decreaseFactor}, at most once per latency target so one
+ * storm only cuts once. Callers take a permit with {@link #acquire()}, which waits for both a free
+ * concurrency slot and the next rate slot, and return it with {@link #release(long, boolean)}.
+ */
+public class DeleteRateController {
+    private static final Logger logger = LoggerFactory.getLogger(DeleteRateController.class);
+
+    private final int minConcurrency;
+    private final int maxConcurrency;
+    private final double minPerSecond;
+    private final double maxPerSecond;
+    private final double increasePerSecond;
+    private final double decreaseFactor;
+    private final long latencyTargetNanos;
+
+    private double concurrency;
+    private double perSecond;
+    private int inFlight;
+    private long nextStartNanos;
+    private long lastDecreaseNanos;
+    private long completed;
+    private long decreases;
+
+    public DeleteRateController(int minConcurrency, int maxConcurrency, double minPerSecond, double maxPerSecond,
+                                double increasePerSecond, double decreaseFactor, long latencyTargetMillis) {
+        this.minConcurrency = Math.max(1, minConcurrency);
+        this.maxConcurrency = Math.max(this.minConcurrency, maxConcurrency);
+        this.minPerSecond = Math.max(0.1, minPerSecond);
+        this.maxPerSecond = Math.max(this.minPerSecond, maxPerSecond);
+        this.increasePerSecond = Math.max(0, increasePerSecond);
+        this.decreaseFactor = Math.min(0.95, Math.max(0.05, decreaseFactor));
+        this.latencyTargetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, latencyTargetMillis));
+        this.concurrency = this.minConcurrency;
+        this.perSecond = this.minPerSecond;
+        this.lastDecreaseNanos = System.nanoTime() - latencyTargetNanos;
+    }
+
+    public static DeleteRateController from(OpsCleanupProperties.DeleteRate settings) {
+        return new DeleteRateController(settings.getMinConcurrency(), settings.getMaxConcurrency(),
+            settings.getMinPerSecond(), settings.getMaxPerSecond(), settings.getIncreasePerSecond(),
+            settings.getDecreaseFactor(), settings.getLatencyTargetMillis());
+    }
+
+    /**
+     * Upper bound for worker pools that call {@link #acquire()}.
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Waits for a concurrency slot and the next rate slot.
+     */
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            while (inFlight >= (int) concurrency) {
+                wait();
+            }
+            inFlight++;
+            long now = System.nanoTime();
+            long start = Math.max(now, nextStartNanos);
+            nextStartNanos = start + (long) (TimeUnit.SECONDS.toNanos(1) / perSecond);
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException ex) {
+                cancel();
+                throw ex;
+            }
+        }
+    }
+
+    /**
+     * Returns a permit. {@code ok} is false for failed deletes; slow deletes count as unhealthy too.
+     */
+    public synchronized void release(long latencyNanos, boolean ok) {
+        inFlight--;
+        completed++;
+        if (ok && latencyNanos <= latencyTargetNanos) {
+            concurrency = Math.min(maxConcurrency, concurrency + 1.0 / concurrency);
+            perSecond = Math.min(maxPerSecond, perSecond + increasePerSecond / concurrency);
+        } else {
+            decrease(ok ? "latency " + TimeUnit.NANOSECONDS.toMillis(latencyNanos) + " ms" : "failed delete");
+        }
+        notifyAll();
+    }
+
+    private synchronized void cancel() {
+        inFlight--;
+        notifyAll();
+    }
+
+    /**
+     * Reports an optimistic locking conflict seen while deleting, e.g. between retries.
+     */
+    public synchronized void onConflict() {
+        decrease("optimistic locking conflict");
+    }
+
+    private void decrease(String cause) {
+        long now = System.nanoTime();
+        if (now - lastDecreaseNanos < latencyTargetNanos) {
+            return;
+        }
+        lastDecreaseNanos = now;
+        decreases++;
+        concurrency = Math.max(minConcurrency, concurrency * decreaseFactor);
+        perSecond = Math.max(minPerSecond, perSecond * decreaseFactor);
+        logger.info("Delete rate reduced to {} per second, concurrency {} ({})",
+            String.format("%.1f", perSecond), (int) concurrency, cause);
+    }
+
+    /**
+     * Current limits and counters, for the ops API and logs.
+     */
+    public synchronized Map<String, Object> getStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("perSecond", Math.round(perSecond * 10) / 10.0);
+        status.put("concurrency", (int) concurrency);
+        status.put("inFlight", inFlight);
+        status.put("completed", completed);
+        status.put("decreases", decreases);
+        return status;
+    }
+
+    synchronized double getPerSecond() {
+        return perSecond;
+    }
+
+    synchronized int getConcurrency() {
+        return (int) concurrency;
+    }
+}
@@ -0,0 +1,416 @@
+package com.company.flowable.ops;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deletes a set of candidates as a forest of call-activity trees. A candidate's parent in the
+ * graph is its {@code parentPid}, or its {@code rootPid} when the direct parent is not part of the
+ * set. Independent subtrees run concurrently on up to {@code parallelism} workers, and a parent
+ * is released only after all of its children in the set have finished, successfully or not.
+ * Each worker pauses {@code pauseMillis} after every delete. {@link #runBatches} packs whole trees
+ * into multi-instance batches instead.
+ */
+public class DeleteScheduler {
+    private static final Logger logger = LoggerFactory.getLogger(DeleteScheduler.class);
+
+    private final String name;
+    private final int parallelism;
+    private final long pauseMillis;
+    private final DeleteRateController rateController;
+
+    public DeleteScheduler(String name, int parallelism, long pauseMillis) {
+        this.name = name;
+        this.parallelism = Math.max(1, parallelism);
+        this.pauseMillis = pauseMillis;
+        this.rateController = null;
+    }
+
+    /**
+     * Paces deletes with {@code rateController} instead of a fixed pool size and pause. The pool
+     * is sized to the controller's maximum concurrency; each delete (or batch) holds a permit.
+     */
+    public DeleteScheduler(String name, DeleteRateController rateController) {
+        this.name = name;
+        this.parallelism = rateController.getMaxConcurrency();
+        this.pauseMillis = 0;
+        this.rateController = rateController;
+    }
+
+    /**
+     * Runs {@code delete} once per candidate, children before parents, and returns when all have
+     * finished. Exceptions thrown by {@code delete} are logged and count as finished. If the run
+     * is interrupted or a worker dies, no further deletes are started.
+     *
+     * @return candidates that were never attempted, i.e. still waiting for their turn or for
+     *     children when the run stopped; empty if the run completed
+     */
+    public List<Candidate> run(List<Candidate> candidates, Consumer<Candidate> delete) {
+        Graph graph = new Graph(candidates);
+        boolean completed;
+        if (parallelism == 1 || candidates.size() <= 1) {
+            while (!graph.ready.isEmpty()) {
+                Candidate candidate = graph.ready.poll();
+                if (!deleteOne(candidate, delete)) {
+                    graph.ready.addFirst(candidate);
+                    break;
+                }
+                graph.finished(candidate);
+            }
+            completed = graph.ready.isEmpty();
+        } else {
+            completed = runConcurrently(graph, delete);
+        }
+        if (!completed) {
+            List<Candidate> skipped = graph.notStarted();
+            logger.warn("Deletion stopped early; {} of {} candidates were not attempted", skipped.size(),
+                graph.byPid.size());
+            return skipped;
+        }
+        for (Candidate candidate : graph.unreleased()) {
+            // Only reachable with inconsistent parent links (a cycle); delete them one by one.
+            deleteOne(candidate, delete);
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * Packs the candidates into batches of at most {@code batchSize} instances and runs
+     * {@code deleteBatch} once per batch. Whole trees are packed together, so no batch depends on
+     * another and batches run concurrently. Within a batch, children come before their parents. A
+     * tree larger than {@code batchSize} is cut, deepest level first, into batches that run one
+     * after another on the same worker. If the run is interrupted or a worker dies, no further
+     * batches are started.
+     *
+     * @return candidates of batches that were never started; empty if the run completed
+     */
+    public List<Candidate> runBatches(List<Candidate> candidates, int batchSize, Consumer<List<Candidate>> deleteBatch) {
+        int limit = Math.max(1, batchSize);
+        Graph graph = new Graph(candidates);
+        Map<String, List<Candidate>> trees = new LinkedHashMap<>();
+        for (Candidate candidate : graph.byPid.values()) {
+            trees.computeIfAbsent(graph.top(candidate.getProcessInstanceId()), k -> new ArrayList<>()).add(candidate);
+        }
+        // Each unit is a sequence of batches that must run in order.
+        List<List<List<Candidate>>> units = new ArrayList<>();
+        List<Candidate> batch = new ArrayList<>();
+        for (List<Candidate> tree : trees.values()) {
+            tree.sort(Comparator.comparingInt(Candidate::getDepth).reversed());
+            if (tree.size() > limit) {
+                logger.info("Call-activity tree of {} instances split into batches of {}", tree.size(), limit);
+                List<List<Candidate>> chunks = new ArrayList<>();
+                for (int from = 0; from < tree.size(); from += limit) {
+                    chunks.add(new ArrayList<>(tree.subList(from, Math.min(from + limit, tree.size()))));
+                }
+                units.add(chunks);
+                continue;
+            }
+            if (!batch.isEmpty() && batch.size() + tree.size() > limit) {
+                units.add(Collections.singletonList(batch));
+                batch = new ArrayList<>();
+            }
+            batch.addAll(tree);
+        }
+        if (!batch.isEmpty()) {
+            units.add(Collections.singletonList(batch));
+        }
+        BatchClaims claims = new BatchClaims();
+        if (parallelism == 1 || units.size() == 1) {
+            for (List<List<Candidate>> unit : units) {
+                deleteUnit(unit, deleteBatch, claims);
+            }
+        } else {
+            ExecutorService pool = newPool(Math.min(parallelism, units.size()));
+            try {
+                List<Future<?>> futures = new ArrayList<>();
+                for (List<List<Candidate>> unit : units) {
+                    futures.add(pool.submit(() -> deleteUnit(unit, deleteBatch, claims)));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                logger.warn("Batch deletion interrupted");
+            } catch (ExecutionException ex) {
+                logger.warn("Batch deletion task failed", ex.getCause());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+        List<Candidate> skipped = claims.close(units);
+        if (!skipped.isEmpty()) {
+            logger.warn("Batch deletion stopped early; {} of {} candidates were not attempted", skipped.size(),
+                graph.byPid.size());
+        }
+        return skipped;
+    }
+
+    private void deleteUnit(List<List<Candidate>> unit, Consumer<List<Candidate>> deleteBatch, BatchClaims claims) {
+        for (List<Candidate> batch : unit) {
+            deleteBatchOne(batch, deleteBatch, claims);
+        }
+    }
+
+    private void deleteBatchOne(List<Candidate> batch, Consumer<List<Candidate>> deleteBatch, BatchClaims claims) {
+        if (Thread.currentThread().isInterrupted()) {
+            return;
+        }
+        paced(() -> {
+            if (claims.claim(batch)) {
+                deleteBatch.accept(batch);
+            }
+        }, "Batch delete of " + batch.size() + " instances failed");
+    }
+
+    private ExecutorService newPool(int threads) {
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @return false if the run stopped before every released candidate was deleted
+     */
+    private boolean runConcurrently(Graph graph, Consumer<Candidate> delete) {
+        ExecutorService pool = newPool(parallelism);
+        CompletionService<Candidate> completion = new ExecutorCompletionService<>(pool);
+        int running = 0;
+        try {
+            while (!graph.ready.isEmpty() || running > 0) {
+                while (!graph.ready.isEmpty()) {
+                    Candidate candidate = graph.ready.poll();
+                    completion.submit(() -> {
+                        deleteOne(candidate, delete);
+                        return candidate;
+                    });
+                    running++;
+                }
+                Candidate done = completion.take().get();
+                running--;
+                graph.finished(done);
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            logger.warn("Deletion interrupted with {} deletes running", running);
+            return false;
+        } catch (ExecutionException ex) {
+            logger.warn("Deletion task failed with {} deletes running", running - 1, ex.getCause());
+            return false;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * @return false if the delete was not attempted because the thread was interrupted
+     */
+    private boolean deleteOne(Candidate candidate, Consumer<Candidate> delete) {
+        if (Thread.currentThread().isInterrupted()) {
+            return false;
+        }
+        return paced(() -> delete.accept(candidate), "Delete failed for " + candidate.getProcessInstanceId());
+    }
+
+    /**
+     * Runs one delete under the rate controller's permit, or followed by the fixed pause.
+     *
+     * @return false if interrupted while waiting for a permit, before the delete ran
+     */
+    private boolean paced(Runnable delete, String failure) {
+        if (rateController != null) {
+            try {
+                rateController.acquire();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        long start = System.nanoTime();
+        boolean ok = false;
+        try {
+            delete.run();
+            ok = true;
+        } catch (RuntimeException ex) {
+            logger.warn(failure, ex);
+        } finally {
+            if (rateController != null) {
+                rateController.release(System.nanoTime() - start, ok);
+            }
+        }
+        if (rateController == null) {
+            pause();
+        }
+        return true;
+    }
+
+    private void pause() {
+        if (pauseMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMillis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Batches that workers have started. Once closed, no further batch can be claimed, so the
+     * unclaimed ones are exactly those that will never run.
+     */
+    private static final class BatchClaims {
+        private final Set<List<Candidate>> claimed = Collections.newSetFromMap(new IdentityHashMap<>());
+        private boolean closed;
+
+        synchronized boolean claim(List<Candidate> batch) {
+            if (closed) {
+                return false;
+            }
+            claimed.add(batch);
+            return true;
+        }
+
+        synchronized List<Candidate> close(List<List<List<Candidate>>> units) {
+            closed = true;
+            List<Candidate> unclaimed = new ArrayList<>();
+            for (List<List<Candidate>> unit : units) {
+                for (List<Candidate> batch : unit) {
+                    if (!claimed.contains(batch)) {
+                        unclaimed.addAll(batch);
+                    }
+                }
+            }
+            return unclaimed;
+        }
+    }
+
+    /**
+     * Parent links and open child counts. Only touched by the coordinating thread.
+     */
+    static final class Graph {
+        final Deque<Candidate> ready = new ArrayDeque<>();
+        final Map<String, Candidate> byPid = new LinkedHashMap<>();
+        private final Map<String, String> parentOf = new HashMap<>();
+        private final Map<String, Integer> openChildren = new HashMap<>();
+        private int released;
+
+        Graph(List<Candidate> candidates) {
+            for (Candidate candidate : candidates) {
+                byPid.putIfAbsent(candidate.getProcessInstanceId(), candidate);
+            }
+            for (Candidate candidate : byPid.values()) {
+                String parent = parentInSet(candidate);
+                if (parent != null) {
+                    parentOf.put(candidate.getProcessInstanceId(), parent);
+                    openChildren.merge(parent, 1, Integer::sum);
+                }
+            }
+            List<Candidate> leaves = new ArrayList<>();
+            for (Candidate candidate : byPid.values()) {
+                if (!openChildren.containsKey(candidate.getProcessInstanceId())) {
+                    leaves.add(candidate);
+                }
+            }
+            // Deepest first, so long chains start early.
+            leaves.sort(Comparator.comparingInt(Candidate::getDepth).reversed());
+            for (Candidate leaf : leaves) {
+                release(leaf);
+            }
+        }
+
+        /**
+         * Topmost ancestor of {@code pid} within the set.
+         */
+        String top(String pid) {
+            String current = pid;
+            for (int i = 0; i <= byPid.size() && parentOf.containsKey(current); i++) {
+                current = parentOf.get(current);
+            }
+            return current;
+        }
+
+        private String parentInSet(Candidate candidate) {
+            String pid = candidate.getProcessInstanceId();
+            String parent = candidate.getParentPid();
+            if (parent != null && !parent.equals(pid) && byPid.containsKey(parent)) {
+                return parent;
+            }
+            String root = candidate.getRootPid();
+            if (root != null && !root.equals(pid) && byPid.containsKey(root)) {
+                return root;
+            }
+            return null;
+        }
+
+        void finished(Candidate candidate) {
+            String parent = parentOf.get(candidate.getProcessInstanceId());
+            if (parent == null) {
+                return;
+            }
+            int open = openChildren.merge(parent, -1, Integer::sum);
+            if (open == 0) {
+                openChildren.remove(parent);
+                release(byPid.get(parent));
+            }
+        }
+
+        private void release(Candidate candidate) {
+            ready.add(candidate);
+            released++;
+        }
+
+        /**
+         * Candidates that were released but not taken yet, then those never released.
+         */
+        List<Candidate> notStarted() {
+            List<Candidate> pending = new ArrayList<>(ready);
+            for (Candidate candidate : byPid.values()) {
+                if (openChildren.containsKey(candidate.getProcessInstanceId())) {
+                    pending.add(candidate);
+                }
+            }
+            return pending;
+        }
+
+        /**
+         * Candidates that were never released, in input order.
+         */
+        List<Candidate> unreleased() {
+            List<Candidate> pending = new ArrayList<>();
+            if (released == byPid.size()) {
+                return pending;
+            }
+            for (Candidate candidate : byPid.values()) {
+                if (openChildren.containsKey(candidate.getProcessInstanceId())) {
+                    pending.add(candidate);
+                }
+            }
+            return pending;
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.company.flowable.ops;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 import org.flowable.common.engine.api.FlowableObjectNotFoundException;
 import org.flowable.common.engine.api.FlowableOptimisticLockingException;
 import org.flowable.engine.RuntimeService;
+import org.flowable.engine.runtime.ProcessInstance;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.dao.OptimisticLockingFailureException;
@@ -19,11 +26,14 @@ public class DeleteWorker {
     private final RuntimeService runtimeService;
     private final VerificationService verificationService;
     private final OpsCleanupProperties props;
+    private final DeleteRateController deleteRateController;
 
-    public DeleteWorker(RuntimeService runtimeService, VerificationService verificationService, OpsCleanupProperties props) {
+    public DeleteWorker(RuntimeService runtimeService, VerificationService verificationService, OpsCleanupProperties props,
+                        DeleteRateController deleteRateController) {
         this.runtimeService = runtimeService;
         this.verificationService = verificationService;
         this.props = props;
+        this.deleteRateController = deleteRateController;
     }
 
     @Transactional(propagation = Propagation.REQUIRES_NEW)
@@ -50,6 +60,9 @@ public class DeleteWorker {
                 }
                 return DeleteOutcome.ok();
             } catch (Exception ex) {
+                if (isRetryable(ex) && props.getDeleteRate().isEnabled()) {
+                    deleteRateController.onConflict();
+                }
                 if (isRetryable(ex) && attempt < maxAttempts) {
                     backoff(attempt);
                     continue;
@@ -61,6 +74,39 @@ public class DeleteWorker {
         return DeleteOutcome.fail("Delete attempts exhausted");
     }
 
+    /**
+     * Deletes several instances one after another in one transaction, in the given order.
+     * Instances that are no longer active are reported as skipped. Any failure, including a failed
+     * verification, is thrown so the whole batch rolls back and the caller can split it.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public Map<String, DeleteOutcome> deleteBatch(List<String> pids, String reason, boolean verify) {
+        Set<String> active = new HashSet<>();
+        for (ProcessInstance instance : runtimeService.createProcessInstanceQuery()
+                .processInstanceIds(new HashSet<>(pids)).active().list()) {
+            active.add(instance.getId());
+        }
+        Map<String, DeleteOutcome> outcomes = new LinkedHashMap<>();
+        List<String> toDelete = new ArrayList<>();
+        for (String pid : pids) {
+            if (active.contains(pid)) {
+                toDelete.add(pid);
+            } else {
+                outcomes.put(pid, DeleteOutcome.skipped("Process instance not active"));
+            }
+        }
+        for (String pid : toDelete) {
+            runtimeService.deleteProcessInstance(pid, reason);
+        }
+        for (String pid : toDelete) {
+            if (verify && !verificationService.verify(pid).isDeleted()) {
+                throw new IllegalStateException("Verification failed for " + pid);
+            }
+            outcomes.put(pid, DeleteOutcome.ok());
+        }
+        return outcomes;
+    }
+
     private void backoff(int attempt) {
         long delay = props.getRetryBackoffMillis() * (attempt + 1);
         try {
@@ -0,0 +1,135 @@
+package com.company.flowable.ops;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * Custom MyBatis mapper for the scanner's execution prefetch and {@link AncestryResolver}. It reads
+ * only the columns the scanner uses into plain rows, instead of hydrating full execution entities
+ * (which also registers each one in the engine's entity cache for the rest of the command).
+ */
+public interface ExecutionMapper {
+
+    @Select({
+        "<script>",
+        "SELECT ID_ AS id, PROC_INST_ID_ AS processInstanceId, ACT_ID_ AS activityId,",
+        " SUPER_EXEC_ AS superExecutionId, PARENT_ID_ AS parentId",
+        " FROM ${prefix}ACT_RU_EXECUTION WHERE PROC_INST_ID_ IN",
+        " <foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>",
+        "</script>"
+    })
+    List<ExecutionRow> selectByProcessInstanceIds(@Param("ids") List<String> processInstanceIds);
+
+    @Select({
+        "<script>",
+        "SELECT ID_ AS id, PROC_INST_ID_ AS processInstanceId, ACT_ID_ AS activityId,",
+        " SUPER_EXEC_ AS superExecutionId, PARENT_ID_ AS parentId",
+        " FROM ${prefix}ACT_RU_EXECUTION WHERE ID_ IN",
+        " <foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>",
+        "</script>"
+    })
+    List<ExecutionRow> selectByIds(@Param("ids") List<String> executionIds);
+
+    /**
+     * Every call-activity ancestor of the given process instances, one row per instance and level
+     * ({@code depth} 1 is the direct parent). A process instance's root execution points to the
+     * calling execution through SUPER_EXEC_, whose PROC_INST_ID_ is the parent instance. Oracle,
+     * SQL Server and DB2 take a recursive WITH without the RECURSIVE keyword.
+     */
+    @Select({
+        "<script>",
+        "WITH <if test=\"_databaseId != null and _databaseId != 'oracle' and _databaseId != 'mssql' and _databaseId != 'db2'\">RECURSIVE </if>",
+        "ANC (PID_, ANCESTOR_, DEPTH_) AS (",
+        " SELECT E.ID_, E.ID_, 0 FROM ${prefix}ACT_RU_EXECUTION E WHERE E.ID_ = E.PROC_INST_ID_ AND E.ID_ IN",
+        " <foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>",
+        " UNION ALL",
+        " SELECT A.PID_, S.PROC_INST_ID_, A.DEPTH_ + 1 FROM ANC A",
+        " JOIN ${prefix}ACT_RU_EXECUTION R ON R.ID_ = A.ANCESTOR_",
+        " JOIN ${prefix}ACT_RU_EXECUTION S ON S.ID_ = R.SUPER_EXEC_",
+        " WHERE A.DEPTH_ &lt; #{maxDepth}",
+        ")",
+        "SELECT PID_ AS processInstanceId, ANCESTOR_ AS ancestorId, DEPTH_ AS depth FROM ANC WHERE DEPTH_ &gt; 0",
+        "</script>"
+    })
+    List<AncestorRow> selectAncestors(@Param("ids") List<String> processInstanceIds, @Param("maxDepth") int maxDepth);
+
+    class ExecutionRow {
+        private String id;
+        private String processInstanceId;
+        private String activityId;
+        private String superExecutionId;
+        private String parentId;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getProcessInstanceId() {
+            return processInstanceId;
+        }
+
+        public void setProcessInstanceId(String processInstanceId) {
+            this.processInstanceId = processInstanceId;
+        }
+
+        public String getActivityId() {
+            return activityId;
+        }
+
+        public void setActivityId(String activityId) {
+            this.activityId = activityId;
+        }
+
+        public String getSuperExecutionId() {
+            return superExecutionId;
+        }
+
+        public void setSuperExecutionId(String superExecutionId) {
+            this.superExecutionId = superExecutionId;
+        }
+
+        public String getParentId() {
+            return parentId;
+        }
+
+        public void setParentId(String parentId) {
+            this.parentId = parentId;
+        }
+    }
+
+    class AncestorRow {
+        private String processInstanceId;
+        private String ancestorId;
+        private int depth;
+
+        public String getProcessInstanceId() {
+            return processInstanceId;
+        }
+
+        public void setProcessInstanceId(String processInstanceId) {
+            this.processInstanceId = processInstanceId;
+        }
+
+        public String getAncestorId() {
+            return ancestorId;
+        }
+
+        public void setAncestorId(String ancestorId) {
+            this.ancestorId = ancestorId;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public void setDepth(int depth) {
+            this.depth = depth;
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.company.flowable.ops;
 
+import java.util.Arrays;
+import java.util.HashSet;
+
 import javax.sql.DataSource;
 
 import org.flowable.engine.HistoryService;
@@ -88,6 +91,10 @@ public class FlowableEngineConfig {
         // Flowable 6.7.2 SpringProcessEngineConfiguration doesn't expose setJobExecutorActivate.
         config.setAsyncExecutorActivate(false);
         config.setAsyncHistoryExecutorActivate(false);
+        // JobCountMapper backs the CUSTOM_MAPPER query strategy; ExecutionMapper and IdentityLinkMapper
+        // the scan prefetch.
+        config.setCustomMybatisMappers(new HashSet<>(Arrays.asList(JobCountMapper.class, ExecutionMapper.class,
+            IdentityLinkMapper.class)));
         return config;
     }
 
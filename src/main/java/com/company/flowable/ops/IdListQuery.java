@@ -0,0 +1,169 @@
+package com.company.flowable.ops;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds batched id lookups with a small, fixed set of IN-list sizes. Each batch is padded up to
+ * the next bucket size by repeating its last id, which never changes the result, so a lookup only
+ * ever produces one statement text per bucket and the database and JDBC statement caches stay
+ * warm. Executions and distinct statement texts are counted per lookup name.
+ */
+public class IdListQuery {
+    static final int[] DEFAULT_BUCKETS = {1, 8, 32, 128, 512, 1000};
+
+    private final int[] buckets;
+    private final Map<String, StatementStats> stats = new ConcurrentHashMap<>();
+
+    /**
+     * @param inClauseLimit largest list the database accepts; larger buckets are dropped and the
+     *                      limit itself becomes the largest bucket
+     */
+    public IdListQuery(int inClauseLimit) {
+        int limit = Math.max(1, inClauseLimit);
+        List<Integer> sizes = new ArrayList<>();
+        for (int bucket : DEFAULT_BUCKETS) {
+            if (bucket < limit) {
+                sizes.add(bucket);
+            }
+        }
+        sizes.add(limit);
+        this.buckets = sizes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    public int maxBatchSize() {
+        return buckets[buckets.length - 1];
+    }
+
+    /**
+     * Smallest bucket that holds {@code count} ids.
+     */
+    public int bucketSize(int count) {
+        for (int bucket : buckets) {
+            if (count <= bucket) {
+                return bucket;
+            }
+        }
+        throw new IllegalArgumentException("Batch of " + count + " exceeds the IN-list limit " + maxBatchSize());
+    }
+
+    /**
+     * Splits {@code ids} into batches of at most {@link #maxBatchSize()} ids.
+     */
+    public <T> List<List<T>> batches(List<T> ids) {
+        List<List<T>> batches = new ArrayList<>();
+        int size = maxBatchSize();
+        for (int i = 0; i < ids.size(); i += size) {
+            batches.add(ids.subList(i, Math.min(ids.size(), i + size)));
+        }
+        return batches;
+    }
+
+    /**
+     * Returns {@code batch} padded to its bucket size with copies of its last id.
+     */
+    public List<String> pad(List<String> batch) {
+        if (batch.isEmpty()) {
+            return batch;
+        }
+        int bucket = bucketSize(batch.size());
+        if (bucket == batch.size()) {
+            return batch;
+        }
+        List<String> padded = new ArrayList<>(bucket);
+        padded.addAll(batch);
+        String sentinel = batch.get(batch.size() - 1);
+        while (padded.size() < bucket) {
+            padded.add(sentinel);
+        }
+        return padded;
+    }
+
+    /**
+     * {@code (?,?,...)} with {@code size} JDBC placeholders.
+     */
+    public static String placeholders(int size) {
+        StringBuilder sql = new StringBuilder("(");
+        for (int i = 0; i < size; i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        return sql.append(")").toString();
+    }
+
+    /**
+     * {@code (#{p0},#{p1},...)} with {@code size} named native query parameters.
+     */
+    public static String namedPlaceholders(String prefix, int size) {
+        StringBuilder sql = new StringBuilder("(");
+        for (int i = 0; i < size; i++) {
+            sql.append(i == 0 ? "" : ",").append("#{").append(prefix).append(i).append("}");
+        }
+        return sql.append(")").toString();
+    }
+
+    /**
+     * Counts one execution of {@code statement} (the SQL text, or any key that identifies it)
+     * under the lookup {@code name}.
+     */
+    public void recordExecution(String name, String statement, int ids, int paddedIds) {
+        stats.computeIfAbsent(name, k -> new StatementStats()).record(statement, ids, paddedIds);
+    }
+
+    /**
+     * Cumulative statistics per lookup name since startup.
+     */
+    public Map<String, StatementStats> getStatistics() {
+        Map<String, StatementStats> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, StatementStats> entry : stats.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().copy());
+        }
+        return snapshot;
+    }
+
+    public static class StatementStats {
+        private final Set<String> statements = new HashSet<>();
+        private long executions;
+        private long ids;
+        private long paddedIds;
+
+        synchronized void record(String statement, int idCount, int paddedIdCount) {
+            statements.add(statement);
+            executions++;
+            ids += idCount;
+            paddedIds += paddedIdCount - idCount;
+        }
+
+        synchronized StatementStats copy() {
+            StatementStats copy = new StatementStats();
+            copy.statements.addAll(statements);
+            copy.executions = executions;
+            copy.ids = ids;
+            copy.paddedIds = paddedIds;
+            return copy;
+        }
+
+        public long getExecutions() {
+            return executions;
+        }
+
+        /**
+         * Distinct statement texts executed, i.e. the most hard parses this lookup can have caused.
+         */
+        public int getParses() {
+            return statements.size();
+        }
+
+        public long getIds() {
+            return ids;
+        }
+
+        public long getPaddedIds() {
+            return paddedIds;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.company.flowable.ops;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import oracle.jdbc.OracleConnection;
+
+/**
+ * Binds a batch of ids into a JDBC statement as a set to use after {@code IN}. The IN-list
+ * binding renders one placeholder per id, padded to an {@link IdListQuery} bucket, and is
+ * portable; the Oracle array and temporary table bindings keep the statement text identical
+ * for any batch size, so it is parsed once and cached.
+ */
+public interface IdSetBinding {
+
+    /**
+     * Largest number of ids bound in one statement.
+     */
+    int maxBatchSize();
+
+    /**
+     * Makes {@code ids} available on {@code connection}. The returned set must be used on the
+     * same connection and closed after the statement ran.
+     */
+    IdSet prepare(Connection connection, List<String> ids) throws SQLException;
+
+    /**
+     * True if {@link #prepare} writes to the database, so the statement cannot run on the
+     * read-only pool.
+     */
+    default boolean writes() {
+        return false;
+    }
+
+    static IdSetBinding create(OpsCleanupProperties.NativeSql nativeSql, IdListQuery idListQuery) {
+        switch (nativeSql.getIdSetMode()) {
+            case ORACLE_ARRAY:
+                return new OracleArray(nativeSql.getIdArrayType());
+            case TEMP_TABLE:
+                return new TempTable(nativeSql.getIdSetTable());
+            default:
+                return new InList(idListQuery);
+        }
+    }
+
+    interface IdSet extends AutoCloseable {
+        /**
+         * Parenthesized list or subquery that follows {@code IN}.
+         */
+        String sql();
+
+        /**
+         * Number of values in the set, including padding.
+         */
+        int size();
+
+        /**
+         * Binds the set's parameters starting at {@code index} and returns the next free index.
+         */
+        int bind(PreparedStatement ps, int index) throws SQLException;
+
+        @Override
+        default void close() throws SQLException {
+        }
+    }
+
+    /**
+     * {@code IN (?, ?, ...)} with one placeholder per id, padded to the next bucket size.
+     */
+    final class InList implements IdSetBinding {
+        private final IdListQuery idListQuery;
+
+        public InList(IdListQuery idListQuery) {
+            this.idListQuery = idListQuery;
+        }
+
+        @Override
+        public int maxBatchSize() {
+            return idListQuery.maxBatchSize();
+        }
+
+        @Override
+        public IdSet prepare(Connection connection, List<String> ids) {
+            List<String> padded = idListQuery.pad(ids);
+            String text = IdListQuery.placeholders(padded.size());
+            return new IdSet() {
+                @Override
+                public String sql() {
+                    return text;
+                }
+
+                @Override
+                public int size() {
+                    return padded.size();
+                }
+
+                @Override
+                public int bind(PreparedStatement ps, int index) throws SQLException {
+                    for (String id : padded) {
+                        ps.setString(index++, id);
+                    }
+                    return index;
+                }
+            };
+        }
+    }
+
+    /**
+     * {@code IN (SELECT COLUMN_VALUE FROM TABLE(?))} with the ids bound as one Oracle collection of
+     * {@code arrayType} (a VARCHAR2 collection type such as {@code SYS.ODCIVARCHAR2LIST}).
+     */
+    final class OracleArray implements IdSetBinding {
+        private final String arrayType;
+
+        public OracleArray(String arrayType) {
+            this.arrayType = arrayType;
+        }
+
+        @Override
+        public int maxBatchSize() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public IdSet prepare(Connection connection, List<String> ids) throws SQLException {
+            Array array = connection.unwrap(OracleConnection.class).createOracleArray(arrayType, ids.toArray(new String[0]));
+            return new IdSet() {
+                @Override
+                public String sql() {
+                    return "(SELECT COLUMN_VALUE FROM TABLE(?))";
+                }
+
+                @Override
+                public int size() {
+                    return ids.size();
+                }
+
+                @Override
+                public int bind(PreparedStatement ps, int index) throws SQLException {
+                    ps.setArray(index, array);
+                    return index + 1;
+                }
+
+                @Override
+                public void close() throws SQLException {
+                    array.free();
+                }
+            };
+        }
+    }
+
+    /**
+     * {@code IN (SELECT ID_ FROM <table>)} over a session-private global temporary table that is
+     * cleared and bulk-loaded before each statement. The table must exist, e.g.
+     * {@code CREATE GLOBAL TEMPORARY TABLE OPS_ID_SET (ID_ VARCHAR2(64) PRIMARY KEY) ON COMMIT PRESERVE ROWS}.
+     */
+    final class TempTable implements IdSetBinding {
+        private final String table;
+
+        public TempTable(String table) {
+            this.table = table;
+        }
+
+        @Override
+        public int maxBatchSize() {
+            return Integer.MAX_VALUE;
+        }
+
+        @Override
+        public boolean writes() {
+            return true;
+        }
+
+        @Override
+        public IdSet prepare(Connection connection, List<String> ids) throws SQLException {
+            try (PreparedStatement clear = connection.prepareStatement("DELETE FROM " + table)) {
+                clear.executeUpdate();
+            }
+            try (PreparedStatement insert = connection.prepareStatement("INSERT INTO " + table + " (ID_) VALUES (?)")) {
+                for (String id : new LinkedHashSet<>(ids)) {
+                    insert.setString(1, id);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+            String text = "(SELECT ID_ FROM " + table + ")";
+            int size = new LinkedHashSet<>(ids).size();
+            return new IdSet() {
+                @Override
+                public String sql() {
+                    return text;
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+
+                @Override
+                public int bind(PreparedStatement ps, int index) {
+                    return index;
+                }
+            };
+        }
+    }
+}
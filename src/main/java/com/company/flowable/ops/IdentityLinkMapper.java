@@ -0,0 +1,44 @@
+package com.company.flowable.ops;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * Custom MyBatis mapper for the scanner's user prefetch. It reads 'starter' identity links as
+ * plain (process instance, user) rows.
+ */
+public interface IdentityLinkMapper {
+
+    @Select({
+        "<script>",
+        "SELECT PROC_INST_ID_ AS processInstanceId, USER_ID_ AS userId",
+        " FROM ${prefix}ACT_RU_IDENTITYLINK WHERE TYPE_ = 'starter' AND USER_ID_ IS NOT NULL AND PROC_INST_ID_ IN",
+        " <foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>",
+        " ORDER BY PROC_INST_ID_, USER_ID_",
+        "</script>"
+    })
+    List<StarterLinkRow> selectStarterLinks(@Param("ids") List<String> processInstanceIds);
+
+    class StarterLinkRow {
+        private String processInstanceId;
+        private String userId;
+
+        public String getProcessInstanceId() {
+            return processInstanceId;
+        }
+
+        public void setProcessInstanceId(String processInstanceId) {
+            this.processInstanceId = processInstanceId;
+        }
+
+        public String getUserId() {
+            return userId;
+        }
+
+        public void setUserId(String userId) {
+            this.userId = userId;
+        }
+    }
+}
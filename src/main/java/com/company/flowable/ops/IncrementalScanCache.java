@@ -0,0 +1,240 @@
+package com.company.flowable.ops;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps the candidate set of earlier scans and refreshes it from a watermark instead of rescanning.
+ * A refresh appends instances whose start time crossed the new cutoff, rebuilds only tracked
+ * instances whose tasks, activities or jobs changed since the watermark (dropping those that ended
+ * or no longer qualify), and re-ages everything else in memory. A full rescan still happens on the
+ * first request, after {@code fullRescanInterval}, and whenever the set grows beyond
+ * {@code maxItems}.
+ */
+public class IncrementalScanCache {
+    private static final Logger logger = LoggerFactory.getLogger(IncrementalScanCache.class);
+
+    private final CleanupScanner scanner;
+    private final Map<Key, State> states;
+    private final int maxItems;
+    private final Duration fullRescanInterval;
+    private final Duration watermarkOverlap;
+
+    public IncrementalScanCache(CleanupScanner scanner, int maxEntries, int maxItems,
+                                Duration fullRescanInterval, Duration watermarkOverlap) {
+        this.scanner = scanner;
+        this.maxItems = maxItems;
+        this.fullRescanInterval = fullRescanInterval;
+        this.watermarkOverlap = watermarkOverlap;
+        this.states = Collections.synchronizedMap(new LinkedHashMap<Key, State>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, State> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Brings the tracked set for the scan filters of {@code criteria} up to date and passes every
+     * current candidate to {@code sink} in (start time, id) order.
+     */
+    public void refresh(FilterCriteria criteria, int hours, Instant cutoff, Instant now, CandidateSink sink) {
+        Key key = new Key(hours, normalize(criteria.getProcDefKey()), normalize(criteria.getStarterUserId()));
+        State state = states.computeIfAbsent(key, k -> new State());
+        List<Candidate> current;
+        synchronized (state) {
+            if (state.candidates == null || Duration.between(state.fullScanAt, now).compareTo(fullRescanInterval) > 0) {
+                fullScan(key, state, criteria, cutoff, now, sink);
+                return;
+            }
+            current = deltaScan(key, state, criteria, cutoff, now);
+        }
+        for (Candidate candidate : current) {
+            sink.accept(candidate);
+        }
+    }
+
+    /**
+     * Returns whether a delta refresh is possible for the scan filters of {@code criteria}.
+     */
+    public boolean isTracking(FilterCriteria criteria, int hours) {
+        State state = states.get(new Key(hours, normalize(criteria.getProcDefKey()), normalize(criteria.getStarterUserId())));
+        return state != null && state.candidates != null;
+    }
+
+    public void invalidateAll() {
+        states.clear();
+    }
+
+    /**
+     * Streams a full scan to {@code sink} and tracks its candidates unless there are more than
+     * {@code maxItems}, in which case nothing is kept and the next request scans in full again.
+     */
+    private void fullScan(Key key, State state, FilterCriteria criteria, Instant cutoff, Instant now, CandidateSink sink) {
+        long start = System.nanoTime();
+        LinkedHashMap<String, Candidate> tracked = new LinkedHashMap<>();
+        boolean[] overflow = new boolean[1];
+        scanner.scanWithFilters(cutoff, now, criteria, candidate -> {
+            if (!overflow[0]) {
+                if (tracked.size() >= maxItems) {
+                    overflow[0] = true;
+                    tracked.clear();
+                } else {
+                    tracked.put(candidate.getProcessInstanceId(), candidate);
+                }
+            }
+            sink.accept(candidate);
+        });
+        if (overflow[0]) {
+            state.candidates = null;
+            states.remove(key, state);
+            logger.debug("Full scan exceeded {} candidates; not tracking it for delta refresh", maxItems);
+            return;
+        }
+        remember(key, state, tracked, cutoff, now, now);
+        logger.debug("Full scan tracked {} candidates in {} ms", tracked.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<Candidate> deltaScan(Key key, State state, FilterCriteria criteria, Instant cutoff, Instant now) {
+        long start = System.nanoTime();
+        Instant since = state.watermark.minus(watermarkOverlap);
+
+        Set<String> changed = scanner.findChangedProcessIds(since, now);
+        changed.retainAll(state.candidates.keySet());
+        Map<String, Candidate> rebuilt = new LinkedHashMap<>();
+        if (!changed.isEmpty()) {
+            for (Candidate candidate : scanner.reloadCandidates(changed, cutoff, now, criteria)) {
+                rebuilt.put(candidate.getProcessInstanceId(), candidate);
+            }
+        }
+
+        LinkedHashMap<String, Candidate> next = new LinkedHashMap<>();
+        for (Map.Entry<String, Candidate> entry : state.candidates.entrySet()) {
+            String pid = entry.getKey();
+            if (changed.contains(pid)) {
+                Candidate candidate = rebuilt.get(pid);
+                if (candidate != null) {
+                    next.put(pid, candidate);
+                }
+            } else {
+                next.put(pid, reaged(entry.getValue(), now));
+            }
+        }
+
+        // Instances at or before the previous cutoff are already tracked; entrants all start later,
+        // so appending keeps the set in scan order.
+        int[] entrants = new int[1];
+        scanner.scanWithFilters(cutoff, now, criteria, ScanCursor.after(Date.from(state.cutoff), ""), candidate -> {
+            if (next.putIfAbsent(candidate.getProcessInstanceId(), candidate) == null) {
+                entrants[0]++;
+            }
+        });
+
+        List<Candidate> current = new ArrayList<>(next.values());
+        remember(key, state, next, cutoff, now, state.fullScanAt);
+        logger.debug("Delta refresh: {} changed, {} dropped, {} entered, {} tracked in {} ms", changed.size(),
+            changed.size() - rebuilt.size(), entrants[0], current.size(), (System.nanoTime() - start) / 1_000_000);
+        return current;
+    }
+
+    private void remember(Key key, State state, LinkedHashMap<String, Candidate> candidates, Instant cutoff,
+                          Instant now, Instant fullScanAt) {
+        if (candidates.size() > maxItems) {
+            state.candidates = null;
+            states.remove(key, state);
+            return;
+        }
+        state.candidates = candidates;
+        state.cutoff = cutoff;
+        state.watermark = now;
+        state.fullScanAt = fullScanAt;
+    }
+
+    /**
+     * Copies a tracked candidate with its running time and task ages measured at {@code now}, so
+     * age-based classification stays correct without re-reading unchanged instances.
+     */
+    private static Candidate reaged(Candidate source, Instant now) {
+        Candidate copy = new Candidate();
+        copy.setProcessInstanceId(source.getProcessInstanceId());
+        copy.setProcessDefinitionId(source.getProcessDefinitionId());
+        copy.setProcessDefinitionKey(source.getProcessDefinitionKey());
+        copy.setStartTime(source.getStartTime());
+        copy.setHoursRunning(source.getStartTime() == null ? source.getHoursRunning()
+            : Duration.between(source.getStartTime(), now).toHours());
+        copy.setStarterUserId(source.getStarterUserId());
+        copy.setStarterName(source.getStarterName());
+        copy.setStarterEmail(source.getStarterEmail());
+        copy.setSubprocess(source.isSubprocess());
+        copy.setParentPid(source.getParentPid());
+        copy.setRootPid(source.getRootPid());
+        copy.setDepth(source.getDepth());
+        for (TaskSummary task : source.getTasks()) {
+            long ageHours = task.getCreateTime() == null ? task.getAgeHours() : Duration.between(task.getCreateTime(), now).toHours();
+            copy.getTasks().add(new TaskSummary(task.getTaskId(), task.getName(), task.getAssignee(), task.getCreateTime(), ageHours));
+        }
+        copy.setActiveActivityIds(source.getActiveActivityIds());
+        copy.setJobCount(source.getJobCount());
+        copy.setOverdueJobCount(source.getOverdueJobCount());
+        copy.setTimerCount(source.getTimerCount());
+        copy.setOverdueTimerCount(source.getOverdueTimerCount());
+        return copy;
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    private static final class State {
+        LinkedHashMap<String, Candidate> candidates;
+        Instant cutoff;
+        Instant watermark;
+        Instant fullScanAt;
+    }
+
+    private static final class Key {
+        private final int hours;
+        private final String procDefKey;
+        private final String starterUserId;
+
+        Key(int hours, String procDefKey, String starterUserId) {
+            this.hours = hours;
+            this.procDefKey = procDefKey;
+            this.starterUserId = starterUserId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hours == other.hours
+                && Objects.equals(procDefKey, other.procDefKey)
+                && Objects.equals(starterUserId, other.starterUserId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hours, procDefKey, starterUserId);
+        }
+    }
+}
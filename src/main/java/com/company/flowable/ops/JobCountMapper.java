@@ -0,0 +1,74 @@
+package com.company.flowable.ops;
+
+import java.util.Date;
+import java.util.List;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+/**
+ * Custom MyBatis mapper registered with the process engine (see {@link FlowableEngineConfig}). It
+ * runs inside Flowable's own session and uses the engine's {@code ${prefix}} table prefix.
+ */
+public interface JobCountMapper {
+
+    /**
+     * Job and timer totals and overdue counts per process instance, one row per instance and kind
+     * ({@code J} for jobs, {@code T} for timers). Instances without jobs or timers have no row.
+     */
+    @Select({
+        "<script>",
+        "SELECT 'J' AS kind, PROCESS_INSTANCE_ID_ AS processInstanceId, COUNT(*) AS total,",
+        " SUM(CASE WHEN DUEDATE_ &lt; #{now} THEN 1 ELSE 0 END) AS overdue",
+        " FROM ${prefix}ACT_RU_JOB WHERE PROCESS_INSTANCE_ID_ IN",
+        " <foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>",
+        " GROUP BY PROCESS_INSTANCE_ID_",
+        " UNION ALL",
+        " SELECT 'T' AS kind, PROCESS_INSTANCE_ID_ AS processInstanceId, COUNT(*) AS total,",
+        " SUM(CASE WHEN DUEDATE_ &lt; #{now} THEN 1 ELSE 0 END) AS overdue",
+        " FROM ${prefix}ACT_RU_TIMER_JOB WHERE PROCESS_INSTANCE_ID_ IN",
+        " <foreach item='id' collection='ids' open='(' separator=',' close=')'>#{id}</foreach>",
+        " GROUP BY PROCESS_INSTANCE_ID_",
+        "</script>"
+    })
+    List<JobCountRow> selectJobCounts(@Param("ids") List<String> processInstanceIds, @Param("now") Date now);
+
+    class JobCountRow {
+        private String kind;
+        private String processInstanceId;
+        private long total;
+        private long overdue;
+
+        public String getKind() {
+            return kind;
+        }
+
+        public void setKind(String kind) {
+            this.kind = kind;
+        }
+
+        public String getProcessInstanceId() {
+            return processInstanceId;
+        }
+
+        public void setProcessInstanceId(String processInstanceId) {
+            this.processInstanceId = processInstanceId;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public void setTotal(long total) {
+            this.total = total;
+        }
+
+        public long getOverdue() {
+            return overdue;
+        }
+
+        public void setOverdue(long overdue) {
+            this.overdue = overdue;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.company.flowable.ops;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import org.flowable.engine.ManagementService;
+import org.flowable.engine.impl.cmd.AbstractCustomSqlExecution;
+
+/**
+ * Counts jobs and timers for a whole batch of instances with one grouped statement through
+ * {@link JobCountMapper}, executed by {@link ManagementService#executeCustomSql} so it stays inside
+ * the engine's data access layer (no direct JDBC). Batches are padded by {@link IdListQuery} so the
+ * mapper's {@code foreach} renders one statement per bucket size.
+ */
+public class MapperJobCountStrategy implements JobCountStrategy {
+    private final ManagementService managementService;
+    private final IdListQuery idListQuery;
+
+    public MapperJobCountStrategy(ManagementService managementService, IdListQuery idListQuery) {
+        this.managementService = managementService;
+        this.idListQuery = idListQuery;
+    }
+
+    @Override
+    public void countJobsAndTimers(List<String> processInstanceIds, Instant now, CleanupScanner.PrefetchData data) {
+        Date nowDate = Date.from(now);
+        for (List<String> batch : idListQuery.batches(processInstanceIds)) {
+            List<String> padded = idListQuery.pad(batch);
+            List<JobCountMapper.JobCountRow> rows = managementService.executeCustomSql(
+                new AbstractCustomSqlExecution<JobCountMapper, List<JobCountMapper.JobCountRow>>(JobCountMapper.class) {
+                    @Override
+                    public List<JobCountMapper.JobCountRow> execute(JobCountMapper mapper) {
+                        return mapper.selectJobCounts(padded, nowDate);
+                    }
+                });
+            idListQuery.recordExecution("jobCounts", "JobCountMapper.selectJobCounts/" + padded.size(),
+                batch.size(), padded.size());
+            for (JobCountMapper.JobCountRow row : rows) {
+                if ("T".equals(row.getKind())) {
+                    data.timerCountByProcessId.put(row.getProcessInstanceId(), (int) row.getTotal());
+                    data.overdueTimerCountByProcessId.put(row.getProcessInstanceId(), (int) row.getOverdue());
+                } else {
+                    data.jobCountByProcessId.put(row.getProcessInstanceId(), (int) row.getTotal());
+                    data.overdueJobCountByProcessId.put(row.getProcessInstanceId(), (int) row.getOverdue());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.company.flowable.ops;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Builds a full page of {@link Candidate}s from a single SQL statement. The page of unfinished
+ * historic instances is selected in a CTE using the same keyset order as the API scan; runtime,
+ * job and timer figures are joined as per-instance aggregates, and tasks and active activities
+ * are returned as detail rows of the same statement.
+ */
+public class NativeSqlCandidateProjection implements CandidateProjection {
+    static final String KIND_PROCESS = "P";
+    static final String KIND_TASK = "T";
+    static final String KIND_ACTIVITY = "A";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OpsCleanupProperties.NativeSql nativeSql;
+    private final long taskEscalationHours;
+    private final List<String> allowKeys;
+    private final List<String> denyKeys;
+    private final ScanFilterPushdown filterPushdown;
+
+    public NativeSqlCandidateProjection(JdbcTemplate jdbcTemplate, OpsCleanupProperties props) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.nativeSql = props.getNativeSql();
+        this.taskEscalationHours = props.getTaskEscalationHours();
+        this.allowKeys = props.getAllowProcDefKeys();
+        this.denyKeys = props.getDenyProcDefKeys();
+        String prefix = nativeSql.getTablePrefix();
+        this.filterPushdown = new ScanFilterPushdown(prefix + "RU_TASK", prefix + "RU_EXECUTION", prefix + "RU_JOB",
+            prefix + "RU_TIMER_JOB", nativeSql.getProcessInstanceIdColumn(), nativeSql.getDueDateColumn());
+    }
+
+    @Override
+    public CandidatePage loadPage(Instant cutoff, Instant now, FilterCriteria criteria, ScanPartition partition, ScanCursor cursor,
+                                  int pageSize) {
+        List<Object> params = new ArrayList<>();
+        String sql = buildSql(cutoff, now, criteria, partition, cursor, pageSize, params);
+        List<ProjectionRow> rows = new ArrayList<>();
+        jdbcTemplate.query(sql, ps -> bind(ps, params), rs -> {
+            rows.add(readRow(rs));
+        });
+        return assemble(rows, now);
+    }
+
+    String buildSql(Instant cutoff, Instant now, FilterCriteria criteria, ScanPartition partition, ScanCursor cursor,
+                    int pageSize, List<Object> params) {
+        String prefix = nativeSql.getTablePrefix();
+        String jobPid = nativeSql.getProcessInstanceIdColumn();
+        String dueDate = nativeSql.getDueDateColumn();
+        Timestamp nowTs = Timestamp.from(now);
+
+        StringBuilder sql = new StringBuilder("WITH PAGE_ AS (")
+            .append("SELECT H.ID_, H.PROC_DEF_ID_, H.START_TIME_, D.KEY_ AS PROC_DEF_KEY_,")
+            // Legacy instances without a start user fall back to their 'starter' identity link.
+            .append(" COALESCE(H.START_USER_ID_, (SELECT MIN(L.USER_ID_) FROM ").append(prefix)
+            .append("RU_IDENTITYLINK L WHERE L.PROC_INST_ID_ = H.ID_ AND L.TYPE_ = 'starter')) AS START_USER_ID_ FROM ")
+            .append(prefix).append("HI_PROCINST H LEFT OUTER JOIN ")
+            .append(prefix).append("RE_PROCDEF D ON H.PROC_DEF_ID_ = D.ID_")
+            .append(" WHERE H.END_TIME_ IS NULL AND H.START_TIME_ <= ?");
+        params.add(Timestamp.from(cutoff));
+        if (criteria != null && criteria.getProcDefKey() != null && !criteria.getProcDefKey().isEmpty()) {
+            sql.append(" AND D.KEY_ = ?");
+            params.add(criteria.getProcDefKey());
+        }
+        if (criteria != null && criteria.getStarterUserId() != null && !criteria.getStarterUserId().isEmpty()) {
+            sql.append(" AND H.START_USER_ID_ = ?");
+            params.add(criteria.getStarterUserId());
+        }
+        ScanFilterPushdown.ParameterBinder binder = (name, value) -> {
+            params.add(value instanceof Date ? new Timestamp(((Date) value).getTime()) : value);
+            return "?";
+        };
+        ScanFilterPushdown.appendKeyPredicates(sql, "D.KEY_", allowKeys, denyKeys, nativeSql.getInClauseLimit(), binder);
+        // The subprocess setting is applied by the scanner to assembled candidates.
+        filterPushdown.appendPredicates(sql, "H.ID_", criteria, true, taskEscalationHours, now, binder);
+        partition.appendPredicate(sql, "H.ID_", binder);
+        if (cursor.hasPosition()) {
+            Timestamp lastStart = new Timestamp(cursor.getLastStartTime().getTime());
+            sql.append(" AND (H.START_TIME_ > ? OR (H.START_TIME_ = ? AND H.ID_ > ?))");
+            params.add(lastStart);
+            params.add(lastStart);
+            params.add(cursor.getLastId());
+        }
+        sql.append(" ORDER BY H.START_TIME_, H.ID_ FETCH FIRST ? ROWS ONLY)");
+        params.add(pageSize);
+
+        // One aggregate row per page instance.
+        sql.append(" SELECT '").append(KIND_PROCESS).append("' AS ROW_KIND_, P.ID_ AS PID_, P.PROC_DEF_ID_, P.PROC_DEF_KEY_,")
+            .append(" P.START_TIME_, P.START_USER_ID_,")
+            .append(" CASE WHEN RT.SUSPENSION_STATE_ = 1 THEN 1 ELSE 0 END AS ACTIVE_,")
+            .append(" SUP.PROC_INST_ID_ AS PARENT_PID_, U.FIRST_, U.LAST_, U.EMAIL_,")
+            .append(" COALESCE(JC.TOTAL_, 0) AS JOB_COUNT_, COALESCE(JC.OVERDUE_, 0) AS OVERDUE_JOB_COUNT_,")
+            .append(" COALESCE(TC.TOTAL_, 0) AS TIMER_COUNT_, COALESCE(TC.OVERDUE_, 0) AS OVERDUE_TIMER_COUNT_,")
+            .append(" CAST(NULL AS VARCHAR(255)) AS DETAIL_ID_, CAST(NULL AS VARCHAR(255)) AS DETAIL_NAME_,")
+            .append(" CAST(NULL AS VARCHAR(255)) AS DETAIL_ASSIGNEE_, CAST(NULL AS TIMESTAMP) AS DETAIL_TIME_")
+            .append(" FROM PAGE_ P")
+            .append(" LEFT OUTER JOIN ").append(prefix).append("RU_EXECUTION RT ON RT.ID_ = P.ID_")
+            .append(" LEFT OUTER JOIN ").append(prefix).append("RU_EXECUTION SUP ON SUP.ID_ = RT.SUPER_EXEC_")
+            .append(" LEFT OUTER JOIN ").append(prefix).append("ID_USER U ON U.ID_ = P.START_USER_ID_")
+            .append(" LEFT OUTER JOIN (SELECT ").append(jobPid).append(" AS PID_, COUNT(*) AS TOTAL_,")
+            .append(" SUM(CASE WHEN ").append(dueDate).append(" < ? THEN 1 ELSE 0 END) AS OVERDUE_ FROM ")
+            .append(prefix).append("RU_JOB WHERE ").append(jobPid).append(" IN (SELECT ID_ FROM PAGE_)")
+            .append(" GROUP BY ").append(jobPid).append(") JC ON JC.PID_ = P.ID_")
+            .append(" LEFT OUTER JOIN (SELECT ").append(jobPid).append(" AS PID_, COUNT(*) AS TOTAL_,")
+            .append(" SUM(CASE WHEN ").append(dueDate).append(" < ? THEN 1 ELSE 0 END) AS OVERDUE_ FROM ")
+            .append(prefix).append("RU_TIMER_JOB WHERE ").append(jobPid).append(" IN (SELECT ID_ FROM PAGE_)")
+            .append(" GROUP BY ").append(jobPid).append(") TC ON TC.PID_ = P.ID_");
+        params.add(nowTs);
+        params.add(nowTs);
+
+        // Open task detail rows.
+        sql.append(" UNION ALL SELECT '").append(KIND_TASK).append("', T.PROC_INST_ID_, NULL, NULL,")
+            .append(" CAST(NULL AS TIMESTAMP), NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL,")
+            .append(" T.ID_, T.NAME_, T.ASSIGNEE_, T.CREATE_TIME_ FROM ")
+            .append(prefix).append("RU_TASK T WHERE T.PROC_INST_ID_ IN (SELECT ID_ FROM PAGE_) AND T.SUSPENSION_STATE_ = 1");
+
+        // Active activity detail rows.
+        sql.append(" UNION ALL SELECT '").append(KIND_ACTIVITY).append("', E.PROC_INST_ID_, NULL, NULL,")
+            .append(" CAST(NULL AS TIMESTAMP), NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL,")
+            .append(" E.ID_, E.ACT_ID_, NULL, CAST(NULL AS TIMESTAMP) FROM ")
+            .append(prefix).append("RU_EXECUTION E WHERE E.PROC_INST_ID_ IN (SELECT ID_ FROM PAGE_) AND E.ACT_ID_ IS NOT NULL");
+        return sql.toString();
+    }
+
+    private void bind(PreparedStatement ps, List<Object> params) throws SQLException {
+        int index = 1;
+        for (Object param : params) {
+            if (param instanceof Timestamp) {
+                ps.setTimestamp(index++, (Timestamp) param);
+            } else if (param instanceof Integer) {
+                ps.setInt(index++, (Integer) param);
+            } else if (param instanceof String) {
+                ps.setString(index++, (String) param);
+            } else {
+                ps.setObject(index++, param);
+            }
+        }
+    }
+
+    private ProjectionRow readRow(ResultSet rs) throws SQLException {
+        ProjectionRow row = new ProjectionRow();
+        row.kind = rs.getString("ROW_KIND_");
+        row.processInstanceId = rs.getString("PID_");
+        if (KIND_PROCESS.equals(row.kind)) {
+            row.processDefinitionId = rs.getString("PROC_DEF_ID_");
+            row.processDefinitionKey = rs.getString("PROC_DEF_KEY_");
+            Timestamp start = rs.getTimestamp("START_TIME_");
+            row.startTime = start == null ? null : start.toInstant();
+            row.startUserId = rs.getString("START_USER_ID_");
+            row.active = rs.getInt("ACTIVE_") == 1;
+            row.parentPid = rs.getString("PARENT_PID_");
+            row.firstName = rs.getString("FIRST_");
+            row.lastName = rs.getString("LAST_");
+            row.email = rs.getString("EMAIL_");
+            row.jobCount = rs.getInt("JOB_COUNT_");
+            row.overdueJobCount = rs.getInt("OVERDUE_JOB_COUNT_");
+            row.timerCount = rs.getInt("TIMER_COUNT_");
+            row.overdueTimerCount = rs.getInt("OVERDUE_TIMER_COUNT_");
+        } else {
+            row.detailId = rs.getString("DETAIL_ID_");
+            row.detailName = rs.getString("DETAIL_NAME_");
+            row.detailAssignee = rs.getString("DETAIL_ASSIGNEE_");
+            Timestamp detailTime = rs.getTimestamp("DETAIL_TIME_");
+            row.detailTime = detailTime == null ? null : detailTime.toInstant();
+        }
+        return row;
+    }
+
+    /**
+     * Folds projection rows into candidates. Instances whose runtime root execution is missing or
+     * suspended produce no candidate but still advance the cursor, matching the API scan.
+     */
+    static CandidatePage assemble(List<ProjectionRow> rows, Instant now) {
+        List<ProjectionRow> processRows = new ArrayList<>();
+        List<ProjectionRow> detailRows = new ArrayList<>();
+        for (ProjectionRow row : rows) {
+            if (KIND_PROCESS.equals(row.kind)) {
+                processRows.add(row);
+            } else {
+                detailRows.add(row);
+            }
+        }
+        processRows.sort(Comparator.comparing((ProjectionRow r) -> r.startTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(r -> r.processInstanceId));
+        detailRows.sort(Comparator.comparing((ProjectionRow r) -> r.detailId, Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        Map<String, Candidate> byPid = new LinkedHashMap<>();
+        for (ProjectionRow row : processRows) {
+            if (!row.active || row.startTime == null) {
+                continue;
+            }
+            Candidate candidate = new Candidate();
+            candidate.setProcessInstanceId(row.processInstanceId);
+            candidate.setProcessDefinitionId(row.processDefinitionId);
+            candidate.setProcessDefinitionKey(row.processDefinitionKey);
+            candidate.setStartTime(row.startTime);
+            candidate.setHoursRunning(Duration.between(row.startTime, now).toHours());
+            candidate.setStarterUserId(row.startUserId);
+            if (row.startUserId != null && !row.startUserId.isEmpty()
+                && (row.firstName != null || row.lastName != null || row.email != null)) {
+                String name = (row.firstName == null ? "" : row.firstName) +
+                    " " + (row.lastName == null ? "" : row.lastName);
+                candidate.setStarterName(name.trim().isEmpty() ? null : name.trim());
+                candidate.setStarterEmail(row.email);
+            }
+            candidate.setJobCount(row.jobCount);
+            candidate.setOverdueJobCount(row.overdueJobCount);
+            candidate.setTimerCount(row.timerCount);
+            candidate.setOverdueTimerCount(row.overdueTimerCount);
+            if (row.parentPid != null) {
+                candidate.setSubprocess(true);
+                candidate.setParentPid(row.parentPid);
+            }
+            byPid.put(row.processInstanceId, candidate);
+        }
+
+        for (ProjectionRow row : detailRows) {
+            Candidate candidate = byPid.get(row.processInstanceId);
+            if (candidate == null) {
+                continue;
+            }
+            if (KIND_TASK.equals(row.kind)) {
+                long ageHours = row.detailTime == null ? 0 : Duration.between(row.detailTime, now).toHours();
+                candidate.getTasks().add(new TaskSummary(row.detailId, row.detailName, row.detailAssignee, row.detailTime, ageHours));
+            } else if (KIND_ACTIVITY.equals(row.kind)) {
+                candidate.getActiveActivityIds().add(row.detailName);
+            }
+        }
+
+        ScanCursor cursor = ScanCursor.start();
+        if (!processRows.isEmpty()) {
+            ProjectionRow last = processRows.get(processRows.size() - 1);
+            cursor = ScanCursor.after(last.startTime == null ? null : Date.from(last.startTime), last.processInstanceId);
+        }
+        return new CandidatePage(new ArrayList<>(byPid.values()), processRows.size(), cursor);
+    }
+
+    static class ProjectionRow {
+        String kind;
+        String processInstanceId;
+        String processDefinitionId;
+        String processDefinitionKey;
+        Instant startTime;
+        String startUserId;
+        boolean active;
+        String parentPid;
+        String firstName;
+        String lastName;
+        String email;
+        int jobCount;
+        int overdueJobCount;
+        int timerCount;
+        int overdueTimerCount;
+        String detailId;
+        String detailName;
+        String detailAssignee;
+        Instant detailTime;
+    }
+}
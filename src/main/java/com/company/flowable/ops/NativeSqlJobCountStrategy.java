@@ -1,88 +1,101 @@
 package com.company.flowable.ops;
 
 import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.List;
 
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.PreparedStatementSetter;
 
+/**
+ * Counts jobs and timers in the database: one statement per batch groups both tables by process
+ * instance and combines them with UNION ALL, so each instance returns at most one job row and one
+ * timer row however many jobs or timers it has. The ids are bound through the configured
+ * {@link IdSetBinding}; executions are counted in {@link IdListQuery} as {@code jobCounts}.
+ */
 public class NativeSqlJobCountStrategy implements JobCountStrategy {
+    static final String KIND_JOB = "J";
+    static final String KIND_TIMER = "T";
+
     private final JdbcTemplate jdbcTemplate;
     private final OpsCleanupProperties.NativeSql nativeSql;
+    private final IdListQuery idListQuery;
+    private final IdSetBinding idSetBinding;
 
-    public NativeSqlJobCountStrategy(JdbcTemplate jdbcTemplate, OpsCleanupProperties.NativeSql nativeSql) {
+    public NativeSqlJobCountStrategy(JdbcTemplate jdbcTemplate, OpsCleanupProperties.NativeSql nativeSql,
+                                     IdListQuery idListQuery) {
         this.jdbcTemplate = jdbcTemplate;
         this.nativeSql = nativeSql;
+        this.idListQuery = idListQuery;
+        this.idSetBinding = IdSetBinding.create(nativeSql, idListQuery);
     }
 
     @Override
     public void countJobsAndTimers(List<String> processInstanceIds, Instant now, CleanupScanner.PrefetchData data) {
-        int batchSize = Math.max(1, nativeSql.getInClauseLimit());
+        int batchSize = idSetBinding.maxBatchSize();
         for (int i = 0; i < processInstanceIds.size(); i += batchSize) {
             List<String> batch = processInstanceIds.subList(i, Math.min(i + batchSize, processInstanceIds.size()));
-            countJobs(batch, now, data);
-            countTimers(batch, now, data);
+            countBatch(batch, now, data);
         }
     }
 
-    private void countJobs(List<String> ids, Instant now, CleanupScanner.PrefetchData data) {
-        String table = nativeSql.getTablePrefix() + "RU_JOB";
-        String inClause = buildInClause(ids.size());
-        String sql = "SELECT " + nativeSql.getProcessInstanceIdColumn() + ", " + nativeSql.getDueDateColumn() + " FROM " + table + " WHERE " + nativeSql.getProcessInstanceIdColumn() + " IN " + inClause;
+    private void countBatch(List<String> ids, Instant now, CleanupScanner.PrefetchData data) {
         Timestamp nowTs = Timestamp.from(now);
-        jdbcTemplate.query(sql, new PreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps) throws SQLException {
-                int index = 1;
-                for (String id : ids) {
-                    ps.setString(index++, id);
+        // The id set is prepared and queried on one connection (temporary table rows are session-private).
+        ConnectionCallback<Void> count = connection -> {
+            try (IdSetBinding.IdSet idSet = idSetBinding.prepare(connection, ids)) {
+                String sql = buildSql(idSet.sql());
+                try (PreparedStatement ps = connection.prepareStatement(sql)) {
+                    int index = 1;
+                    // Both halves of the UNION ALL bind the same values.
+                    for (int half = 0; half < 2; half++) {
+                        ps.setTimestamp(index++, nowTs);
+                        index = idSet.bind(ps, index);
+                    }
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) {
+                            readRow(rs, data);
+                        }
+                    }
                 }
+                idListQuery.recordExecution("jobCounts", sql, ids.size(), idSet.size());
             }
-        }, rs -> {
-            String pid = rs.getString(nativeSql.getProcessInstanceIdColumn());
-            data.jobCountByProcessId.put(pid, data.jobCountByProcessId.getOrDefault(pid, 0) + 1);
-            Timestamp due = rs.getTimestamp(nativeSql.getDueDateColumn());
-            if (due != null && due.before(nowTs)) {
-                data.overdueJobCountByProcessId.put(pid, data.overdueJobCountByProcessId.getOrDefault(pid, 0) + 1);
-            }
-        });
+            return null;
+        };
+        if (idSetBinding.writes()) {
+            // A read-only connection or standby rejects the temporary table writes.
+            ReadRouting.supplyWrite(() -> jdbcTemplate.execute(count));
+        } else {
+            jdbcTemplate.execute(count);
+        }
     }
 
-    private void countTimers(List<String> ids, Instant now, CleanupScanner.PrefetchData data) {
-        String table = nativeSql.getTablePrefix() + "RU_TIMER_JOB";
-        String inClause = buildInClause(ids.size());
-        String sql = "SELECT " + nativeSql.getProcessInstanceIdColumn() + ", " + nativeSql.getDueDateColumn() + " FROM " + table + " WHERE " + nativeSql.getProcessInstanceIdColumn() + " IN " + inClause;
-        Timestamp nowTs = Timestamp.from(now);
-        jdbcTemplate.query(sql, new PreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement ps) throws SQLException {
-                int index = 1;
-                for (String id : ids) {
-                    ps.setString(index++, id);
-                }
-            }
-        }, rs -> {
-            String pid = rs.getString(nativeSql.getProcessInstanceIdColumn());
-            data.timerCountByProcessId.put(pid, data.timerCountByProcessId.getOrDefault(pid, 0) + 1);
-            Timestamp due = rs.getTimestamp(nativeSql.getDueDateColumn());
-            if (due != null && due.before(nowTs)) {
-                data.overdueTimerCountByProcessId.put(pid, data.overdueTimerCountByProcessId.getOrDefault(pid, 0) + 1);
-            }
-        });
+    private void readRow(ResultSet rs, CleanupScanner.PrefetchData data) throws SQLException {
+        String pid = rs.getString("PID_");
+        int total = rs.getInt("TOTAL_");
+        int overdue = rs.getInt("OVERDUE_");
+        if (KIND_TIMER.equals(rs.getString("KIND_"))) {
+            data.timerCountByProcessId.put(pid, total);
+            data.overdueTimerCountByProcessId.put(pid, overdue);
+        } else {
+            data.jobCountByProcessId.put(pid, total);
+            data.overdueJobCountByProcessId.put(pid, overdue);
+        }
     }
 
-    private String buildInClause(int size) {
-        StringBuilder sb = new StringBuilder("(");
-        for (int i = 0; i < size; i++) {
-            if (i > 0) {
-                sb.append(",");
-            }
-            sb.append("?");
-        }
-        sb.append(")");
-        return sb.toString();
+    String buildSql(String inClause) {
+        return groupedCount(KIND_JOB, nativeSql.getTablePrefix() + "RU_JOB", inClause)
+            + " UNION ALL "
+            + groupedCount(KIND_TIMER, nativeSql.getTablePrefix() + "RU_TIMER_JOB", inClause);
+    }
+
+    private String groupedCount(String kind, String table, String inClause) {
+        String pid = nativeSql.getProcessInstanceIdColumn();
+        return "SELECT '" + kind + "' AS KIND_, " + pid + " AS PID_, COUNT(*) AS TOTAL_,"
+            + " SUM(CASE WHEN " + nativeSql.getDueDateColumn() + " < ? THEN 1 ELSE 0 END) AS OVERDUE_"
+            + " FROM " + table + " WHERE " + pid + " IN " + inClause + " GROUP BY " + pid;
     }
 }
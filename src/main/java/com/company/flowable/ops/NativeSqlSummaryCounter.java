@@ -0,0 +1,150 @@
+package com.company.flowable.ops;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Counts WAIT / ESCALATE / TERMINATE instances without building candidates. One statement
+ * evaluates the classification inputs of every stale instance as EXISTS flags and groups by them,
+ * so at most 32 rows come back; each flag combination is then classified once by
+ * {@link ClassificationService} through a representative candidate. Instance selection matches
+ * the scan: unfinished, started at or before the cutoff, with an active runtime root execution
+ * and a definition key that passes the key, starter and allow/deny filters.
+ */
+public class NativeSqlSummaryCounter {
+    private static final ScanFilterPushdown.Flag[] FLAGS = ScanFilterPushdown.Flag.values();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OpsCleanupProperties props;
+    private final ClassificationService classificationService;
+    private final ScanFilterPushdown pushdown;
+
+    public NativeSqlSummaryCounter(JdbcTemplate jdbcTemplate, OpsCleanupProperties props,
+                                   ClassificationService classificationService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.props = props;
+        this.classificationService = classificationService;
+        OpsCleanupProperties.NativeSql nativeSql = props.getNativeSql();
+        String prefix = nativeSql.getTablePrefix();
+        this.pushdown = new ScanFilterPushdown(prefix + "RU_TASK", prefix + "RU_EXECUTION", prefix + "RU_JOB",
+            prefix + "RU_TIMER_JOB", nativeSql.getProcessInstanceIdColumn(), nativeSql.getDueDateColumn());
+    }
+
+    public SummaryCounts count(FilterCriteria criteria, Instant cutoff, Instant now) {
+        List<Object> params = new ArrayList<>();
+        String sql = buildSql(criteria, cutoff, now, params);
+        Map<RecommendedAction, Long> counts = new EnumMap<>(RecommendedAction.class);
+        jdbcTemplate.query(sql, ps -> bind(ps, params), rs -> {
+            Set<ScanFilterPushdown.Flag> flags = EnumSet.noneOf(ScanFilterPushdown.Flag.class);
+            for (ScanFilterPushdown.Flag flag : FLAGS) {
+                if (rs.getInt(flag.name() + "_") == 1) {
+                    flags.add(flag);
+                }
+            }
+            boolean hasTasks = flags.contains(ScanFilterPushdown.Flag.OPEN_TASK);
+            if (criteria.getHasTasks() != null && criteria.getHasTasks() != hasTasks) {
+                return;
+            }
+            RecommendedAction action = classify(flags);
+            if (!matchesAction(criteria.getAction(), action)) {
+                return;
+            }
+            counts.merge(action, rs.getLong("COUNT_"), Long::sum);
+        });
+        return new SummaryCounts(counts.getOrDefault(RecommendedAction.WAIT, 0L),
+            counts.getOrDefault(RecommendedAction.ESCALATE, 0L), counts.getOrDefault(RecommendedAction.TERMINATE, 0L));
+    }
+
+    String buildSql(FilterCriteria criteria, Instant cutoff, Instant now, List<Object> params) {
+        String prefix = props.getNativeSql().getTablePrefix();
+        long escalationHours = props.getTaskEscalationHours();
+        ScanFilterPushdown.ParameterBinder binder = (name, value) -> {
+            params.add(value instanceof Date ? new Timestamp(((Date) value).getTime()) : value);
+            return "?";
+        };
+
+        StringBuilder sql = new StringBuilder("SELECT ");
+        for (ScanFilterPushdown.Flag flag : FLAGS) {
+            sql.append("F.").append(flag.name()).append("_, ");
+        }
+        sql.append("COUNT(*) AS COUNT_ FROM (SELECT ");
+        for (int i = 0; i < FLAGS.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("CASE WHEN ").append(pushdown.condition(FLAGS[i], "H.ID_", escalationHours, now, binder))
+                .append(" THEN 1 ELSE 0 END AS ").append(FLAGS[i].name()).append("_");
+        }
+        sql.append(" FROM ").append(prefix).append("HI_PROCINST H")
+            .append(" INNER JOIN ").append(prefix).append("RE_PROCDEF D ON H.PROC_DEF_ID_ = D.ID_")
+            .append(" INNER JOIN ").append(prefix).append("RU_EXECUTION RT ON RT.ID_ = H.ID_")
+            .append(" WHERE H.END_TIME_ IS NULL AND H.START_TIME_ <= ?")
+            .append(" AND RT.SUSPENSION_STATE_ = 1 AND D.KEY_ IS NOT NULL");
+        params.add(Timestamp.from(cutoff));
+        if (criteria.getProcDefKey() != null && !criteria.getProcDefKey().isEmpty()) {
+            sql.append(" AND D.KEY_ = ?");
+            params.add(criteria.getProcDefKey());
+        }
+        if (criteria.getStarterUserId() != null && !criteria.getStarterUserId().isEmpty()) {
+            sql.append(" AND H.START_USER_ID_ = ?");
+            params.add(criteria.getStarterUserId());
+        }
+        ScanFilterPushdown.appendKeyPredicates(sql, "D.KEY_", props.getAllowProcDefKeys(), props.getDenyProcDefKeys(),
+            props.getNativeSql().getInClauseLimit(), binder);
+        sql.append(") F GROUP BY ");
+        for (int i = 0; i < FLAGS.length; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append("F.").append(FLAGS[i].name()).append("_");
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Classifies a flag combination through a candidate that has exactly those inputs.
+     */
+    RecommendedAction classify(Set<ScanFilterPushdown.Flag> flags) {
+        Candidate candidate = new Candidate();
+        if (flags.contains(ScanFilterPushdown.Flag.OPEN_TASK) || flags.contains(ScanFilterPushdown.Flag.STALE_TASK)) {
+            long ageHours = flags.contains(ScanFilterPushdown.Flag.STALE_TASK) ? props.getTaskEscalationHours() : 0;
+            candidate.getTasks().add(new TaskSummary(null, null, null, null, ageHours));
+        }
+        boolean overdueTimer = flags.contains(ScanFilterPushdown.Flag.OVERDUE_TIMER);
+        candidate.setTimerCount(flags.contains(ScanFilterPushdown.Flag.TIMER) || overdueTimer ? 1 : 0);
+        candidate.setOverdueTimerCount(overdueTimer ? 1 : 0);
+        int overdueJobs = flags.contains(ScanFilterPushdown.Flag.OVERDUE_JOB) ? 1 : 0;
+        candidate.setJobCount(overdueJobs);
+        candidate.setOverdueJobCount(overdueJobs);
+        return classificationService.classify(candidate, props).getRecommendedAction();
+    }
+
+    private boolean matchesAction(String action, RecommendedAction candidateAction) {
+        if (action == null || action.isEmpty() || "ALL".equalsIgnoreCase(action)) {
+            return true;
+        }
+        return candidateAction.name().equalsIgnoreCase(action);
+    }
+
+    private void bind(PreparedStatement ps, List<Object> params) throws SQLException {
+        int index = 1;
+        for (Object param : params) {
+            if (param instanceof Timestamp) {
+                ps.setTimestamp(index++, (Timestamp) param);
+            } else {
+                ps.setString(index++, (String) param);
+            }
+        }
+    }
+}
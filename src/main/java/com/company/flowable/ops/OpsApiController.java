@@ -3,6 +3,7 @@ package com.company.flowable.ops;
 import java.io.IOException;
 import java.security.Principal;
 import java.util.List;
+import java.util.Map;
 
 import javax.servlet.http.HttpServletResponse;
 
@@ -15,21 +16,25 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/api/ops")
 public class OpsApiController {
     private final OpsCleanupService cleanupService;
     private final DeleteOrchestrator deleteOrchestrator;
+    private final TerminateJobService terminateJobService;
     private final TokenValidator tokenValidator;
     private final OpsCleanupProperties props;
 
     public OpsApiController(OpsCleanupService cleanupService,
                             DeleteOrchestrator deleteOrchestrator,
+                            TerminateJobService terminateJobService,
                             TokenValidator tokenValidator,
                             OpsCleanupProperties props) {
         this.cleanupService = cleanupService;
         this.deleteOrchestrator = deleteOrchestrator;
+        this.terminateJobService = terminateJobService;
         this.tokenValidator = tokenValidator;
         this.props = props;
     }
@@ -72,6 +77,21 @@ public class OpsApiController {
         return cleanupService.getSummaryCounts(criteria);
     }
 
+    @GetMapping("/scan/prefetch-timings")
+    public Map<String, PrefetchExecutor.LookupTiming> prefetchTimings() {
+        return cleanupService.getPrefetchTimings();
+    }
+
+    @GetMapping("/scan/id-list-statistics")
+    public Map<String, IdListQuery.StatementStats> idListStatistics() {
+        return cleanupService.getIdListStatistics();
+    }
+
+    @GetMapping("/delete/rate")
+    public Map<String, Object> deleteRate() {
+        return deleteOrchestrator.getDeleteRateStatus();
+    }
+
     @GetMapping("/processes/{pid}")
     public ProcessDetailDto getProcess(@PathVariable("pid") String pid,
                                        @RequestParam(value = "hours", required = false) Integer hours) {
@@ -94,7 +114,7 @@ public class OpsApiController {
 
     @PreAuthorize("hasRole('FLOWABLE_OPS_ADMIN')")
     @PostMapping("/processes/terminateAll")
-    public TerminateResponse terminateAll(@RequestBody TerminateAllRequest request, Principal principal) {
+    public TerminateJob terminateAll(@RequestBody TerminateAllRequest request, Principal principal) {
         if (!tokenValidator.validateTerminateAllToken(request.getToken())) {
             throw new OpsException(400, "Invalid confirmation token");
         }
@@ -105,11 +125,28 @@ public class OpsApiController {
         criteria.setHours(request.getHours() == null ? props.getDefaultHours() : request.getHours());
         criteria.setAction(request.getAction() == null ? "TERMINATE" : request.getAction());
         criteria.setProcDefKey(request.getProcDefKey());
-        criteria.setPage(0);
-        criteria.setSize(props.getMaxBulkDelete());
+        return terminateJobService.submit(criteria, request.getReason(), principal.getName());
+    }
 
-        List<DeleteResultDto> results = deleteOrchestrator.terminateAll(criteria, request.getReason(), principal.getName());
-        return new TerminateResponse(results);
+    @GetMapping("/jobs")
+    public List<TerminateJob> listJobs() {
+        return terminateJobService.list();
+    }
+
+    @GetMapping("/jobs/{id}")
+    public TerminateJob getJob(@PathVariable("id") String id) {
+        return terminateJobService.get(id);
+    }
+
+    @GetMapping(value = "/jobs/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter jobEvents(@PathVariable("id") String id) {
+        return terminateJobService.subscribe(id);
+    }
+
+    @PreAuthorize("hasRole('FLOWABLE_OPS_ADMIN')")
+    @PostMapping("/jobs/{id}/cancel")
+    public TerminateJob cancelJob(@PathVariable("id") String id) {
+        return terminateJobService.cancel(id);
     }
 
     @GetMapping("/processes/export")
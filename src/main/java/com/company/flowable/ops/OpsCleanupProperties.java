@@ -18,9 +18,22 @@ public class OpsCleanupProperties {
     private int retryCount = 2;
     private long retryBackoffMillis = 500;
     private long delayBetweenDeletesMillis = 50;
+    private int deleteParallelism = 4;
+    private int deleteBatchSize = 1;
     private QueryStrategy queryStrategy = QueryStrategy.API_ONLY;
+    private ScanStrategy scanStrategy = ScanStrategy.API_ONLY;
+    private int readAheadDepth = 2;
+    private int scanPartitions = 1;
+    private ScanPartition.Function scanPartitionFunction = ScanPartition.Function.ORA_HASH;
+    private boolean aggregateSummary = true;
     private NativeSql nativeSql = new NativeSql();
+    private Prefetch prefetch = new Prefetch();
+    private DeleteRate deleteRate = new DeleteRate();
+    private ReadDataSource readDataSource = new ReadDataSource();
+    private Snapshot snapshot = new Snapshot();
+    private Incremental incremental = new Incremental();
     private Audit audit = new Audit();
+    private Jobs jobs = new Jobs();
     private List<String> allowProcDefKeys = new ArrayList<>();
     private List<String> denyProcDefKeys = new ArrayList<>();
 
@@ -96,6 +109,22 @@ public class OpsCleanupProperties {
         this.delayBetweenDeletesMillis = delayBetweenDeletesMillis;
     }
 
+    public int getDeleteParallelism() {
+        return deleteParallelism;
+    }
+
+    public void setDeleteParallelism(int deleteParallelism) {
+        this.deleteParallelism = deleteParallelism;
+    }
+
+    public int getDeleteBatchSize() {
+        return deleteBatchSize;
+    }
+
+    public void setDeleteBatchSize(int deleteBatchSize) {
+        this.deleteBatchSize = deleteBatchSize;
+    }
+
     public QueryStrategy getQueryStrategy() {
         return queryStrategy;
     }
@@ -104,6 +133,46 @@ public class OpsCleanupProperties {
         this.queryStrategy = queryStrategy;
     }
 
+    public ScanStrategy getScanStrategy() {
+        return scanStrategy;
+    }
+
+    public void setScanStrategy(ScanStrategy scanStrategy) {
+        this.scanStrategy = scanStrategy;
+    }
+
+    public int getReadAheadDepth() {
+        return readAheadDepth;
+    }
+
+    public void setReadAheadDepth(int readAheadDepth) {
+        this.readAheadDepth = readAheadDepth;
+    }
+
+    public int getScanPartitions() {
+        return scanPartitions;
+    }
+
+    public void setScanPartitions(int scanPartitions) {
+        this.scanPartitions = scanPartitions;
+    }
+
+    public ScanPartition.Function getScanPartitionFunction() {
+        return scanPartitionFunction;
+    }
+
+    public void setScanPartitionFunction(ScanPartition.Function scanPartitionFunction) {
+        this.scanPartitionFunction = scanPartitionFunction;
+    }
+
+    public boolean isAggregateSummary() {
+        return aggregateSummary;
+    }
+
+    public void setAggregateSummary(boolean aggregateSummary) {
+        this.aggregateSummary = aggregateSummary;
+    }
+
     public NativeSql getNativeSql() {
         return nativeSql;
     }
@@ -112,6 +181,46 @@ public class OpsCleanupProperties {
         this.nativeSql = nativeSql;
     }
 
+    public Prefetch getPrefetch() {
+        return prefetch;
+    }
+
+    public void setPrefetch(Prefetch prefetch) {
+        this.prefetch = prefetch;
+    }
+
+    public DeleteRate getDeleteRate() {
+        return deleteRate;
+    }
+
+    public void setDeleteRate(DeleteRate deleteRate) {
+        this.deleteRate = deleteRate;
+    }
+
+    public ReadDataSource getReadDataSource() {
+        return readDataSource;
+    }
+
+    public void setReadDataSource(ReadDataSource readDataSource) {
+        this.readDataSource = readDataSource;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public void setSnapshot(Snapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    public Incremental getIncremental() {
+        return incremental;
+    }
+
+    public void setIncremental(Incremental incremental) {
+        this.incremental = incremental;
+    }
+
     public Audit getAudit() {
         return audit;
     }
@@ -120,6 +229,14 @@ public class OpsCleanupProperties {
         this.audit = audit;
     }
 
+    public Jobs getJobs() {
+        return jobs;
+    }
+
+    public void setJobs(Jobs jobs) {
+        this.jobs = jobs;
+    }
+
     public List<String> getAllowProcDefKeys() {
         return allowProcDefKeys;
     }
@@ -157,11 +274,336 @@ public class OpsCleanupProperties {
         }
     }
 
+    /**
+     * Background terminate-all jobs ({@link TerminateJobService}). With {@code dbEnabled} their
+     * state is kept in {@code OPS_CLEANUP_JOB} and unfinished jobs resume after a restart.
+     */
+    public static class Jobs {
+        private boolean dbEnabled = false;
+        private int chunkSize = 50;
+        private int maxInstances = 0;
+        private long resumeAfterSeconds = 300;
+        private int keepFinished = 50;
+
+        public boolean isDbEnabled() {
+            return dbEnabled;
+        }
+
+        public void setDbEnabled(boolean dbEnabled) {
+            this.dbEnabled = dbEnabled;
+        }
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+
+        /**
+         * Most instances one job deletes; {@code 0} uses {@code maxBulkDelete}.
+         */
+        public int getMaxInstances() {
+            return maxInstances;
+        }
+
+        public void setMaxInstances(int maxInstances) {
+            this.maxInstances = maxInstances;
+        }
+
+        public long getResumeAfterSeconds() {
+            return resumeAfterSeconds;
+        }
+
+        public void setResumeAfterSeconds(long resumeAfterSeconds) {
+            this.resumeAfterSeconds = resumeAfterSeconds;
+        }
+
+        public int getKeepFinished() {
+            return keepFinished;
+        }
+
+        public void setKeepFinished(int keepFinished) {
+            this.keepFinished = keepFinished;
+        }
+    }
+
+    public static class Prefetch {
+        private int parallelism = 4;
+        private long timeoutMillis = 60000;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public long getTimeoutMillis() {
+            return timeoutMillis;
+        }
+
+        public void setTimeoutMillis(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+        }
+    }
+
+    /**
+     * Adaptive delete pacing ({@link DeleteRateController}). When enabled it replaces
+     * {@code deleteParallelism} and {@code delayBetweenDeletesMillis}: concurrency and deletes per
+     * second grow while deletes stay fast and are cut on lock conflicts, failures or slow deletes.
+     */
+    public static class DeleteRate {
+        private boolean enabled = false;
+        private int minConcurrency = 1;
+        private int maxConcurrency = 8;
+        private double minPerSecond = 2;
+        private double maxPerSecond = 50;
+        private double increasePerSecond = 2;
+        private double decreaseFactor = 0.5;
+        private long latencyTargetMillis = 2000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMinConcurrency() {
+            return minConcurrency;
+        }
+
+        public void setMinConcurrency(int minConcurrency) {
+            this.minConcurrency = minConcurrency;
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        public void setMaxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+        }
+
+        public double getMinPerSecond() {
+            return minPerSecond;
+        }
+
+        public void setMinPerSecond(double minPerSecond) {
+            this.minPerSecond = minPerSecond;
+        }
+
+        public double getMaxPerSecond() {
+            return maxPerSecond;
+        }
+
+        public void setMaxPerSecond(double maxPerSecond) {
+            this.maxPerSecond = maxPerSecond;
+        }
+
+        public double getIncreasePerSecond() {
+            return increasePerSecond;
+        }
+
+        public void setIncreasePerSecond(double increasePerSecond) {
+            this.increasePerSecond = increasePerSecond;
+        }
+
+        public double getDecreaseFactor() {
+            return decreaseFactor;
+        }
+
+        public void setDecreaseFactor(double decreaseFactor) {
+            this.decreaseFactor = decreaseFactor;
+        }
+
+        public long getLatencyTargetMillis() {
+            return latencyTargetMillis;
+        }
+
+        public void setLatencyTargetMillis(long latencyTargetMillis) {
+            this.latencyTargetMillis = latencyTargetMillis;
+        }
+    }
+
+    /**
+     * Separate read-only pool for scans, summaries and job counts. Empty connection settings fall
+     * back to {@code spring.datasource}, which gives the scans their own pool on the primary.
+     */
+    public static class ReadDataSource {
+        private boolean enabled = false;
+        private String url = "";
+        private String username = "";
+        private String password = "";
+        private int maximumPoolSize = 4;
+        private int minimumIdle = 0;
+        private int fetchSize = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public int getMaximumPoolSize() {
+            return maximumPoolSize;
+        }
+
+        public void setMaximumPoolSize(int maximumPoolSize) {
+            this.maximumPoolSize = maximumPoolSize;
+        }
+
+        public int getMinimumIdle() {
+            return minimumIdle;
+        }
+
+        public void setMinimumIdle(int minimumIdle) {
+            this.minimumIdle = minimumIdle;
+        }
+
+        public int getFetchSize() {
+            return fetchSize;
+        }
+
+        public void setFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+        }
+    }
+
+    public static class Snapshot {
+        private boolean enabled = true;
+        private long ttlSeconds = 120;
+        private long cutoffBucketSeconds = 60;
+        private int maxEntries = 16;
+        private int maxItems = 50000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public long getCutoffBucketSeconds() {
+            return cutoffBucketSeconds;
+        }
+
+        public void setCutoffBucketSeconds(long cutoffBucketSeconds) {
+            this.cutoffBucketSeconds = cutoffBucketSeconds;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+    }
+
+    public static class Incremental {
+        private boolean enabled = true;
+        private long fullRescanMinutes = 30;
+        private long watermarkOverlapSeconds = 30;
+        private int maxEntries = 8;
+        private int maxItems = 50000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getFullRescanMinutes() {
+            return fullRescanMinutes;
+        }
+
+        public void setFullRescanMinutes(long fullRescanMinutes) {
+            this.fullRescanMinutes = fullRescanMinutes;
+        }
+
+        public long getWatermarkOverlapSeconds() {
+            return watermarkOverlapSeconds;
+        }
+
+        public void setWatermarkOverlapSeconds(long watermarkOverlapSeconds) {
+            this.watermarkOverlapSeconds = watermarkOverlapSeconds;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+        public int getMaxItems() {
+            return maxItems;
+        }
+
+        public void setMaxItems(int maxItems) {
+            this.maxItems = maxItems;
+        }
+    }
+
         public class NativeSql {
         private String tablePrefix = "ACT_";
         private int inClauseLimit = 1000;
         private String processInstanceIdColumn = "PROCESS_INSTANCE_ID_"; // Defaulting to the corrected name
         private String dueDateColumn = "DUEDATE_"; // Defaulting to the existing name
+        private IdSetMode idSetMode = IdSetMode.IN_LIST;
+        private String idArrayType = "SYS.ODCIVARCHAR2LIST";
+        private String idSetTable = "OPS_ID_SET";
 
         public String getTablePrefix() {
             return tablePrefix;
@@ -194,10 +636,46 @@ public class OpsCleanupProperties {
         public void setDueDateColumn(String dueDateColumn) {
             this.dueDateColumn = dueDateColumn;
         }
+
+        public IdSetMode getIdSetMode() {
+            return idSetMode;
+        }
+
+        public void setIdSetMode(IdSetMode idSetMode) {
+            this.idSetMode = idSetMode;
+        }
+
+        public String getIdArrayType() {
+            return idArrayType;
+        }
+
+        public void setIdArrayType(String idArrayType) {
+            this.idArrayType = idArrayType;
+        }
+
+        public String getIdSetTable() {
+            return idSetTable;
+        }
+
+        public void setIdSetTable(String idSetTable) {
+            this.idSetTable = idSetTable;
+        }
     }
 
     public enum QueryStrategy {
+        API_ONLY,
+        NATIVE_SQL,
+        CUSTOM_MAPPER
+    }
+
+    public enum ScanStrategy {
         API_ONLY,
         NATIVE_SQL
     }
+
+    public enum IdSetMode {
+        IN_LIST,
+        ORACLE_ARRAY,
+        TEMP_TABLE
+    }
 }
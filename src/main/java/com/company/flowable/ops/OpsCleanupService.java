@@ -10,41 +10,57 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 import org.flowable.engine.RepositoryService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
 import org.springframework.stereotype.Service;
 
 @Service
 public class OpsCleanupService {
+    private static final Logger logger = LoggerFactory.getLogger(OpsCleanupService.class);
+
     private final OpsCleanupProperties props;
     private final CleanupScanner cleanupScanner;
     private final ClassificationService classificationService;
     private final BpmnModelCache bpmnModelCache;
+    private final CandidateSnapshotCache snapshotCache;
+    private final IncrementalScanCache incrementalScanCache;
+    private final NativeSqlSummaryCounter summaryCounter;
 
     public OpsCleanupService(OpsCleanupProperties props,
                              CleanupScanner cleanupScanner,
                              RepositoryService repositoryService,
-                             ClassificationService classificationService) {
+                             ClassificationService classificationService,
+                             @Nullable NativeSqlSummaryCounter summaryCounter) {
         this.props = props;
+        this.summaryCounter = summaryCounter;
         this.cleanupScanner = cleanupScanner;
         this.classificationService = classificationService;
         this.bpmnModelCache = new BpmnModelCache(repositoryService, 128);
+        OpsCleanupProperties.Snapshot snapshot = props.getSnapshot();
+        this.snapshotCache = snapshot.isEnabled()
+            ? new CandidateSnapshotCache(snapshot.getMaxEntries(), snapshot.getTtlSeconds() * 1000L,
+                snapshot.getCutoffBucketSeconds() * 1000L, snapshot.getMaxItems())
+            : null;
+        OpsCleanupProperties.Incremental incremental = props.getIncremental();
+        this.incrementalScanCache = incremental.isEnabled()
+            ? new IncrementalScanCache(cleanupScanner, incremental.getMaxEntries(), incremental.getMaxItems(),
+                Duration.ofMinutes(incremental.getFullRescanMinutes()), Duration.ofSeconds(incremental.getWatermarkOverlapSeconds()))
+            : null;
     }
 
     public PageResult<ProcessSummaryDto> findCandidates(FilterCriteria criteria) {
         if (!props.isEnabled()) {
             throw new OpsException(503, "Cleanup service disabled");
         }
-        int hours = criteria.getHours() > 0 ? criteria.getHours() : props.getDefaultHours();
         int size = Math.min(criteria.getSize() <= 0 ? 50 : criteria.getSize(), props.getMaxPageSize());
         int page = Math.max(criteria.getPage(), 0);
 
-        Instant now = Instant.now();
-        Instant cutoff = now.minus(Duration.ofHours(hours));
-
-        List<Candidate> candidates = cleanupScanner.scanWithFilters(cutoff, now, criteria);
         ScanAccumulator accumulator = new ScanAccumulator(page, size);
-        accumulateCandidates(criteria, candidates, accumulator);
+        scanSummaries(criteria, accumulator::accept);
 
         int totalPages = accumulator.totalItems == 0 ? 0 : (int) Math.ceil(accumulator.totalItems / (double) size);
         PageInfo pageInfo = new PageInfo(page, size, accumulator.totalItems, totalPages);
@@ -52,20 +68,52 @@ public class OpsCleanupService {
         return new PageResult<>(accumulator.items, pageInfo, summary);
     }
 
+    /**
+     * Counts by recommended action. A cached snapshot is reused so the counts match the list it
+     * backs; otherwise the counts come from one aggregate query, falling back to a full scan if
+     * that query fails.
+     */
     public SummaryCounts getSummaryCounts(FilterCriteria criteria) {
-        int hours = criteria.getHours() > 0 ? criteria.getHours() : props.getDefaultHours();
-        Instant now = Instant.now();
-        Instant cutoff = now.minus(Duration.ofHours(hours));
-        List<Candidate> candidates = cleanupScanner.scanWithFilters(cutoff, now, criteria);
+        if (summaryCounter != null && !hasSnapshot(criteria)) {
+            int hours = criteria.getHours() > 0 ? criteria.getHours() : props.getDefaultHours();
+            Instant now = Instant.now();
+            try {
+                return ReadRouting.supplyRead(() -> summaryCounter.count(criteria, now.minus(Duration.ofHours(hours)), now));
+            } catch (RuntimeException ex) {
+                logger.warn("Aggregate summary query failed; counting from a full scan", ex);
+            }
+        }
         ScanAccumulator accumulator = new ScanAccumulator(0, 0);
-        accumulateCandidates(criteria, candidates, accumulator);
+        scanSummaries(criteria, accumulator::accept);
         return new SummaryCounts(accumulator.waitCount, accumulator.escalateCount, accumulator.terminateCount);
     }
 
+    /**
+     * Drops cached scan snapshots and tracked incremental scans so the next dashboard request
+     * rescans. Called after terminations.
+     */
+    public void invalidateSnapshots() {
+        if (snapshotCache != null) {
+            snapshotCache.invalidateAll();
+        }
+        if (incrementalScanCache != null) {
+            incrementalScanCache.invalidateAll();
+        }
+    }
+
+    public Map<String, PrefetchExecutor.LookupTiming> getPrefetchTimings() {
+        return cleanupScanner.getPrefetchTimings();
+    }
+
+    public Map<String, IdListQuery.StatementStats> getIdListStatistics() {
+        return cleanupScanner.getIdListStatistics();
+    }
+
     public ProcessDetailDto getDetails(String pid, int hours) {
         Instant now = Instant.now();
         Instant cutoff = now.minus(Duration.ofHours(hours <= 0 ? props.getDefaultHours() : hours));
-        List<Candidate> candidates = cleanupScanner.scanSelected(Collections.singletonList(pid), cutoff, now, false);
+        List<Candidate> candidates = ReadRouting.supplyRead(
+            () -> cleanupScanner.scanSelected(Collections.singletonList(pid), cutoff, now, false));
         Candidate candidate = candidates.isEmpty() ? null : candidates.get(0);
         if (candidate == null) {
             throw new OpsException(404, "Process instance not active or outside filters");
@@ -76,6 +124,10 @@ public class OpsCleanupService {
         return toDetailDto(candidate);
     }
 
+    /**
+     * Re-reads one instance right before it is deleted. This read stays on the primary so replica
+     * lag can never make a changed instance look eligible.
+     */
     public Candidate loadCandidateForDelete(String pid) {
         Instant now = Instant.now();
         Instant cutoff = now.minus(Duration.ofHours(props.getDefaultHours()));
@@ -90,81 +142,138 @@ public class OpsCleanupService {
         return candidate;
     }
 
+    /**
+     * Passes every classified summary matching {@code criteria} to {@code sink}, without paging.
+     */
+    public void forEachCandidate(FilterCriteria criteria, Consumer<ProcessSummaryDto> sink) {
+        if (!props.isEnabled()) {
+            throw new OpsException(503, "Cleanup service disabled");
+        }
+        scanSummaries(criteria, sink);
+    }
+
     public void exportCsv(FilterCriteria criteria, OutputStream outputStream) throws IOException {
-        int hours = criteria.getHours() > 0 ? criteria.getHours() : props.getDefaultHours();
-        Instant now = Instant.now();
-        Instant cutoff = now.minus(Duration.ofHours(hours));
         String header = "pid,procDefKey,startTime,hoursRunning,classification,recommendedAction,openTasksCount,oldestTaskAge,timerCount,overdueJobCount,overdueTimerCount,starterUserId,starterEmail,isSubprocess,parentPid\n";
         outputStream.write(header.getBytes(StandardCharsets.UTF_8));
-        List<Candidate> candidates = cleanupScanner.scanWithFilters(cutoff, now, criteria);
-        accumulateCandidates(criteria, candidates, new ScanConsumer() {
-            @Override
-            public void accept(Candidate candidate) {
-                ProcessSummaryDto dto = toSummaryDto(candidate);
-                String line = csv(dto.getProcessInstanceId()) + "," +
-                    csv(dto.getProcessDefinitionKey()) + "," +
-                    csv(dto.getStartTime() == null ? "" : dto.getStartTime().toString()) + "," +
-                    dto.getHoursRunning() + "," +
-                    csv(dto.getClassification() == null ? "" : dto.getClassification().name()) + "," +
-                    csv(dto.getRecommendedAction() == null ? "" : dto.getRecommendedAction().name()) + "," +
-                    dto.getOpenTasksCount() + "," +
-                    (dto.getOldestTaskAgeHours() == null ? "" : dto.getOldestTaskAgeHours()) + "," +
-                    dto.getTimerCount() + "," +
-                    dto.getOverdueJobCount() + "," +
-                    dto.getOverdueTimerCount() + "," +
-                    csv(dto.getStarterUserId()) + "," +
-                    csv(dto.getStarterEmail()) + "," +
-                    dto.isSubprocess() + "," +
-                    csv(dto.getParentProcessInstanceId()) + "\n";
-                try {
-                    outputStream.write(line.getBytes(StandardCharsets.UTF_8));
-                } catch (IOException ex) {
-                    throw new OpsException(500, "Failed to stream CSV", ex);
-                }
+        scanSummaries(criteria, dto -> {
+            String line = csv(dto.getProcessInstanceId()) + "," +
+                csv(dto.getProcessDefinitionKey()) + "," +
+                csv(dto.getStartTime() == null ? "" : dto.getStartTime().toString()) + "," +
+                dto.getHoursRunning() + "," +
+                csv(dto.getClassification() == null ? "" : dto.getClassification().name()) + "," +
+                csv(dto.getRecommendedAction() == null ? "" : dto.getRecommendedAction().name()) + "," +
+                dto.getOpenTasksCount() + "," +
+                (dto.getOldestTaskAgeHours() == null ? "" : dto.getOldestTaskAgeHours()) + "," +
+                dto.getTimerCount() + "," +
+                dto.getOverdueJobCount() + "," +
+                dto.getOverdueTimerCount() + "," +
+                csv(dto.getStarterUserId()) + "," +
+                csv(dto.getStarterEmail()) + "," +
+                dto.isSubprocess() + "," +
+                csv(dto.getParentProcessInstanceId()) + "\n";
+            try {
+                outputStream.write(line.getBytes(StandardCharsets.UTF_8));
+            } catch (IOException ex) {
+                throw new OpsException(500, "Failed to stream CSV", ex);
             }
         });
     }
 
-    private void accumulateCandidates(FilterCriteria criteria, List<Candidate> candidates, ScanAccumulator accumulator) {
-        accumulateCandidates(criteria, candidates, new ScanConsumer() {
-            @Override
-            public void accept(Candidate candidate) {
-                if (candidate.getRecommendedAction() == RecommendedAction.WAIT) {
-                    accumulator.waitCount++;
-                } else if (candidate.getRecommendedAction() == RecommendedAction.ESCALATE) {
-                    accumulator.escalateCount++;
-                } else if (candidate.getRecommendedAction() == RecommendedAction.TERMINATE) {
-                    accumulator.terminateCount++;
-                }
+    /**
+     * Passes the classified summaries matching {@code criteria} to {@code sink}. A fresh snapshot for
+     * the same scan filters is replayed from the cache; otherwise the candidates come from a delta
+     * refresh (or a full scan when incremental mode is off) and, when they fit the snapshot limits,
+     * are recorded for the following requests. All reads go to the read pool when one is configured.
+     */
+    private void scanSummaries(FilterCriteria criteria, Consumer<ProcessSummaryDto> sink) {
+        ReadRouting.runRead(() -> readSummaries(criteria, sink));
+    }
 
-                accumulator.totalItems++;
+    private void readSummaries(FilterCriteria criteria, Consumer<ProcessSummaryDto> sink) {
+        int hours = criteria.getHours() > 0 ? criteria.getHours() : props.getDefaultHours();
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(Duration.ofHours(hours));
 
-                int start = accumulator.page * accumulator.size;
-                int end = start + accumulator.size;
-                if (accumulator.totalItems > start && accumulator.totalItems <= end) {
-                    accumulator.items.add(toSummaryDto(candidate));
+        // Narrowing filters are pushed into the scan query unless a delta refresh of the full set is
+        // available; a pushed-down result only ever feeds the narrowed snapshot.
+        boolean pushDown = ScanFilterPushdown.narrows(criteria)
+            && (incrementalScanCache == null || !incrementalScanCache.isTracking(criteria, hours));
+
+        CandidateSnapshotCache.Builder snapshot = null;
+        if (snapshotCache != null) {
+            CandidateSnapshotCache.Key key = snapshotCache.keyFor(criteria, hours, cutoff);
+            List<ProcessSummaryDto> cached = snapshotCache.get(key, now);
+            if (cached == null && pushDown) {
+                key = snapshotCache.narrowedKeyFor(criteria, hours, cutoff);
+                cached = snapshotCache.get(key, now);
+            }
+            if (cached != null) {
+                for (ProcessSummaryDto dto : cached) {
+                    if (matchesFilters(criteria, dto)) {
+                        sink.accept(dto);
+                    }
                 }
+                return;
             }
-        });
-    }
+            snapshot = snapshotCache.builder(key, now);
+        }
 
-    private void accumulateCandidates(FilterCriteria criteria, List<Candidate> candidates, ScanConsumer consumer) {
-        for (Candidate candidate : candidates) {
+        CandidateSnapshotCache.Builder recorder = snapshot;
+        CandidateSink classify = candidate -> {
             ClassificationResult classification = classificationService.classify(candidate, props);
             candidate.setClassification(classification.getClassification());
             candidate.setRecommendedAction(classification.getRecommendedAction());
-
-            if (!matchesAction(criteria.getAction(), candidate.getRecommendedAction())) {
-                continue;
+            ProcessSummaryDto dto = toSummaryDto(candidate);
+            if (recorder != null) {
+                recorder.add(dto);
             }
-            if (criteria.getHasTasks() != null) {
-                boolean hasTasks = candidate.getOpenTasksCount() > 0;
-                if (criteria.getHasTasks() != hasTasks) {
-                    continue;
-                }
+            if (matchesFilters(criteria, dto)) {
+                sink.accept(dto);
             }
-            consumer.accept(candidate);
+        };
+        if (pushDown) {
+            cleanupScanner.scanWithFilters(cutoff, now, criteria, classify);
+        } else if (incrementalScanCache != null) {
+            incrementalScanCache.refresh(scanFilters(criteria), hours, cutoff, now, classify);
+        } else {
+            cleanupScanner.scanWithFilters(cutoff, now, scanFilters(criteria), classify);
+        }
+        if (recorder != null) {
+            recorder.publish();
+        }
+    }
+
+    private boolean hasSnapshot(FilterCriteria criteria) {
+        if (snapshotCache == null) {
+            return false;
+        }
+        int hours = criteria.getHours() > 0 ? criteria.getHours() : props.getDefaultHours();
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(Duration.ofHours(hours));
+        return snapshotCache.get(snapshotCache.keyFor(criteria, hours, cutoff), now) != null
+            || snapshotCache.get(snapshotCache.narrowedKeyFor(criteria, hours, cutoff), now) != null;
+    }
+
+    /**
+     * Copy of {@code criteria} with only the filters that shape a reusable scan.
+     */
+    private FilterCriteria scanFilters(FilterCriteria criteria) {
+        FilterCriteria scan = new FilterCriteria();
+        scan.setHours(criteria.getHours());
+        scan.setProcDefKey(criteria.getProcDefKey());
+        scan.setStarterUserId(criteria.getStarterUserId());
+        return scan;
+    }
+
+    private boolean matchesFilters(FilterCriteria criteria, ProcessSummaryDto dto) {
+        if (!matchesAction(criteria.getAction(), dto.getRecommendedAction())) {
+            return false;
         }
+        if (criteria.getHasTasks() != null) {
+            boolean hasTasks = dto.getOpenTasksCount() > 0;
+            return criteria.getHasTasks() == hasTasks;
+        }
+        return true;
     }
 
     private boolean matchesAction(String action, RecommendedAction candidateAction) {
@@ -186,6 +295,8 @@ public class OpsCleanupService {
         dto.setStarterEmail(candidate.getStarterEmail());
         dto.setSubprocess(candidate.isSubprocess());
         dto.setParentProcessInstanceId(candidate.getParentPid());
+        dto.setRootProcessInstanceId(candidate.getRootPid());
+        dto.setDepth(candidate.getDepth());
         dto.setOpenTasksCount(candidate.getOpenTasksCount());
         dto.setOldestTaskAgeHours(candidate.getOldestTaskAgeHours());
         dto.setTaskSummaries(truncateTaskSummaries(candidate.getTasks(), 5));
@@ -211,6 +322,8 @@ public class OpsCleanupService {
         dto.setStarterEmail(candidate.getStarterEmail());
         dto.setSubprocess(candidate.isSubprocess());
         dto.setParentProcessInstanceId(candidate.getParentPid());
+        dto.setRootProcessInstanceId(candidate.getRootPid());
+        dto.setDepth(candidate.getDepth());
         dto.setTasks(toTaskDtos(candidate.getTasks()));
         dto.setActiveActivityIds(candidate.getActiveActivityIds());
         dto.setActiveActivityNames(resolveActivityNames(candidate));
@@ -287,10 +400,6 @@ public class OpsCleanupService {
         return "\"" + escaped + "\"";
     }
 
-    private interface ScanConsumer {
-        void accept(Candidate candidate);
-    }
-
     private static class ScanAccumulator {
         private final int page;
         private final int size;
@@ -304,5 +413,23 @@ public class OpsCleanupService {
             this.page = page;
             this.size = size;
         }
+
+        void accept(ProcessSummaryDto dto) {
+            if (dto.getRecommendedAction() == RecommendedAction.WAIT) {
+                waitCount++;
+            } else if (dto.getRecommendedAction() == RecommendedAction.ESCALATE) {
+                escalateCount++;
+            } else if (dto.getRecommendedAction() == RecommendedAction.TERMINATE) {
+                terminateCount++;
+            }
+
+            totalItems++;
+
+            int start = page * size;
+            int end = start + size;
+            if (totalItems > start && totalItems <= end) {
+                items.add(dto);
+            }
+        }
     }
 }
@@ -1,6 +1,10 @@
 package com.company.flowable.ops;
 
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
 import org.flowable.engine.ManagementService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -8,13 +12,53 @@ import org.springframework.jdbc.core.JdbcTemplate;
 @Configuration
 public class OpsCleanupStrategyConfig {
 
+    @Bean
+    public IdListQuery idListQuery(OpsCleanupProperties props) {
+        return new IdListQuery(props.getNativeSql().getInClauseLimit());
+    }
+
     @Bean
     public JobCountStrategy jobCountStrategy(OpsCleanupProperties props,
                                              ManagementService managementService,
-                                             JdbcTemplate jdbcTemplate) {
+                                             JdbcTemplate jdbcTemplate,
+                                             IdListQuery idListQuery) {
         if (props.getQueryStrategy() == OpsCleanupProperties.QueryStrategy.NATIVE_SQL) {
-            return new NativeSqlJobCountStrategy(jdbcTemplate, props.getNativeSql());
+            return new NativeSqlJobCountStrategy(jdbcTemplate, props.getNativeSql(), idListQuery);
+        }
+        if (props.getQueryStrategy() == OpsCleanupProperties.QueryStrategy.CUSTOM_MAPPER) {
+            return new MapperJobCountStrategy(managementService, idListQuery);
         }
         return new ApiOnlyJobCountStrategy(managementService);
     }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ops.cleanup", name = "scan-strategy", havingValue = "NATIVE_SQL")
+    public CandidateProjection candidateProjection(OpsCleanupProperties props, JdbcTemplate jdbcTemplate) {
+        return new NativeSqlCandidateProjection(jdbcTemplate, props);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "ops.cleanup", name = "aggregate-summary", havingValue = "true", matchIfMissing = true)
+    public NativeSqlSummaryCounter summaryCounter(OpsCleanupProperties props, JdbcTemplate jdbcTemplate,
+                                                  ClassificationService classificationService) {
+        return new NativeSqlSummaryCounter(jdbcTemplate, props, classificationService);
+    }
+
+    @Bean
+    public DeleteRateController deleteRateController(OpsCleanupProperties props) {
+        return DeleteRateController.from(props.getDeleteRate());
+    }
+
+    @Bean
+    public PrefetchExecutor prefetchExecutor(OpsCleanupProperties props, DataSource dataSource) {
+        int poolSize = 0;
+        if (dataSource instanceof ReadWriteRoutingDataSource) {
+            // Prefetch lookups run under the scan's read routing.
+            dataSource = ((ReadWriteRoutingDataSource) dataSource).getReadDataSource();
+        }
+        if (dataSource instanceof HikariDataSource) {
+            poolSize = ((HikariDataSource) dataSource).getMaximumPoolSize();
+        }
+        return new PrefetchExecutor(props.getPrefetch().getParallelism(), poolSize, props.getPrefetch().getTimeoutMillis());
+    }
 }
@@ -32,4 +32,29 @@ public class OpsScannerConfig implements ScannerConfig {
     public boolean isIncludeSubprocesses() {
         return true;
     }
+
+    @Override
+    public long getTaskEscalationHours() {
+        return props.getTaskEscalationHours();
+    }
+
+    @Override
+    public int getReadAheadDepth() {
+        return props.getReadAheadDepth();
+    }
+
+    @Override
+    public int getInClauseLimit() {
+        return props.getNativeSql().getInClauseLimit();
+    }
+
+    @Override
+    public int getScanPartitions() {
+        return props.getScanPartitions();
+    }
+
+    @Override
+    public ScanPartition.Function getScanPartitionFunction() {
+        return props.getScanPartitionFunction();
+    }
 }
@@ -0,0 +1,119 @@
+package com.company.flowable.ops;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.Function;
+
+/**
+ * Loads keyset pages on a background reader thread while the caller processes earlier pages. At
+ * most {@code depth} pages wait in the queue; when it is full the reader blocks until the caller
+ * catches up, so a slow consumer never causes unbounded buffering.
+ */
+public class PageReadAhead<T> implements AutoCloseable {
+    private final BlockingQueue<Slot<T>> queue;
+    private final Thread reader;
+    private final int pageSize;
+    private final Function<ScanCursor, List<T>> fetch;
+    private final Function<T, ScanCursor> cursorAfter;
+    private volatile boolean closed;
+    private boolean exhausted;
+
+    public PageReadAhead(String name,
+                         int depth,
+                         int pageSize,
+                         ScanCursor start,
+                         Function<ScanCursor, List<T>> fetch,
+                         Function<T, ScanCursor> cursorAfter) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, depth));
+        this.pageSize = pageSize;
+        this.fetch = fetch;
+        this.cursorAfter = cursorAfter;
+        this.reader = new Thread(ReadRouting.propagate(() -> readPages(start)), name);
+        this.reader.setDaemon(true);
+        this.reader.start();
+    }
+
+    private void readPages(ScanCursor start) {
+        ScanCursor cursor = start;
+        try {
+            while (!closed) {
+                List<T> page = fetch.apply(cursor);
+                if (page == null || page.isEmpty()) {
+                    queue.put(Slot.end());
+                    return;
+                }
+                queue.put(Slot.page(page));
+                if (page.size() < pageSize) {
+                    queue.put(Slot.end());
+                    return;
+                }
+                cursor = cursorAfter.apply(page.get(page.size() - 1));
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            if (!closed) {
+                try {
+                    queue.put(Slot.failure(ex));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the next page, blocking until the reader has loaded it, or {@code null} once the
+     * scan is exhausted. A failure on the reader thread is rethrown here.
+     */
+    public List<T> next() {
+        if (exhausted) {
+            return null;
+        }
+        Slot<T> slot;
+        try {
+            slot = queue.take();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the next page", ex);
+        }
+        if (slot.failure != null) {
+            exhausted = true;
+            throw slot.failure;
+        }
+        if (slot.page == null) {
+            exhausted = true;
+        }
+        return slot.page;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        reader.interrupt();
+        queue.clear();
+    }
+
+    private static final class Slot<T> {
+        final List<T> page;
+        final RuntimeException failure;
+
+        private Slot(List<T> page, RuntimeException failure) {
+            this.page = page;
+            this.failure = failure;
+        }
+
+        static <T> Slot<T> page(List<T> page) {
+            return new Slot<>(page, null);
+        }
+
+        static <T> Slot<T> end() {
+            return new Slot<>(null, null);
+        }
+
+        static <T> Slot<T> failure(RuntimeException failure) {
+            return new Slot<>(null, failure);
+        }
+    }
+}
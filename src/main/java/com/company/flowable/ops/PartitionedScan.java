@@ -0,0 +1,162 @@
+package com.company.flowable.ops;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Scans the partitions of a keyset scan concurrently, one reader thread per partition, and merges
+ * their candidates on the calling thread in (START_TIME_, ID_) order. Every partition is itself
+ * ordered that way, so the sink receives the same sequence an unpartitioned scan would produce.
+ * Each reader buffers at most {@code bufferSize} candidates and waits while its buffer is full, so
+ * a slow sink never causes unbounded buffering.
+ */
+public class PartitionedScan implements AutoCloseable {
+    static final Comparator<Candidate> SCAN_ORDER = Comparator
+        .comparing(Candidate::getStartTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+        .thenComparing(Candidate::getProcessInstanceId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    /**
+     * Streams the candidates of one partition, in scan order, to {@code sink}.
+     */
+    @FunctionalInterface
+    public interface PartitionReader {
+        void scan(ScanPartition partition, CandidateSink sink);
+    }
+
+    private final List<Reader> readers = new ArrayList<>();
+    private volatile boolean closed;
+    private int emitted;
+
+    public PartitionedScan(String name, List<ScanPartition> partitions, int bufferSize, PartitionReader partitionReader) {
+        for (ScanPartition partition : partitions) {
+            Reader reader = new Reader(Math.max(1, bufferSize));
+            Thread thread = new Thread(ReadRouting.propagate(() -> reader.run(partition, partitionReader)),
+                name + "-" + partition.getIndex());
+            thread.setDaemon(true);
+            reader.thread = thread;
+            readers.add(reader);
+        }
+        for (Reader reader : readers) {
+            reader.thread.start();
+        }
+    }
+
+    /**
+     * Passes up to {@code limit} candidates to {@code sink} in scan order. A failure of any
+     * partition is rethrown here; {@link #getEmitted()} tells how many candidates were passed on
+     * before it.
+     *
+     * @return number of candidates passed to the sink
+     */
+    public int mergeInto(CandidateSink sink, int limit) {
+        PriorityQueue<Head> heads = new PriorityQueue<>((a, b) -> SCAN_ORDER.compare(a.candidate, b.candidate));
+        for (Reader reader : readers) {
+            Candidate first = reader.next();
+            if (first != null) {
+                heads.add(new Head(reader, first));
+            }
+        }
+        while (!heads.isEmpty() && emitted < limit) {
+            Head head = heads.poll();
+            sink.accept(head.candidate);
+            emitted++;
+            Candidate next = head.reader.next();
+            if (next != null) {
+                heads.add(new Head(head.reader, next));
+            }
+        }
+        return emitted;
+    }
+
+    public int getEmitted() {
+        return emitted;
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        for (Reader reader : readers) {
+            reader.thread.interrupt();
+            reader.queue.clear();
+        }
+    }
+
+    private final class Reader {
+        final BlockingQueue<Slot> queue;
+        Thread thread;
+        boolean exhausted;
+
+        Reader(int bufferSize) {
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void run(ScanPartition partition, PartitionReader partitionReader) {
+            try {
+                partitionReader.scan(partition, candidate -> {
+                    try {
+                        queue.put(new Slot(candidate, null));
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("Partition " + partition + " scan interrupted", ex);
+                    }
+                });
+                queue.put(new Slot(null, null));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException ex) {
+                if (!closed) {
+                    try {
+                        queue.put(new Slot(null, ex));
+                    } catch (InterruptedException interrupted) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }
+
+        Candidate next() {
+            if (exhausted) {
+                return null;
+            }
+            Slot slot;
+            try {
+                slot = queue.take();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for a partition", ex);
+            }
+            if (slot.failure != null) {
+                exhausted = true;
+                throw slot.failure;
+            }
+            if (slot.candidate == null) {
+                exhausted = true;
+            }
+            return slot.candidate;
+        }
+    }
+
+    private static final class Slot {
+        final Candidate candidate;
+        final RuntimeException failure;
+
+        Slot(Candidate candidate, RuntimeException failure) {
+            this.candidate = candidate;
+            this.failure = failure;
+        }
+    }
+
+    private static final class Head {
+        final Reader reader;
+        final Candidate candidate;
+
+        Head(Reader reader, Candidate candidate) {
+            this.reader = reader;
+            this.candidate = candidate;
+        }
+    }
+}
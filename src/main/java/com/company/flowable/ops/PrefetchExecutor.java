@@ -0,0 +1,242 @@
+package com.company.flowable.ops;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the independent prefetch lookups of a scan page concurrently. Each lookup reads on a worker
+ * thread and returns a merge step; merge steps are applied on the calling thread so the target is
+ * never shared between threads. Worker count is capped one below the connection pool size so
+ * prefetching can never starve other callers of connections. Lookups keep the caller's
+ * {@link ReadRouting}.
+ */
+public class PrefetchExecutor implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(PrefetchExecutor.class);
+    private static final int QUEUE_SLOTS_PER_THREAD = 8;
+
+    private final int parallelism;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, LookupTiming> timings = new ConcurrentHashMap<>();
+
+    public PrefetchExecutor(int parallelism, int connectionPoolSize, long timeoutMillis) {
+        int poolHeadroom = connectionPoolSize <= 0 ? parallelism : connectionPoolSize - 1;
+        this.parallelism = Math.max(1, Math.min(parallelism, poolHeadroom));
+        this.timeoutMillis = timeoutMillis;
+        if (this.parallelism > 1) {
+            AtomicInteger threadIndex = new AtomicInteger();
+            this.executor = new ThreadPoolExecutor(this.parallelism, this.parallelism, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(this.parallelism * QUEUE_SLOTS_PER_THREAD),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "ops-prefetch-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+            this.executor.allowCoreThreadTimeOut(true);
+        } else {
+            this.executor = null;
+        }
+        if (this.parallelism < parallelism) {
+            logger.info("Prefetch parallelism capped at {} (requested {}, connection pool size {})",
+                this.parallelism, parallelism, connectionPoolSize);
+        }
+    }
+
+    public static PrefetchExecutor sequential() {
+        return new PrefetchExecutor(1, 0, 0);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Runs all lookups and applies their merge steps to {@code target} in declaration order. If any
+     * lookup fails or the timeout elapses, the remaining lookups are cancelled and the failure is
+     * rethrown; {@code target} is left untouched in that case.
+     *
+     * @return elapsed milliseconds per lookup name
+     */
+    public <T> Map<String, Long> invokeAll(Map<String, Callable<Consumer<T>>> lookups, T target) {
+        Map<String, Long> elapsed = new LinkedHashMap<>();
+        Map<String, Consumer<T>> merges = new LinkedHashMap<>();
+        if (executor == null || lookups.size() <= 1) {
+            for (Map.Entry<String, Callable<Consumer<T>>> entry : lookups.entrySet()) {
+                TimedResult<T> result = new TimedLookup<>(entry.getKey(), entry.getValue()).call();
+                elapsed.put(result.name, result.millis);
+                merges.put(result.name, result.merge);
+            }
+        } else {
+            runConcurrently(lookups, elapsed, merges);
+        }
+        for (String name : lookups.keySet()) {
+            Consumer<T> merge = merges.get(name);
+            if (merge != null) {
+                merge.accept(target);
+            }
+            record(name, elapsed.getOrDefault(name, 0L));
+        }
+        return elapsed;
+    }
+
+    private <T> void runConcurrently(Map<String, Callable<Consumer<T>>> lookups,
+                                     Map<String, Long> elapsed,
+                                     Map<String, Consumer<T>> merges) {
+        ExecutorCompletionService<TimedResult<T>> completion = new ExecutorCompletionService<>(executor);
+        List<Future<TimedResult<T>>> futures = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        try {
+            for (Map.Entry<String, Callable<Consumer<T>>> entry : lookups.entrySet()) {
+                futures.add(completion.submit(ReadRouting.propagate(new TimedLookup<>(entry.getKey(), entry.getValue()))));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                Future<TimedResult<T>> done;
+                if (timeoutMillis > 0) {
+                    done = completion.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        throw new TimeoutException();
+                    }
+                } else {
+                    done = completion.take();
+                }
+                TimedResult<T> result = done.get();
+                elapsed.put(result.name, result.millis);
+                merges.put(result.name, result.merge);
+            }
+        } catch (InterruptedException ex) {
+            cancelAll(futures);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Prefetch interrupted", ex);
+        } catch (TimeoutException ex) {
+            cancelAll(futures);
+            throw new IllegalStateException("Prefetch did not complete within " + timeoutMillis + " ms");
+        } catch (ExecutionException ex) {
+            cancelAll(futures);
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Prefetch lookup failed", cause);
+        }
+    }
+
+    private void cancelAll(List<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(true);
+        }
+    }
+
+    private void record(String name, long millis) {
+        timings.computeIfAbsent(name, k -> new LookupTiming()).record(millis);
+    }
+
+    /**
+     * Cumulative timings per lookup name since startup.
+     */
+    public Map<String, LookupTiming> getTimings() {
+        Map<String, LookupTiming> snapshot = new LinkedHashMap<>();
+        for (Map.Entry<String, LookupTiming> entry : timings.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().copy());
+        }
+        return snapshot;
+    }
+
+    @Override
+    public void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class TimedLookup<T> implements Callable<TimedResult<T>> {
+        private final String name;
+        private final Callable<Consumer<T>> lookup;
+
+        TimedLookup(String name, Callable<Consumer<T>> lookup) {
+            this.name = name;
+            this.lookup = lookup;
+        }
+
+        @Override
+        public TimedResult<T> call() {
+            long start = System.nanoTime();
+            Consumer<T> merge;
+            try {
+                merge = lookup.call();
+            } catch (RuntimeException ex) {
+                throw ex;
+            } catch (Exception ex) {
+                throw new IllegalStateException("Prefetch lookup " + name + " failed", ex);
+            }
+            return new TimedResult<>(name, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), merge);
+        }
+    }
+
+    private static final class TimedResult<T> {
+        final String name;
+        final long millis;
+        final Consumer<T> merge;
+
+        TimedResult(String name, long millis, Consumer<T> merge) {
+            this.name = name;
+            this.millis = millis;
+            this.merge = merge;
+        }
+    }
+
+    public static class LookupTiming {
+        private long count;
+        private long totalMillis;
+        private long maxMillis;
+
+        synchronized void record(long millis) {
+            count++;
+            totalMillis += millis;
+            maxMillis = Math.max(maxMillis, millis);
+        }
+
+        synchronized LookupTiming copy() {
+            LookupTiming copy = new LookupTiming();
+            copy.count = count;
+            copy.totalMillis = totalMillis;
+            copy.maxMillis = maxMillis;
+            return copy;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalMillis() {
+            return totalMillis;
+        }
+
+        public long getMaxMillis() {
+            return maxMillis;
+        }
+
+        public long getAvgMillis() {
+            return count == 0 ? 0 : totalMillis / count;
+        }
+    }
+}
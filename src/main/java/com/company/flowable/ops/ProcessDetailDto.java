@@ -15,6 +15,8 @@ public class ProcessDetailDto {
     private String starterEmail;
     private boolean subprocess;
     private String parentProcessInstanceId;
+    private String rootProcessInstanceId;
+    private int depth;
     private List<TaskSummaryDto> tasks;
     private List<String> activeActivityIds;
     private Map<String, String> activeActivityNames;
@@ -105,6 +107,22 @@ public class ProcessDetailDto {
         this.parentProcessInstanceId = parentProcessInstanceId;
     }
 
+    public String getRootProcessInstanceId() {
+        return rootProcessInstanceId;
+    }
+
+    public void setRootProcessInstanceId(String rootProcessInstanceId) {
+        this.rootProcessInstanceId = rootProcessInstanceId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
     public List<TaskSummaryDto> getTasks() {
         return tasks;
     }
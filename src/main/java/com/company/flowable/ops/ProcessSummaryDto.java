@@ -14,6 +14,8 @@ public class ProcessSummaryDto {
     private String starterEmail;
     private boolean subprocess;
     private String parentProcessInstanceId;
+    private String rootProcessInstanceId;
+    private int depth;
     private int openTasksCount;
     private Long oldestTaskAgeHours;
     private List<String> taskSummaries;
@@ -105,6 +107,22 @@ public class ProcessSummaryDto {
         this.parentProcessInstanceId = parentProcessInstanceId;
     }
 
+    public String getRootProcessInstanceId() {
+        return rootProcessInstanceId;
+    }
+
+    public void setRootProcessInstanceId(String rootProcessInstanceId) {
+        this.rootProcessInstanceId = rootProcessInstanceId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
     public int getOpenTasksCount() {
         return openTasksCount;
     }
@@ -0,0 +1,58 @@
+package com.company.flowable.ops;
+
+import javax.sql.DataSource;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+/**
+ * Active with {@code ops.cleanup.read-data-source.enabled=true}. Replaces the auto-configured
+ * DataSource with a {@link ReadWriteRoutingDataSource} over the primary pool
+ * ({@code spring.datasource}) and a read-only READ COMMITTED pool for scans, so the engine, the
+ * JdbcTemplate and the transaction manager all route through it. Deletes, verification and the
+ * audit table run outside {@link ReadRouting} and therefore always use the primary.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "ops.cleanup.read-data-source", name = "enabled", havingValue = "true")
+public class ReadDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties primary) {
+        return primary.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public HikariDataSource readDataSource(OpsCleanupProperties props, DataSourceProperties primary) {
+        OpsCleanupProperties.ReadDataSource read = props.getReadDataSource();
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(read.getUrl().isEmpty() ? primary.getUrl() : read.getUrl());
+        config.setUsername(read.getUsername().isEmpty() ? primary.getUsername() : read.getUsername());
+        config.setPassword(read.getPassword().isEmpty() ? primary.getPassword() : read.getPassword());
+        if (primary.getDriverClassName() != null) {
+            config.setDriverClassName(primary.getDriverClassName());
+        }
+        config.setPoolName("ops-read");
+        config.setMaximumPoolSize(read.getMaximumPoolSize());
+        config.setMinimumIdle(read.getMinimumIdle());
+        config.setReadOnly(true);
+        config.setTransactionIsolation("TRANSACTION_READ_COMMITTED");
+        // Oracle driver row prefetch; applies to engine queries and JdbcTemplate reads alike.
+        config.addDataSourceProperty("defaultRowPrefetch", read.getFetchSize());
+        return new HikariDataSource(config);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                                 @Qualifier("readDataSource") DataSource readDataSource) {
+        return new ReadWriteRoutingDataSource(writeDataSource, readDataSource);
+    }
+}
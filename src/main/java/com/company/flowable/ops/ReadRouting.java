@@ -0,0 +1,85 @@
+package com.company.flowable.ops;
+
+import java.util.concurrent.Callable;
+import java.util.function.Supplier;
+
+/**
+ * Marks the current thread as doing read-only scan work. While the mark is set,
+ * {@link ReadWriteRoutingDataSource} hands out connections from the read pool, for engine queries
+ * and plain JDBC alike. Threads started on behalf of a scan (prefetch, read-ahead, partitions)
+ * take the mark over through {@link #propagate(Runnable)} / {@link #propagate(Callable)}.
+ */
+public final class ReadRouting {
+    private static final ThreadLocal<Boolean> READ = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static boolean isRead() {
+        return Boolean.TRUE.equals(READ.get());
+    }
+
+    public static <T> T supplyRead(Supplier<T> action) {
+        Boolean previous = READ.get();
+        READ.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    public static void runRead(Runnable action) {
+        supplyRead(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs {@code action} on the write pool even when the calling thread is marked as reading, for
+     * statements that write session state (temporary table rows) as part of a scan.
+     */
+    public static <T> T supplyWrite(Supplier<T> action) {
+        Boolean previous = READ.get();
+        READ.set(Boolean.FALSE);
+        try {
+            return action.get();
+        } finally {
+            restore(previous);
+        }
+    }
+
+    /**
+     * Wraps {@code task} so it runs with the routing of the calling thread.
+     */
+    public static Runnable propagate(Runnable task) {
+        if (!isRead()) {
+            return task;
+        }
+        return () -> runRead(task);
+    }
+
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        if (!isRead()) {
+            return task;
+        }
+        return () -> {
+            Boolean previous = READ.get();
+            READ.set(Boolean.TRUE);
+            try {
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    private static void restore(Boolean previous) {
+        if (previous == null) {
+            READ.remove();
+        } else {
+            READ.set(previous);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.company.flowable.ops;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+/**
+ * Sends connection requests made under {@link ReadRouting} to the read pool and everything else to
+ * the primary pool. Transactions bind the connection they start with, so a transaction opened
+ * outside a read scope stays on the primary even if it reads.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    static final String READ = "read";
+    static final String WRITE = "write";
+
+    private final DataSource readDataSource;
+    private final DataSource writeDataSource;
+
+    public ReadWriteRoutingDataSource(DataSource writeDataSource, DataSource readDataSource) {
+        this.writeDataSource = writeDataSource;
+        this.readDataSource = readDataSource;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(READ, readDataSource);
+        targets.put(WRITE, writeDataSource);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(writeDataSource);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ReadRouting.isRead() ? READ : WRITE;
+    }
+
+    public DataSource getReadDataSource() {
+        return readDataSource;
+    }
+
+    public DataSource getWriteDataSource() {
+        return writeDataSource;
+    }
+}
@@ -0,0 +1,37 @@
+package com.company.flowable.ops;
+
+import java.util.Date;
+
+/**
+ * Keyset position of a scan ordered by (START_TIME_, ID_). A scan resumes strictly after the
+ * last row it has seen instead of skipping an offset, so every page costs the same to read.
+ */
+public class ScanCursor {
+    private final Date lastStartTime;
+    private final String lastId;
+
+    private ScanCursor(Date lastStartTime, String lastId) {
+        this.lastStartTime = lastStartTime;
+        this.lastId = lastId;
+    }
+
+    public static ScanCursor start() {
+        return new ScanCursor(null, null);
+    }
+
+    public static ScanCursor after(Date lastStartTime, String lastId) {
+        return new ScanCursor(lastStartTime, lastId);
+    }
+
+    public boolean hasPosition() {
+        return lastStartTime != null && lastId != null;
+    }
+
+    public Date getLastStartTime() {
+        return lastStartTime;
+    }
+
+    public String getLastId() {
+        return lastId;
+    }
+}
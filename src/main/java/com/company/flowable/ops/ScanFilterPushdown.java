@@ -0,0 +1,229 @@
+package com.company.flowable.ops;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * Renders scan filters as SQL predicates so instances that cannot match are never paged in: the
+ * process definition allow/deny lists as IN / NOT IN lists, and the action, hasTasks and subprocess
+ * filters as correlated EXISTS predicates on the scanned instance. The EXISTS predicates mirror the
+ * classification rules: TERMINATE means no active task, no timer and no overdue job; WAIT means a
+ * timer that is not overdue, or only tasks younger than the escalation threshold; ESCALATE is
+ * everything else. The Java-side filters still run on every candidate, so the predicates only
+ * have to be exact, not exhaustive.
+ */
+public class ScanFilterPushdown {
+    static final String PARAM_NOW = "pushdownNow";
+    static final String PARAM_STALE_BEFORE = "pushdownStaleBefore";
+
+    /**
+     * Renders a bind placeholder for a named value, e.g. {@code #{name}} for engine native
+     * queries or {@code ?} for plain JDBC, recording the value for binding.
+     */
+    @FunctionalInterface
+    public interface ParameterBinder {
+        String bind(String name, Object value);
+    }
+
+    /**
+     * Per-instance inputs of the classification rules.
+     */
+    public enum Flag {
+        /** An active task exists. */
+        OPEN_TASK,
+        /** An active task is at least {@code taskEscalationHours} old. */
+        STALE_TASK,
+        /** A timer job exists. */
+        TIMER,
+        /** A timer job is past its due date. */
+        OVERDUE_TIMER,
+        /** An async job is past its due date. */
+        OVERDUE_JOB
+    }
+
+    private final String taskTable;
+    private final String executionTable;
+    private final String jobTable;
+    private final String timerTable;
+    private final String jobProcessInstanceIdColumn;
+    private final String dueDateColumn;
+
+    public ScanFilterPushdown(String taskTable,
+                              String executionTable,
+                              String jobTable,
+                              String timerTable,
+                              String jobProcessInstanceIdColumn,
+                              String dueDateColumn) {
+        this.taskTable = taskTable;
+        this.executionTable = executionTable;
+        this.jobTable = jobTable;
+        this.timerTable = timerTable;
+        this.jobProcessInstanceIdColumn = jobProcessInstanceIdColumn;
+        this.dueDateColumn = dueDateColumn;
+    }
+
+    /**
+     * Returns whether {@code criteria} narrows the scan beyond hours, key and starter.
+     */
+    public static boolean narrows(FilterCriteria criteria) {
+        return criteria != null && (action(criteria) != null || criteria.getHasTasks() != null);
+    }
+
+    /**
+     * Appends {@code AND ...} predicates on {@code idColumn} (the process instance id of the outer
+     * query) for the filters in {@code criteria}. Nothing is appended when no filter applies.
+     */
+    public void appendPredicates(StringBuilder sql,
+                                 String idColumn,
+                                 FilterCriteria criteria,
+                                 boolean includeSubprocesses,
+                                 long taskEscalationHours,
+                                 Instant now,
+                                 ParameterBinder binder) {
+        if (!includeSubprocesses) {
+            sql.append(" AND NOT EXISTS (SELECT 1 FROM ").append(executionTable)
+                .append(" SE WHERE SE.ID_ = ").append(idColumn).append(" AND SE.SUPER_EXEC_ IS NOT NULL)");
+        }
+        if (criteria == null) {
+            return;
+        }
+        if (criteria.getHasTasks() != null) {
+            sql.append(criteria.getHasTasks() ? " AND " : " AND NOT ").append(task(idColumn, null));
+        }
+        String action = action(criteria);
+        if (action == null) {
+            return;
+        }
+        if (RecommendedAction.TERMINATE.name().equals(action)) {
+            sql.append(" AND ").append(terminate(idColumn, now, binder));
+        } else if (RecommendedAction.WAIT.name().equals(action)) {
+            sql.append(" AND ").append(waiting(idColumn, taskEscalationHours, now, binder));
+        } else if (RecommendedAction.ESCALATE.name().equals(action)) {
+            sql.append(" AND NOT ").append(terminate(idColumn, now, binder))
+                .append(" AND NOT ").append(waiting(idColumn, taskEscalationHours, now, binder));
+        }
+    }
+
+    /**
+     * Appends the allow list as {@code keyColumn IN (...)} and the deny list as
+     * {@code keyColumn NOT IN (...)}, split into lists of at most {@code inClauseLimit} values. A
+     * null key matches neither predicate, which agrees with the scanner rejecting instances
+     * without a definition key.
+     */
+    public static void appendKeyPredicates(StringBuilder sql,
+                                           String keyColumn,
+                                           Collection<String> allowKeys,
+                                           Collection<String> denyKeys,
+                                           int inClauseLimit,
+                                           ParameterBinder binder) {
+        List<List<String>> allow = chunks(allowKeys, inClauseLimit);
+        if (!allow.isEmpty()) {
+            sql.append(" AND (");
+            for (int i = 0; i < allow.size(); i++) {
+                if (i > 0) {
+                    sql.append(" OR ");
+                }
+                appendInList(sql, keyColumn + " IN (", allow.get(i), "allowKey" + i + "_", binder);
+            }
+            sql.append(")");
+        }
+        List<List<String>> deny = chunks(denyKeys, inClauseLimit);
+        for (int i = 0; i < deny.size(); i++) {
+            sql.append(" AND ");
+            appendInList(sql, keyColumn + " NOT IN (", deny.get(i), "denyKey" + i + "_", binder);
+        }
+    }
+
+    private static void appendInList(StringBuilder sql, String head, List<String> values, String paramPrefix,
+                                      ParameterBinder binder) {
+        sql.append(head);
+        for (int j = 0; j < values.size(); j++) {
+            if (j > 0) {
+                sql.append(",");
+            }
+            sql.append(binder.bind(paramPrefix + j, values.get(j)));
+        }
+        sql.append(")");
+    }
+
+    private static List<List<String>> chunks(Collection<String> values, int inClauseLimit) {
+        List<List<String>> chunks = new ArrayList<>();
+        if (values == null || values.isEmpty()) {
+            return chunks;
+        }
+        // Sorted so the same lists always render the same statement text.
+        List<String> sorted = new ArrayList<>(new TreeSet<>(values));
+        int size = Math.max(1, inClauseLimit);
+        for (int i = 0; i < sorted.size(); i += size) {
+            chunks.add(sorted.subList(i, Math.min(sorted.size(), i + size)));
+        }
+        return chunks;
+    }
+
+    /**
+     * Renders one classification input of the instance in {@code idColumn} as an EXISTS condition.
+     */
+    public String condition(Flag flag, String idColumn, long taskEscalationHours, Instant now, ParameterBinder binder) {
+        switch (flag) {
+            case OPEN_TASK:
+                return task(idColumn, null);
+            case STALE_TASK:
+                Date staleBefore = Date.from(now.minus(Duration.ofHours(taskEscalationHours)));
+                return task(idColumn, binder.bind(PARAM_STALE_BEFORE, staleBefore));
+            case TIMER:
+                return job(timerTable, idColumn, null);
+            case OVERDUE_TIMER:
+                return job(timerTable, idColumn, binder.bind(PARAM_NOW, Date.from(now)));
+            case OVERDUE_JOB:
+                return job(jobTable, idColumn, binder.bind(PARAM_NOW, Date.from(now)));
+            default:
+                throw new IllegalArgumentException("Unknown flag " + flag);
+        }
+    }
+
+    private String terminate(String idColumn, Instant now, ParameterBinder binder) {
+        // No timer at all also rules out an overdue timer.
+        return "(NOT " + condition(Flag.OPEN_TASK, idColumn, 0, now, binder)
+            + " AND NOT " + condition(Flag.TIMER, idColumn, 0, now, binder)
+            + " AND NOT " + condition(Flag.OVERDUE_JOB, idColumn, 0, now, binder) + ")";
+    }
+
+    private String waiting(String idColumn, long taskEscalationHours, Instant now, ParameterBinder binder) {
+        String timerWait = condition(Flag.TIMER, idColumn, taskEscalationHours, now, binder)
+            + " AND NOT " + condition(Flag.OVERDUE_TIMER, idColumn, taskEscalationHours, now, binder);
+        String taskWait = condition(Flag.OPEN_TASK, idColumn, taskEscalationHours, now, binder)
+            + " AND NOT " + condition(Flag.STALE_TASK, idColumn, taskEscalationHours, now, binder);
+        return "((" + timerWait + ") OR (" + taskWait + "))";
+    }
+
+    private String task(String idColumn, String createdAtOrBefore) {
+        StringBuilder sql = new StringBuilder("EXISTS (SELECT 1 FROM ").append(taskTable)
+            .append(" PT WHERE PT.PROC_INST_ID_ = ").append(idColumn).append(" AND PT.SUSPENSION_STATE_ = 1");
+        if (createdAtOrBefore != null) {
+            sql.append(" AND PT.CREATE_TIME_ <= ").append(createdAtOrBefore);
+        }
+        return sql.append(")").toString();
+    }
+
+    private String job(String table, String idColumn, String dueBefore) {
+        StringBuilder sql = new StringBuilder("EXISTS (SELECT 1 FROM ").append(table)
+            .append(" PJ WHERE PJ.").append(jobProcessInstanceIdColumn).append(" = ").append(idColumn);
+        if (dueBefore != null) {
+            sql.append(" AND PJ.").append(dueDateColumn).append(" < ").append(dueBefore);
+        }
+        return sql.append(")").toString();
+    }
+
+    private static String action(FilterCriteria criteria) {
+        String action = criteria.getAction();
+        if (action == null || action.trim().isEmpty() || "ALL".equalsIgnoreCase(action.trim())) {
+            return null;
+        }
+        return action.trim().toUpperCase();
+    }
+}
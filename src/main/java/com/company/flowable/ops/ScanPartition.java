@@ -0,0 +1,72 @@
+package com.company.flowable.ops;
+
+/**
+ * One of {@code count} disjoint slices of the process instance id space. Each slice is scanned
+ * with the usual (START_TIME_, ID_) keyset, so the union of all slices is exactly the unpartitioned
+ * scan and each slice is ordered the same way.
+ */
+public final class ScanPartition {
+    static final String PARAM_INDEX = "partitionIndex";
+
+    /**
+     * How an id is mapped to a slice.
+     */
+    public enum Function {
+        /** {@code ORA_HASH(ID_, count - 1)}; works for any id format. Oracle only. */
+        ORA_HASH,
+        /** {@code MOD(TO_NUMBER(ID_), count)}; needs the engine's default numeric id generator. */
+        MOD
+    }
+
+    private final int index;
+    private final int count;
+    private final Function function;
+
+    private ScanPartition(int index, int count, Function function) {
+        this.index = index;
+        this.count = count;
+        this.function = function;
+    }
+
+    public static ScanPartition all() {
+        return new ScanPartition(0, 1, Function.ORA_HASH);
+    }
+
+    public static ScanPartition of(int index, int count, Function function) {
+        if (count < 1 || index < 0 || index >= count) {
+            throw new IllegalArgumentException("Partition " + index + " of " + count);
+        }
+        return new ScanPartition(index, count, function);
+    }
+
+    public boolean isWhole() {
+        return count == 1;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Appends {@code AND <hash of idColumn> = <index>}; nothing for the whole id space. The count is
+     * rendered as a literal so all slices of a scan share one statement text.
+     */
+    public void appendPredicate(StringBuilder sql, String idColumn, ScanFilterPushdown.ParameterBinder binder) {
+        if (isWhole()) {
+            return;
+        }
+        String slot = function == Function.MOD
+            ? "MOD(TO_NUMBER(" + idColumn + "), " + count + ")"
+            : "ORA_HASH(" + idColumn + ", " + (count - 1) + ")";
+        sql.append(" AND ").append(slot).append(" = ").append(binder.bind(PARAM_INDEX, index));
+    }
+
+    @Override
+    public String toString() {
+        return index + "/" + count;
+    }
+}
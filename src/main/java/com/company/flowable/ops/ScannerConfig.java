@@ -10,4 +10,27 @@ public interface ScannerConfig {
     Set<String> getProcDefKeyDenyList();
 
     boolean isIncludeSubprocesses();
+
+    /**
+     * Task age in hours from which an open task no longer counts as WAIT; used when the action
+     * filter is pushed down into the scan query.
+     */
+    long getTaskEscalationHours();
+
+    /**
+     * Number of history pages loaded ahead of the page being processed; {@code 0} disables read-ahead.
+     */
+    int getReadAheadDepth();
+
+    /**
+     * Maximum number of bind values in one IN list of a scan query; longer lists are split.
+     */
+    int getInClauseLimit();
+
+    /**
+     * Number of id partitions scanned concurrently; {@code 1} scans sequentially.
+     */
+    int getScanPartitions();
+
+    ScanPartition.Function getScanPartitionFunction();
 }
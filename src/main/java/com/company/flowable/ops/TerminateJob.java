@@ -0,0 +1,224 @@
+package com.company.flowable.ops;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * State of one background terminate-all run. Counters and the resume position are updated by the
+ * job thread after every chunk and read by status requests, so all access is synchronized. The
+ * resume position is the (start time, id) of the last instance of the last finished chunk; a
+ * resumed job only handles instances ordered after it.
+ */
+public class TerminateJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, CANCELLED, FAILED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == CANCELLED || this == FAILED;
+        }
+    }
+
+    private final String id;
+    private final String user;
+    private final String reason;
+    private final int hours;
+    private final String action;
+    private final String procDefKey;
+    private final Instant cutoff;
+    private final Instant createdAt;
+
+    private Status status = Status.QUEUED;
+    private boolean cancelRequested;
+    private long total;
+    private long done;
+    private long failed;
+    private long skipped;
+    private Instant lastStartTime;
+    private String lastPid;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private String error;
+    private long processedAtStart;
+    private long startedNanos;
+
+    public TerminateJob(String id, String user, String reason, int hours, String action, String procDefKey,
+                        Instant cutoff, Instant createdAt) {
+        this.id = id;
+        this.user = user;
+        this.reason = reason;
+        this.hours = hours;
+        this.action = action;
+        this.procDefKey = procDefKey;
+        this.cutoff = cutoff;
+        this.createdAt = createdAt;
+    }
+
+    /**
+     * Restores counters and the resume position of a persisted job.
+     */
+    synchronized void restore(Status status, long total, long done, long failed, long skipped,
+                              Instant lastStartTime, String lastPid, Instant startedAt, String error) {
+        this.status = status;
+        this.total = total;
+        this.done = done;
+        this.failed = failed;
+        this.skipped = skipped;
+        this.lastStartTime = lastStartTime;
+        this.lastPid = lastPid;
+        this.startedAt = startedAt;
+        this.error = error;
+    }
+
+    synchronized void start(long remaining) {
+        status = Status.RUNNING;
+        if (startedAt == null) {
+            startedAt = Instant.now();
+        }
+        processedAtStart = getProcessed();
+        startedNanos = System.nanoTime();
+        total = processedAtStart + remaining;
+    }
+
+    /**
+     * Counts the results of one chunk and moves the resume position to its last instance.
+     */
+    synchronized void recordChunk(List<DeleteResultDto> results, Instant chunkLastStartTime, String chunkLastPid) {
+        for (DeleteResultDto result : results) {
+            if ("FAIL".equals(result.getResult())) {
+                failed++;
+            } else if ("SKIPPED".equals(result.getResult())) {
+                skipped++;
+            } else {
+                done++;
+            }
+        }
+        lastStartTime = chunkLastStartTime;
+        lastPid = chunkLastPid;
+    }
+
+    synchronized void finish(Status status, String error) {
+        this.status = status;
+        this.error = error;
+        this.finishedAt = Instant.now();
+    }
+
+    synchronized void requestCancel() {
+        cancelRequested = true;
+    }
+
+    public synchronized boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * True if {@code (startTime, pid)} comes after the resume position in scan order.
+     */
+    synchronized boolean isAfterPosition(Instant startTime, String pid) {
+        if (lastPid == null) {
+            return true;
+        }
+        int cmp = lastStartTime == null || startTime == null
+            ? Boolean.compare(startTime != null, lastStartTime != null)
+            : startTime.compareTo(lastStartTime);
+        return cmp > 0 || (cmp == 0 && pid.compareTo(lastPid) > 0);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public int getHours() {
+        return hours;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public String getProcDefKey() {
+        return procDefKey;
+    }
+
+    public Instant getCutoff() {
+        return cutoff;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    public synchronized long getDone() {
+        return done;
+    }
+
+    public synchronized long getFailed() {
+        return failed;
+    }
+
+    public synchronized long getSkipped() {
+        return skipped;
+    }
+
+    public synchronized long getProcessed() {
+        return done + failed + skipped;
+    }
+
+    public synchronized Instant getLastStartTime() {
+        return lastStartTime;
+    }
+
+    public synchronized String getLastPid() {
+        return lastPid;
+    }
+
+    public synchronized Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public synchronized Instant getFinishedAt() {
+        return finishedAt;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    /**
+     * Instances handled per second since this process started (or resumed) the job.
+     */
+    public synchronized double getRatePerSecond() {
+        if (status != Status.RUNNING || startedNanos == 0) {
+            return 0;
+        }
+        double seconds = (System.nanoTime() - startedNanos) / 1e9;
+        return seconds <= 0 ? 0 : Math.round((getProcessed() - processedAtStart) / seconds * 10) / 10.0;
+    }
+
+    /**
+     * Estimated seconds until the job finishes at the current rate, or null while unknown.
+     */
+    public synchronized Long getEtaSeconds() {
+        double rate = getRatePerSecond();
+        if (rate <= 0) {
+            return null;
+        }
+        return (long) Math.ceil(Math.max(0, total - getProcessed()) / rate);
+    }
+}
@@ -0,0 +1,307 @@
+package com.company.flowable.ops;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Runs terminate-all requests as background jobs on a single worker thread, one job at a time.
+ * A job scans the matching instances once, orders them by (start time, id) and deletes them in
+ * chunks of {@code jobs.chunkSize}. Counters and the resume position are persisted after every
+ * chunk, cancellation is checked between chunks, and unfinished jobs are picked up again at
+ * startup when {@code jobs.dbEnabled} is set.
+ */
+@Service
+public class TerminateJobService implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(TerminateJobService.class);
+    private static final long EVENT_INTERVAL_MILLIS = 1000;
+
+    private final OpsCleanupProperties props;
+    private final OpsCleanupService cleanupService;
+    private final DeleteOrchestrator deleteOrchestrator;
+    private final TerminateJobStore store;
+    private final Map<String, TerminateJob> jobs = new LinkedHashMap<>();
+    private final ExecutorService worker;
+    private final ScheduledExecutorService events;
+    private volatile boolean closed;
+
+    public TerminateJobService(OpsCleanupProperties props,
+                               OpsCleanupService cleanupService,
+                               DeleteOrchestrator deleteOrchestrator,
+                               JdbcTemplate jdbcTemplate) {
+        this.props = props;
+        this.cleanupService = cleanupService;
+        this.deleteOrchestrator = deleteOrchestrator;
+        this.store = new TerminateJobStore(jdbcTemplate, props.getJobs().isDbEnabled(), resolveHost());
+        this.worker = Executors.newSingleThreadExecutor(task -> daemon(task, "ops-terminate-job"));
+        this.events = Executors.newSingleThreadScheduledExecutor(task -> daemon(task, "ops-terminate-job-events"));
+    }
+
+    public TerminateJob submit(FilterCriteria criteria, String reason, String user) {
+        int hours = criteria.getHours() > 0 ? criteria.getHours() : props.getDefaultHours();
+        Instant now = Instant.now();
+        TerminateJob job = new TerminateJob(UUID.randomUUID().toString(), user, reason, hours, criteria.getAction(),
+            criteria.getProcDefKey(), now.minus(Duration.ofHours(hours)), now);
+        store.insert(job);
+        enqueue(job);
+        logger.info("Terminate job {} submitted by {} (hours {}, procDefKey {})", job.getId(), user, hours,
+            criteria.getProcDefKey());
+        return job;
+    }
+
+    /**
+     * A job of this node, or with {@code jobs.dbEnabled} the persisted state of a job of any node.
+     */
+    public TerminateJob get(String id) {
+        TerminateJob job = local(id);
+        if (job == null) {
+            job = store.find(id);
+        }
+        if (job == null) {
+            throw new OpsException(404, "Terminate job not found");
+        }
+        return job;
+    }
+
+    private TerminateJob local(String id) {
+        synchronized (jobs) {
+            return jobs.get(id);
+        }
+    }
+
+    /**
+     * Jobs known to this node, newest first.
+     */
+    public List<TerminateJob> list() {
+        List<TerminateJob> result;
+        synchronized (jobs) {
+            result = new ArrayList<>(jobs.values());
+        }
+        result.sort(Comparator.comparing(TerminateJob::getCreatedAt).reversed());
+        return result;
+    }
+
+    /**
+     * Asks the job to stop after the chunk that is currently being deleted. A job of another node
+     * is cancelled through the table, which that node checks before every chunk.
+     */
+    public TerminateJob cancel(String id) {
+        TerminateJob job = get(id);
+        if (job.getStatus().isFinished()) {
+            throw new OpsException(409, "Terminate job already " + job.getStatus());
+        }
+        boolean stored = store.requestCancel(id);
+        if (local(id) != null) {
+            job.requestCancel();
+        } else if (!stored) {
+            throw new OpsException(409, "Terminate job already finished");
+        } else {
+            job = get(id);
+        }
+        logger.info("Cancel requested for terminate job {}", id);
+        return job;
+    }
+
+    /**
+     * Streams the job's status once per second as {@code progress} events until it finishes.
+     */
+    public SseEmitter subscribe(String id) {
+        TerminateJob local = local(id);
+        if (local == null) {
+            get(id);
+        }
+        SseEmitter emitter = new SseEmitter(0L);
+        AtomicReference<ScheduledFuture<?>> tick = new AtomicReference<>();
+        tick.set(events.scheduleAtFixedRate(() -> {
+            try {
+                // Jobs of other nodes are re-read from the table on every tick.
+                TerminateJob job = local != null ? local : store.find(id);
+                if (job == null) {
+                    emitter.complete();
+                    tick.get().cancel(false);
+                    return;
+                }
+                emitter.send(SseEmitter.event().name("progress").data(job));
+                if (job.getStatus().isFinished()) {
+                    emitter.complete();
+                    tick.get().cancel(false);
+                }
+            } catch (IOException | IllegalStateException ex) {
+                // Client went away.
+                tick.get().cancel(false);
+            } catch (RuntimeException ex) {
+                logger.warn("Could not read terminate job {}", id, ex);
+                emitter.completeWithError(ex);
+                tick.get().cancel(false);
+            }
+        }, 0, EVENT_INTERVAL_MILLIS, TimeUnit.MILLISECONDS));
+        emitter.onCompletion(() -> tick.get().cancel(false));
+        emitter.onTimeout(() -> tick.get().cancel(false));
+        return emitter;
+    }
+
+    /**
+     * Resumes jobs that were queued or running when this node (or a node that stopped updating
+     * them for {@code jobs.resumeAfterSeconds}) went down.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinished() {
+        if (!store.isEnabled()) {
+            return;
+        }
+        Instant staleBefore = Instant.now().minusSeconds(props.getJobs().getResumeAfterSeconds());
+        try {
+            for (TerminateJob job : store.findResumable(staleBefore)) {
+                if (store.claim(job, staleBefore)) {
+                    logger.info("Resuming terminate job {} after {} ({} processed)", job.getId(), job.getLastPid(),
+                        job.getProcessed());
+                    enqueue(job);
+                }
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Could not load unfinished terminate jobs", ex);
+        }
+    }
+
+    private void enqueue(TerminateJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getId(), job);
+            evictFinished();
+        }
+        worker.submit(() -> run(job));
+    }
+
+    private void run(TerminateJob job) {
+        if (job.isCancelRequested() || store.isCancelRequested(job.getId())) {
+            finish(job, TerminateJob.Status.CANCELLED, null);
+            return;
+        }
+        try {
+            List<ProcessSummaryDto> targets = loadTargets(job);
+            job.start(targets.size());
+            store.update(job);
+            int chunkSize = Math.max(1, Math.min(props.getJobs().getChunkSize(), props.getMaxBulkDelete()));
+            for (int from = 0; from < targets.size(); from += chunkSize) {
+                if (closed) {
+                    // Shutting down: leave the job running in the table so it is resumed.
+                    return;
+                }
+                if (job.isCancelRequested() || store.isCancelRequested(job.getId())) {
+                    finish(job, TerminateJob.Status.CANCELLED, null);
+                    return;
+                }
+                List<ProcessSummaryDto> chunk = targets.subList(from, Math.min(from + chunkSize, targets.size()));
+                List<String> pids = new ArrayList<>();
+                for (ProcessSummaryDto dto : chunk) {
+                    pids.add(dto.getProcessInstanceId());
+                }
+                List<DeleteResultDto> results = deleteOrchestrator.terminateChunk(pids, job.getReason(), job.getUser());
+                ProcessSummaryDto last = chunk.get(chunk.size() - 1);
+                job.recordChunk(results, last.getStartTime(), last.getProcessInstanceId());
+                store.update(job);
+            }
+            finish(job, TerminateJob.Status.COMPLETED, null);
+        } catch (RuntimeException ex) {
+            if (closed) {
+                return;
+            }
+            logger.warn("Terminate job {} failed", job.getId(), ex);
+            finish(job, TerminateJob.Status.FAILED, ex.getMessage());
+        }
+    }
+
+    /**
+     * Instances of the job's filters that started before its cutoff and come after its resume
+     * position, in (start time, id) order, capped at {@code jobs.maxInstances} per job.
+     */
+    private List<ProcessSummaryDto> loadTargets(TerminateJob job) {
+        FilterCriteria criteria = new FilterCriteria();
+        criteria.setHours(job.getHours());
+        criteria.setAction(job.getAction() == null ? "TERMINATE" : job.getAction());
+        criteria.setProcDefKey(job.getProcDefKey());
+        List<ProcessSummaryDto> targets = new ArrayList<>();
+        cleanupService.forEachCandidate(criteria, dto -> {
+            if (dto.getStartTime() != null && dto.getStartTime().isAfter(job.getCutoff())) {
+                return;
+            }
+            if (job.isAfterPosition(dto.getStartTime(), dto.getProcessInstanceId())) {
+                targets.add(dto);
+            }
+        });
+        targets.sort(Comparator.comparing(ProcessSummaryDto::getStartTime, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparing(ProcessSummaryDto::getProcessInstanceId));
+        int maxInstances = props.getJobs().getMaxInstances() > 0 ? props.getJobs().getMaxInstances() : props.getMaxBulkDelete();
+        long remaining = Math.max(0, maxInstances - job.getProcessed());
+        return targets.size() > remaining ? new ArrayList<>(targets.subList(0, (int) remaining)) : targets;
+    }
+
+    private void finish(TerminateJob job, TerminateJob.Status status, String error) {
+        job.finish(status, error);
+        try {
+            store.update(job);
+        } catch (RuntimeException ex) {
+            logger.warn("Could not persist final state of terminate job {}", job.getId(), ex);
+        }
+        logger.info("Terminate job {} {}: {} deleted, {} failed, {} skipped", job.getId(), status, job.getDone(),
+            job.getFailed(), job.getSkipped());
+    }
+
+    private void evictFinished() {
+        int finished = 0;
+        for (TerminateJob job : jobs.values()) {
+            if (job.getStatus().isFinished()) {
+                finished++;
+            }
+        }
+        for (Iterator<TerminateJob> it = jobs.values().iterator();
+             it.hasNext() && finished > props.getJobs().getKeepFinished(); ) {
+            if (it.next().getStatus().isFinished()) {
+                it.remove();
+                finished--;
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        worker.shutdownNow();
+        events.shutdownNow();
+    }
+
+    private static Thread daemon(Runnable task, String name) {
+        Thread thread = new Thread(task, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static String resolveHost() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (Exception ex) {
+            return "unknown";
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.company.flowable.ops;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Persists terminate jobs in {@code OPS_CLEANUP_JOB} so unfinished jobs can be resumed after a
+ * restart. Does nothing unless {@code ops.cleanup.jobs.dbEnabled} is set. Always uses the primary
+ * DataSource: the table is written after every chunk.
+ */
+public class TerminateJobStore {
+    private static final String COLUMNS = "JOB_ID, STATUS, USERNAME, HOSTNAME, REASON, HOURS, ACTION, PROC_DEF_KEY, "
+        + "CUTOFF_TIME, CREATED_TIME, STARTED_TIME, UPDATED_TIME, TOTAL_COUNT, DONE_COUNT, FAILED_COUNT, "
+        + "SKIPPED_COUNT, LAST_START_TIME, LAST_PID, ERROR";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+    private final String host;
+
+    public TerminateJobStore(JdbcTemplate jdbcTemplate, boolean enabled, String host) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+        this.host = host;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void insert(TerminateJob job) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.update("INSERT INTO OPS_CLEANUP_JOB (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)",
+            job.getId(), job.getStatus().name(), job.getUser(), host, job.getReason(), job.getHours(), job.getAction(),
+            job.getProcDefKey(), ts(job.getCutoff()), ts(job.getCreatedAt()), ts(job.getStartedAt()), ts(Instant.now()),
+            job.getTotal(), job.getDone(), job.getFailed(), job.getSkipped(), ts(job.getLastStartTime()),
+            job.getLastPid(), job.getError());
+    }
+
+    /**
+     * Writes status, counters and the resume position. Also serves as the heartbeat that keeps
+     * other nodes from taking the job over.
+     */
+    public void update(TerminateJob job) {
+        if (!enabled) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE OPS_CLEANUP_JOB SET STATUS = ?, HOSTNAME = ?, STARTED_TIME = ?, UPDATED_TIME = ?, "
+                + "TOTAL_COUNT = ?, DONE_COUNT = ?, FAILED_COUNT = ?, SKIPPED_COUNT = ?, LAST_START_TIME = ?, "
+                + "LAST_PID = ?, ERROR = ? WHERE JOB_ID = ?",
+            job.getStatus().name(), host, ts(job.getStartedAt()), ts(Instant.now()), job.getTotal(), job.getDone(),
+            job.getFailed(), job.getSkipped(), ts(job.getLastStartTime()), job.getLastPid(), truncate(job.getError()),
+            job.getId());
+    }
+
+    /**
+     * Unfinished jobs that this host owned, or that no host has updated since {@code staleBefore}.
+     */
+    public List<TerminateJob> findResumable(Instant staleBefore) {
+        if (!enabled) {
+            return new ArrayList<>();
+        }
+        return jdbcTemplate.query("SELECT " + COLUMNS + ", CANCEL_REQUESTED FROM OPS_CLEANUP_JOB WHERE STATUS IN ('QUEUED', 'RUNNING') "
+                + "AND (HOSTNAME = ? OR UPDATED_TIME < ?) ORDER BY CREATED_TIME",
+            (rs, rowNum) -> map(rs), host, ts(staleBefore));
+    }
+
+    /**
+     * Persisted state of one job, or null if it is not in the table.
+     */
+    public TerminateJob find(String id) {
+        if (!enabled) {
+            return null;
+        }
+        List<TerminateJob> found = jdbcTemplate.query("SELECT " + COLUMNS + ", CANCEL_REQUESTED FROM OPS_CLEANUP_JOB "
+            + "WHERE JOB_ID = ?", (rs, rowNum) -> map(rs), id);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    /**
+     * Records a cancel request for whichever node runs the job. Returns false if the job is not
+     * in the table or already finished.
+     */
+    public boolean requestCancel(String id) {
+        if (!enabled) {
+            return false;
+        }
+        return jdbcTemplate.update("UPDATE OPS_CLEANUP_JOB SET CANCEL_REQUESTED = 1 WHERE JOB_ID = ? "
+            + "AND STATUS IN ('QUEUED', 'RUNNING')", id) == 1;
+    }
+
+    public boolean isCancelRequested(String id) {
+        if (!enabled) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM OPS_CLEANUP_JOB WHERE JOB_ID = ? "
+            + "AND CANCEL_REQUESTED = 1", Integer.class, id);
+        return count != null && count > 0;
+    }
+
+    /**
+     * Takes over an unfinished job. Returns false if another node claimed or finished it first.
+     */
+    public boolean claim(TerminateJob job, Instant staleBefore) {
+        if (!enabled) {
+            return true;
+        }
+        return jdbcTemplate.update("UPDATE OPS_CLEANUP_JOB SET HOSTNAME = ?, UPDATED_TIME = ? WHERE JOB_ID = ? "
+                + "AND STATUS IN ('QUEUED', 'RUNNING') AND (HOSTNAME = ? OR UPDATED_TIME < ?)",
+            host, ts(Instant.now()), job.getId(), host, ts(staleBefore)) == 1;
+    }
+
+    private TerminateJob map(ResultSet rs) throws SQLException {
+        TerminateJob job = new TerminateJob(rs.getString("JOB_ID"), rs.getString("USERNAME"), rs.getString("REASON"),
+            rs.getInt("HOURS"), rs.getString("ACTION"), rs.getString("PROC_DEF_KEY"), instant(rs, "CUTOFF_TIME"),
+            instant(rs, "CREATED_TIME"));
+        job.restore(TerminateJob.Status.valueOf(rs.getString("STATUS")), rs.getLong("TOTAL_COUNT"),
+            rs.getLong("DONE_COUNT"), rs.getLong("FAILED_COUNT"), rs.getLong("SKIPPED_COUNT"),
+            instant(rs, "LAST_START_TIME"), rs.getString("LAST_PID"), instant(rs, "STARTED_TIME"), rs.getString("ERROR"));
+        if (rs.getInt("CANCEL_REQUESTED") == 1) {
+            job.requestCancel();
+        }
+        return job;
+    }
+
+    private static Instant instant(ResultSet rs, String column) throws SQLException {
+        Timestamp value = rs.getTimestamp(column);
+        return value == null ? null : value.toInstant();
+    }
+
+    private static Timestamp ts(Instant instant) {
+        return instant == null ? null : Timestamp.from(instant);
+    }
+
+    private static String truncate(String value) {
+        return value == null || value.length() <= 1024 ? value : value.substring(0, 1024);
+    }
+}
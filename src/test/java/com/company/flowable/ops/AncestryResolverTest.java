@@ -0,0 +1,59 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.SQLException;
+import java.sql.SQLSyntaxErrorException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+public class AncestryResolverTest {
+
+    @Test
+    void foldsAncestorRowsIntoParentRootAndDepth() {
+        List<ExecutionMapper.AncestorRow> rows = Arrays.asList(
+            row("leaf", "mid", 1),
+            row("leaf", "top", 3),
+            row("leaf", "upper", 2),
+            row("mid", "upper", 1),
+            row("mid", "top", 2));
+
+        Map<String, AncestryResolver.Ancestry> result =
+            AncestryResolver.fold(Arrays.asList("leaf", "mid", "top"), rows);
+
+        assertEquals("mid", result.get("leaf").getParentPid());
+        assertEquals("top", result.get("leaf").getRootPid());
+        assertEquals(3, result.get("leaf").getDepth());
+        assertEquals("upper", result.get("mid").getParentPid());
+        assertEquals(2, result.get("mid").getDepth());
+        assertNull(result.get("top").getParentPid());
+        assertEquals("top", result.get("top").getRootPid());
+        assertEquals(0, result.get("top").getDepth());
+    }
+
+    @Test
+    void fallsBackOnlyForRejectedStatements() {
+        assertTrue(AncestryResolver.isUnsupportedSql(
+            new RuntimeException("wrapped", new SQLSyntaxErrorException("ORA-00905: missing keyword"))));
+        assertTrue(AncestryResolver.isUnsupportedSql(
+            new RuntimeException("wrapped", new SQLException("syntax error at or near \"RECURSIVE\"", "42601"))));
+        assertFalse(AncestryResolver.isUnsupportedSql(
+            new RuntimeException("wrapped", new SQLTransientConnectionException("connection reset", "08006"))));
+        assertFalse(AncestryResolver.isUnsupportedSql(new IllegalStateException("pool exhausted")));
+    }
+
+    private ExecutionMapper.AncestorRow row(String pid, String ancestor, int depth) {
+        ExecutionMapper.AncestorRow row = new ExecutionMapper.AncestorRow();
+        row.setProcessInstanceId(pid);
+        row.setAncestorId(ancestor);
+        row.setDepth(depth);
+        return row;
+    }
+}
@@ -0,0 +1,346 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.flowable.common.engine.impl.cmd.CustomSqlExecution;
+import org.flowable.engine.HistoryService;
+import org.flowable.engine.IdentityService;
+import org.flowable.engine.ManagementService;
+import org.flowable.engine.RuntimeService;
+import org.flowable.engine.TaskService;
+import org.flowable.engine.history.HistoricProcessInstance;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.engine.runtime.ProcessInstanceQuery;
+import org.flowable.idm.api.User;
+import org.flowable.idm.api.UserQuery;
+import org.flowable.task.api.Task;
+import org.flowable.task.api.TaskQuery;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class CandidateProjectionParityTest {
+    private final Instant now = Instant.parse("2024-01-10T12:00:00Z");
+    private final Instant cutoff = now.minus(Duration.ofHours(6));
+
+    @Test
+    void nativeProjectionBuildsSameCandidatesAsApiPath() {
+        List<Candidate> api = buildWithApi();
+        List<Candidate> projected = NativeSqlCandidateProjection.assemble(projectionRows(), now).getCandidates();
+
+        assertEquals(2, api.size());
+        assertEquals(api.size(), projected.size());
+        for (int i = 0; i < api.size(); i++) {
+            assertSameCandidate(api.get(i), projected.get(i));
+        }
+    }
+
+    @Test
+    void suspendedInstanceStillAdvancesCursor() {
+        CandidatePage page = NativeSqlCandidateProjection.assemble(projectionRows(), now);
+        assertEquals(3, page.getRowCount());
+        assertEquals("300", page.getCursor().getLastId());
+    }
+
+    @Test
+    void buildSqlUnionBranchesShareColumnLayout() {
+        List<Object> params = new ArrayList<>();
+        String sql = projection().buildSql(cutoff, now, filteredCriteria(), ScanPartition.of(1, 4, ScanPartition.Function.MOD),
+            ScanCursor.after(Date.from(cutoff), "100"), 50, params);
+
+        List<List<String>> branches = selectLists(sql);
+
+        assertEquals(3, branches.size());
+        assertEquals(Arrays.asList("ROW_KIND_", "PID_", "PROC_DEF_ID_", "PROC_DEF_KEY_", "START_TIME_", "START_USER_ID_",
+            "ACTIVE_", "PARENT_PID_", "FIRST_", "LAST_", "EMAIL_", "JOB_COUNT_", "OVERDUE_JOB_COUNT_", "TIMER_COUNT_",
+            "OVERDUE_TIMER_COUNT_", "DETAIL_ID_", "DETAIL_NAME_", "DETAIL_ASSIGNEE_", "DETAIL_TIME_"), aliases(branches.get(0)));
+        List<String> tasks = branches.get(1);
+        assertEquals(19, tasks.size());
+        assertEquals("'" + NativeSqlCandidateProjection.KIND_TASK + "'", tasks.get(0));
+        assertEquals("T.PROC_INST_ID_", tasks.get(1));
+        assertEquals(Arrays.asList("T.ID_", "T.NAME_", "T.ASSIGNEE_", "T.CREATE_TIME_"), tasks.subList(15, 19));
+        List<String> activities = branches.get(2);
+        assertEquals(19, activities.size());
+        assertEquals("'" + NativeSqlCandidateProjection.KIND_ACTIVITY + "'", activities.get(0));
+        assertEquals("E.PROC_INST_ID_", activities.get(1));
+        assertEquals(Arrays.asList("E.ID_", "E.ACT_ID_"), activities.subList(15, 17));
+    }
+
+    @Test
+    void buildSqlBindsOneParameterPerPlaceholder() {
+        List<Object> plain = new ArrayList<>();
+        String plainSql = projection().buildSql(cutoff, now, new FilterCriteria(), ScanPartition.all(), ScanCursor.start(), 50, plain);
+        assertEquals(placeholders(plainSql), plain.size());
+
+        List<Object> filtered = new ArrayList<>();
+        String filteredSql = projection().buildSql(cutoff, now, filteredCriteria(), ScanPartition.of(1, 4, ScanPartition.Function.MOD),
+            ScanCursor.after(Date.from(cutoff), "100"), 50, filtered);
+        assertEquals(placeholders(filteredSql), filtered.size());
+        assertEquals(50, filtered.get(filtered.size() - 3));
+    }
+
+    private NativeSqlCandidateProjection projection() {
+        OpsCleanupProperties props = new OpsCleanupProperties();
+        props.setAllowProcDefKeys(Arrays.asList("orderFlow", "subFlow"));
+        props.setDenyProcDefKeys(Collections.singletonList("legacyFlow"));
+        return new NativeSqlCandidateProjection(null, props);
+    }
+
+    private FilterCriteria filteredCriteria() {
+        FilterCriteria criteria = new FilterCriteria();
+        criteria.setProcDefKey("orderFlow");
+        criteria.setStarterUserId("alice");
+        criteria.setHasTasks(Boolean.TRUE);
+        return criteria;
+    }
+
+    private static int placeholders(String sql) {
+        int count = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Select lists of the statement's UNION ALL branches after the PAGE_ CTE, split on top-level
+     * commas.
+     */
+    private static List<List<String>> selectLists(String sql) {
+        int depth = 0;
+        int body = -1;
+        for (int i = sql.indexOf('('); i < sql.length(); i++) {
+            if (sql.charAt(i) == '(') {
+                depth++;
+            } else if (sql.charAt(i) == ')' && --depth == 0) {
+                body = i + 1;
+                break;
+            }
+        }
+        List<List<String>> branches = new ArrayList<>();
+        for (String branch : sql.substring(body).split(" UNION ALL ")) {
+            String select = branch.trim().substring("SELECT ".length());
+            List<String> columns = new ArrayList<>();
+            depth = 0;
+            int start = 0;
+            for (int i = 0; i < select.length(); i++) {
+                char c = select.charAt(i);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                } else if (depth == 0 && c == ',') {
+                    columns.add(select.substring(start, i).trim());
+                    start = i + 1;
+                } else if (depth == 0 && select.startsWith(" FROM ", i)) {
+                    columns.add(select.substring(start, i).trim());
+                    break;
+                }
+            }
+            branches.add(columns);
+        }
+        return branches;
+    }
+
+    private static List<String> aliases(List<String> columns) {
+        List<String> aliases = new ArrayList<>();
+        for (String column : columns) {
+            int as = column.lastIndexOf(" AS ");
+            String name = as >= 0 ? column.substring(as + 4) : column.substring(column.lastIndexOf('.') + 1);
+            aliases.add(name.trim());
+        }
+        return aliases;
+    }
+
+    private List<Candidate> buildWithApi() {
+        RuntimeService runtimeService = Mockito.mock(RuntimeService.class);
+        HistoryService historyService = Mockito.mock(HistoryService.class);
+        TaskService taskService = Mockito.mock(TaskService.class);
+        ManagementService managementService = Mockito.mock(ManagementService.class);
+        IdentityService identityService = Mockito.mock(IdentityService.class);
+
+        ProcessInstanceQuery piq = Mockito.mock(ProcessInstanceQuery.class, Mockito.RETURNS_SELF);
+        when(runtimeService.createProcessInstanceQuery()).thenReturn(piq);
+        // Build the instance mocks before stubbing list(); nested when() calls leave the stubbing unfinished.
+        ProcessInstance instance100 = processInstance("100");
+        ProcessInstance instance200 = processInstance("200");
+        when(piq.list()).thenReturn(Arrays.asList(instance100, instance200));
+
+        List<ExecutionMapper.ExecutionRow> executions = Arrays.asList(
+            execution("100", "100", null, null),
+            execution("101", "100", "userTask1", null),
+            execution("102", "100", "userTask2", null),
+            execution("103", "100", "callSub", null),
+            execution("200", "200", null, "103"),
+            execution("201", "200", "wait1", null));
+        ExecutionMapper.AncestorRow parent = new ExecutionMapper.AncestorRow();
+        parent.setProcessInstanceId("200");
+        parent.setAncestorId("100");
+        parent.setDepth(1);
+        ExecutionMapper executionMapper = Mockito.mock(ExecutionMapper.class);
+        when(executionMapper.selectByProcessInstanceIds(any())).thenReturn(executions);
+        when(executionMapper.selectAncestors(any(), anyInt())).thenReturn(Collections.singletonList(parent));
+        IdentityLinkMapper identityLinkMapper = Mockito.mock(IdentityLinkMapper.class);
+        when(identityLinkMapper.selectStarterLinks(any())).thenReturn(Collections.emptyList());
+        when(managementService.executeCustomSql(any())).thenAnswer(invocation -> {
+            CustomSqlExecution<Object, ?> execution = invocation.getArgument(0);
+            return execution.execute(IdentityLinkMapper.class.equals(execution.getMapperClass()) ? identityLinkMapper : executionMapper);
+        });
+
+        TaskQuery tq = Mockito.mock(TaskQuery.class, Mockito.RETURNS_SELF);
+        when(taskService.createTaskQuery()).thenReturn(tq);
+        Task review = task("t1", "100", "Review", "bob", now.minus(Duration.ofHours(10)));
+        Task approve = task("t2", "100", "Approve", null, now.minus(Duration.ofHours(2)));
+        when(tq.list()).thenReturn(Arrays.asList(review, approve));
+
+        UserQuery uq = Mockito.mock(UserQuery.class, Mockito.RETURNS_SELF);
+        when(identityService.createUserQuery()).thenReturn(uq);
+        User alice = Mockito.mock(User.class);
+        when(alice.getId()).thenReturn("alice");
+        when(alice.getFirstName()).thenReturn("Alice");
+        when(alice.getLastName()).thenReturn("Smith");
+        when(alice.getEmail()).thenReturn("alice@example.com");
+        when(uq.list()).thenReturn(Collections.singletonList(alice));
+
+        JobCountStrategy jobCounts = (ids, at, data) -> {
+            data.jobCountByProcessId.put("100", 1);
+            data.overdueJobCountByProcessId.put("100", 1);
+            data.timerCountByProcessId.put("100", 2);
+            data.overdueTimerCountByProcessId.put("100", 1);
+            data.timerCountByProcessId.put("200", 1);
+        };
+
+        CleanupScanner scanner = new CleanupScanner(new CleanupConfig(), runtimeService, historyService, taskService,
+            managementService, identityService, jobCounts, null, null, null);
+        List<HistoricProcessInstance> page = Arrays.asList(
+            historic("100", "orderFlow", 48, "alice"),
+            historic("200", "subFlow", 30, null),
+            historic("300", "orderFlow", 20, "alice"));
+        return scanner.buildCandidates(page, cutoff, now, null);
+    }
+
+    private List<NativeSqlCandidateProjection.ProjectionRow> projectionRows() {
+        List<NativeSqlCandidateProjection.ProjectionRow> rows = new ArrayList<>();
+        NativeSqlCandidateProjection.ProjectionRow p100 = processRow("100", "orderFlow", 48, "alice", true);
+        p100.firstName = "Alice";
+        p100.lastName = "Smith";
+        p100.email = "alice@example.com";
+        p100.jobCount = 1;
+        p100.overdueJobCount = 1;
+        p100.timerCount = 2;
+        p100.overdueTimerCount = 1;
+        NativeSqlCandidateProjection.ProjectionRow p200 = processRow("200", "subFlow", 30, null, true);
+        p200.parentPid = "100";
+        p200.timerCount = 1;
+        NativeSqlCandidateProjection.ProjectionRow p300 = processRow("300", "orderFlow", 20, "alice", false);
+        rows.add(detailRow(NativeSqlCandidateProjection.KIND_TASK, "100", "t2", "Approve", null, now.minus(Duration.ofHours(2))));
+        rows.add(p300);
+        rows.add(detailRow(NativeSqlCandidateProjection.KIND_ACTIVITY, "200", "201", "wait1", null, null));
+        rows.add(p100);
+        rows.add(detailRow(NativeSqlCandidateProjection.KIND_ACTIVITY, "100", "101", "userTask1", null, null));
+        rows.add(detailRow(NativeSqlCandidateProjection.KIND_TASK, "100", "t1", "Review", "bob", now.minus(Duration.ofHours(10))));
+        rows.add(detailRow(NativeSqlCandidateProjection.KIND_ACTIVITY, "100", "103", "callSub", null, null));
+        rows.add(p200);
+        rows.add(detailRow(NativeSqlCandidateProjection.KIND_ACTIVITY, "100", "102", "userTask2", null, null));
+        return rows;
+    }
+
+    private NativeSqlCandidateProjection.ProjectionRow processRow(String pid, String key, int ageHours, String starter, boolean active) {
+        NativeSqlCandidateProjection.ProjectionRow row = new NativeSqlCandidateProjection.ProjectionRow();
+        row.kind = NativeSqlCandidateProjection.KIND_PROCESS;
+        row.processInstanceId = pid;
+        row.processDefinitionId = key + ":1:5";
+        row.processDefinitionKey = key;
+        row.startTime = now.minus(Duration.ofHours(ageHours));
+        row.startUserId = starter;
+        row.active = active;
+        return row;
+    }
+
+    private NativeSqlCandidateProjection.ProjectionRow detailRow(String kind, String pid, String id, String name, String assignee, Instant time) {
+        NativeSqlCandidateProjection.ProjectionRow row = new NativeSqlCandidateProjection.ProjectionRow();
+        row.kind = kind;
+        row.processInstanceId = pid;
+        row.detailId = id;
+        row.detailName = name;
+        row.detailAssignee = assignee;
+        row.detailTime = time;
+        return row;
+    }
+
+    private HistoricProcessInstance historic(String pid, String key, int ageHours, String starter) {
+        HistoricProcessInstance historic = Mockito.mock(HistoricProcessInstance.class);
+        when(historic.getId()).thenReturn(pid);
+        when(historic.getProcessDefinitionId()).thenReturn(key + ":1:5");
+        when(historic.getProcessDefinitionKey()).thenReturn(key);
+        when(historic.getStartTime()).thenReturn(Date.from(now.minus(Duration.ofHours(ageHours))));
+        when(historic.getStartUserId()).thenReturn(starter);
+        return historic;
+    }
+
+    private ProcessInstance processInstance(String pid) {
+        ProcessInstance instance = Mockito.mock(ProcessInstance.class);
+        when(instance.getId()).thenReturn(pid);
+        return instance;
+    }
+
+    private ExecutionMapper.ExecutionRow execution(String id, String pid, String activityId, String superExecutionId) {
+        ExecutionMapper.ExecutionRow execution = new ExecutionMapper.ExecutionRow();
+        execution.setId(id);
+        execution.setProcessInstanceId(pid);
+        execution.setActivityId(activityId);
+        execution.setSuperExecutionId(superExecutionId);
+        return execution;
+    }
+
+    private Task task(String id, String pid, String name, String assignee, Instant created) {
+        Task task = Mockito.mock(Task.class);
+        when(task.getId()).thenReturn(id);
+        when(task.getProcessInstanceId()).thenReturn(pid);
+        when(task.getName()).thenReturn(name);
+        when(task.getAssignee()).thenReturn(assignee);
+        when(task.getCreateTime()).thenReturn(Date.from(created));
+        return task;
+    }
+
+    private void assertSameCandidate(Candidate expected, Candidate actual) {
+        String pid = expected.getProcessInstanceId();
+        assertEquals(expected.getProcessInstanceId(), actual.getProcessInstanceId());
+        assertEquals(expected.getProcessDefinitionId(), actual.getProcessDefinitionId(), pid);
+        assertEquals(expected.getProcessDefinitionKey(), actual.getProcessDefinitionKey(), pid);
+        assertEquals(expected.getStartTime(), actual.getStartTime(), pid);
+        assertEquals(expected.getHoursRunning(), actual.getHoursRunning(), pid);
+        assertEquals(expected.getStarterUserId(), actual.getStarterUserId(), pid);
+        assertEquals(expected.getStarterName(), actual.getStarterName(), pid);
+        assertEquals(expected.getStarterEmail(), actual.getStarterEmail(), pid);
+        assertEquals(expected.isSubprocess(), actual.isSubprocess(), pid);
+        assertEquals(expected.getParentPid(), actual.getParentPid(), pid);
+        assertEquals(expected.getActiveActivityIds(), actual.getActiveActivityIds(), pid);
+        assertEquals(expected.getJobCount(), actual.getJobCount(), pid);
+        assertEquals(expected.getOverdueJobCount(), actual.getOverdueJobCount(), pid);
+        assertEquals(expected.getTimerCount(), actual.getTimerCount(), pid);
+        assertEquals(expected.getOverdueTimerCount(), actual.getOverdueTimerCount(), pid);
+        assertEquals(expected.getTasks().size(), actual.getTasks().size(), pid);
+        for (int i = 0; i < expected.getTasks().size(); i++) {
+            TaskSummary e = expected.getTasks().get(i);
+            TaskSummary a = actual.getTasks().get(i);
+            assertEquals(e.getTaskId(), a.getTaskId(), pid);
+            assertEquals(e.getName(), a.getName(), pid);
+            assertEquals(e.getAssignee(), a.getAssignee(), pid);
+            assertEquals(e.getCreateTime(), a.getCreateTime(), pid);
+            assertEquals(e.getAgeHours(), a.getAgeHours(), pid);
+        }
+    }
+}
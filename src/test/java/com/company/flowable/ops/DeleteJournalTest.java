@@ -0,0 +1,119 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class DeleteJournalTest {
+
+    @Test
+    void replaysPlanAndSkipsCompletedDeletes() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        try (DeleteJournal journal = DeleteJournal.open(dir, "run-1", 0, 2, 1000)) {
+            journal.plan(Arrays.asList(candidate("a", null), candidate("b", "a"), candidate("c", null)));
+            journal.started("b");
+            journal.finished("b", true);
+            journal.started("a");
+            journal.finished("a", false);
+            journal.started("c");
+        }
+
+        DeleteJournal.Replay replay = DeleteJournal.replay(dir, "run-1");
+
+        assertTrue(replay.isPlanComplete());
+        assertEquals(3, replay.getPlannedCount());
+        assertEquals(1, replay.getCompletedCount());
+        assertEquals(1, replay.getFailedCount());
+        assertEquals(1, replay.getInDoubtCount());
+        List<Candidate> pending = replay.pending();
+        assertEquals(Arrays.asList("a", "c"), pids(pending));
+        Candidate a = pending.get(0);
+        assertEquals("proc", a.getProcessDefinitionKey());
+        assertEquals(Instant.ofEpochMilli(1_700_000_000_000L), a.getStartTime());
+        assertEquals(Classification.SAFE_TO_DELETE, a.getClassification());
+        assertEquals(RecommendedAction.TERMINATE, a.getRecommendedAction());
+        assertNull(a.getParentPid());
+    }
+
+    @Test
+    void dropsTornTailAndAppendsAfterTheLastIntactEntry() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        try (DeleteJournal journal = DeleteJournal.open(dir, "run-2", 0, 1, 0)) {
+            journal.plan(Arrays.asList(candidate("a", null), candidate("b", null)));
+            journal.started("a");
+        }
+        Path file = DeleteJournal.pathFor(dir, "run-2");
+        long intact = Files.size(file);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            // Half-written entry: a length prefix with no body.
+            channel.write(ByteBuffer.wrap(new byte[] {0, 0, 0, 40, 3}));
+        }
+
+        DeleteJournal.Replay replay = DeleteJournal.replay(dir, "run-2");
+        assertEquals(intact, replay.getValidLength());
+        try (DeleteJournal journal = DeleteJournal.open(dir, "run-2", replay.getValidLength(), 1, 0)) {
+            journal.finished("a", true);
+        }
+
+        replay = DeleteJournal.replay(dir, "run-2");
+        assertEquals(Arrays.asList("b"), pids(replay.pending()));
+        assertEquals(0, replay.getInDoubtCount());
+    }
+
+    @Test
+    void planCutOffBeforePlanEndIsIncomplete() throws IOException {
+        Path dir = Files.createTempDirectory("journal");
+        List<Candidate> candidates = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            candidates.add(candidate("pid-" + i, null));
+        }
+        try (DeleteJournal journal = DeleteJournal.open(dir, "run-3", 0, 1, 0)) {
+            journal.plan(candidates);
+        }
+        Path file = DeleteJournal.pathFor(dir, "run-3");
+        assertEquals(2000, DeleteJournal.replay(dir, "run-3").getPlannedCount());
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            // Drop the PLAN_END entry: [int length][byte type][int count][int crc32].
+            channel.truncate(Files.size(file) - 13);
+        }
+
+        DeleteJournal.Replay replay = DeleteJournal.replay(dir, "run-3");
+
+        assertEquals(2000, replay.getPlannedCount());
+        assertFalse(replay.isPlanComplete());
+    }
+
+    private static List<String> pids(List<Candidate> candidates) {
+        List<String> pids = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            pids.add(candidate.getProcessInstanceId());
+        }
+        return pids;
+    }
+
+    private static Candidate candidate(String pid, String parentPid) {
+        Candidate candidate = new Candidate();
+        candidate.setProcessInstanceId(pid);
+        candidate.setProcessDefinitionKey("proc");
+        candidate.setStartTime(Instant.ofEpochMilli(1_700_000_000_000L));
+        candidate.setParentPid(parentPid);
+        candidate.setDepth(parentPid == null ? 0 : 1);
+        candidate.setClassification(Classification.SAFE_TO_DELETE);
+        candidate.setRecommendedAction(RecommendedAction.TERMINATE);
+        return candidate;
+    }
+}
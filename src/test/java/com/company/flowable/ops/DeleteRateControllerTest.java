@@ -0,0 +1,53 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class DeleteRateControllerTest {
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Test
+    void increasesWhileDeletesStayFastAndStopsAtTheBounds() throws InterruptedException {
+        DeleteRateController controller = new DeleteRateController(1, 4, 1000, 5000, 1000, 0.5, 1000);
+
+        for (int i = 0; i < 200; i++) {
+            controller.acquire();
+            controller.release(FAST, true);
+        }
+
+        assertEquals(4, controller.getConcurrency());
+        assertEquals(5000, controller.getPerSecond(), 0.001);
+    }
+
+    @Test
+    void decreasesOncePerLatencyTargetOnConflicts() throws InterruptedException {
+        DeleteRateController controller = new DeleteRateController(1, 8, 100, 1000, 1000, 0.5, 60000);
+        for (int i = 0; i < 100; i++) {
+            controller.acquire();
+            controller.release(FAST, true);
+        }
+        double before = controller.getPerSecond();
+
+        controller.onConflict();
+        controller.onConflict();
+
+        assertEquals(Math.max(100, before * 0.5), controller.getPerSecond(), 0.001);
+        assertEquals(1L, controller.getStatus().get("decreases"));
+    }
+
+    @Test
+    void slowDeletesNeverGoBelowTheMinimum() throws InterruptedException {
+        DeleteRateController controller = new DeleteRateController(2, 4, 1000, 2000, 10, 0.1, 1);
+
+        controller.acquire();
+        controller.release(TimeUnit.SECONDS.toNanos(1), true);
+
+        assertEquals(2, controller.getConcurrency());
+        assertEquals(1000, controller.getPerSecond(), 0.001);
+        assertTrue(controller.getStatus().containsKey("inFlight"));
+    }
+}
@@ -0,0 +1,161 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+public class DeleteSchedulerTest {
+
+    @Test
+    void deletesChildrenBeforeParents() {
+        List<Candidate> candidates = Arrays.asList(
+            candidate("root", null, null),
+            candidate("mid", "root", "root"),
+            candidate("leafA", "mid", "root"),
+            candidate("leafB", "mid", "root"),
+            // Direct parent not in the set: ordered under its root instead.
+            candidate("orphan", "missing", "root"));
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        new DeleteScheduler("test-delete", 4, 0).run(candidates, c -> order.add(c.getProcessInstanceId()));
+
+        assertEquals(5, order.size());
+        assertTrue(order.indexOf("leafA") < order.indexOf("mid"));
+        assertTrue(order.indexOf("leafB") < order.indexOf("mid"));
+        assertTrue(order.indexOf("mid") < order.indexOf("root"));
+        assertTrue(order.indexOf("orphan") < order.indexOf("root"));
+    }
+
+    @Test
+    void runsIndependentTreesConcurrently() {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        List<Candidate> candidates = Arrays.asList(candidate("a", null, null), candidate("b", null, null));
+
+        new DeleteScheduler("test-delete", 2, 0).run(candidates, c -> {
+            bothStarted.countDown();
+            try {
+                assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        assertEquals(0, bothStarted.getCount());
+    }
+
+    @Test
+    void failedChildStillReleasesParent() {
+        List<Candidate> candidates = Arrays.asList(candidate("parent", null, null), candidate("child", "parent", "parent"));
+        List<String> order = new ArrayList<>();
+
+        new DeleteScheduler("test-delete", 1, 0).run(candidates, c -> {
+            order.add(c.getProcessInstanceId());
+            if ("child".equals(c.getProcessInstanceId())) {
+                throw new IllegalStateException("boom");
+            }
+        });
+
+        assertEquals(Arrays.asList("child", "parent"), order);
+    }
+
+    @Test
+    void interruptedRunReturnsCandidatesThatWereNotAttempted() {
+        Candidate child = candidate("child", "parent", "parent");
+        child.setDepth(1);
+        List<Candidate> candidates = Arrays.asList(candidate("parent", null, null), child, candidate("other", null, null));
+        List<String> order = new ArrayList<>();
+
+        List<Candidate> skipped = new DeleteScheduler("test-delete", 1, 0).run(candidates, c -> {
+            order.add(c.getProcessInstanceId());
+            Thread.currentThread().interrupt();
+        });
+        Thread.interrupted();
+
+        assertEquals(Collections.singletonList("child"), order);
+        List<String> pids = new ArrayList<>();
+        for (Candidate candidate : skipped) {
+            pids.add(candidate.getProcessInstanceId());
+        }
+        assertEquals(Arrays.asList("other", "parent"), pids);
+    }
+
+    @Test
+    void batchesKeepTreesTogetherWithChildrenFirst() {
+        Candidate child = candidate("child", "parent", "parent");
+        child.setDepth(1);
+        List<Candidate> candidates = Arrays.asList(
+            candidate("a", null, null), candidate("parent", null, null), child, candidate("b", null, null));
+        List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        new DeleteScheduler("test-delete", 1, 0).runBatches(candidates, 2, batch -> {
+            List<String> pids = new ArrayList<>();
+            for (Candidate candidate : batch) {
+                pids.add(candidate.getProcessInstanceId());
+            }
+            batches.add(pids);
+        });
+
+        assertEquals(Arrays.asList(
+            Collections.singletonList("a"), Arrays.asList("child", "parent"), Collections.singletonList("b")), batches);
+    }
+
+    @Test
+    void oversizedTreeIsSplitIntoOrderedBatchesDeepestFirst() {
+        Candidate mid = candidate("mid", "root", "root");
+        mid.setDepth(1);
+        Candidate leafA = candidate("leafA", "mid", "root");
+        leafA.setDepth(2);
+        Candidate leafB = candidate("leafB", "mid", "root");
+        leafB.setDepth(2);
+        List<Candidate> candidates = Arrays.asList(candidate("root", null, null), mid, leafA, leafB, candidate("other", null, null));
+        List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+
+        new DeleteScheduler("test-delete", 1, 0).runBatches(candidates, 2, batch -> {
+            List<String> pids = new ArrayList<>();
+            for (Candidate candidate : batch) {
+                pids.add(candidate.getProcessInstanceId());
+            }
+            batches.add(pids);
+        });
+
+        assertEquals(Arrays.asList(
+            Arrays.asList("leafA", "leafB"), Arrays.asList("mid", "root"), Collections.singletonList("other")), batches);
+    }
+
+    @Test
+    void interruptedBatchRunReturnsBatchesThatWereNotStarted() {
+        List<Candidate> candidates = Arrays.asList(candidate("a", null, null), candidate("b", null, null),
+            candidate("c", null, null));
+        List<String> deleted = new ArrayList<>();
+
+        List<Candidate> skipped = new DeleteScheduler("test-delete", 1, 0).runBatches(candidates, 1, batch -> {
+            deleted.add(batch.get(0).getProcessInstanceId());
+            Thread.currentThread().interrupt();
+        });
+        Thread.interrupted();
+
+        assertEquals(Collections.singletonList("a"), deleted);
+        List<String> pids = new ArrayList<>();
+        for (Candidate candidate : skipped) {
+            pids.add(candidate.getProcessInstanceId());
+        }
+        assertEquals(Arrays.asList("b", "c"), pids);
+    }
+
+    private Candidate candidate(String pid, String parentPid, String rootPid) {
+        Candidate candidate = new Candidate();
+        candidate.setProcessInstanceId(pid);
+        candidate.setParentPid(parentPid);
+        candidate.setSubprocess(parentPid != null);
+        candidate.setRootPid(rootPid == null ? pid : rootPid);
+        return candidate;
+    }
+}
@@ -0,0 +1,59 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class IdListQueryTest {
+
+    @Test
+    void everyBatchSizeMapsToOneOfSixStatements() {
+        IdListQuery idListQuery = new IdListQuery(1000);
+        Set<Integer> sizes = new HashSet<>();
+        for (int count = 1; count <= 1000; count++) {
+            sizes.add(idListQuery.bucketSize(count));
+        }
+        assertEquals(new HashSet<>(Arrays.asList(1, 8, 32, 128, 512, 1000)), sizes);
+    }
+
+    @Test
+    void padsWithTheLastIdAndCapsBucketsAtTheLimit() {
+        IdListQuery idListQuery = new IdListQuery(100);
+
+        List<String> padded = idListQuery.pad(Arrays.asList("A", "B", "C"));
+
+        assertEquals(8, padded.size());
+        assertEquals(Arrays.asList("A", "B", "C", "C", "C", "C", "C", "C"), padded);
+        assertEquals(100, idListQuery.maxBatchSize());
+        assertEquals(100, idListQuery.bucketSize(33));
+    }
+
+    @Test
+    void countsExecutionsAndDistinctStatementsPerLookup() {
+        IdListQuery idListQuery = new IdListQuery(1000);
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            ids.add("pi" + i);
+        }
+        for (int run = 0; run < 3; run++) {
+            for (List<String> batch : idListQuery.batches(ids)) {
+                List<String> padded = idListQuery.pad(batch);
+                idListQuery.recordExecution("jobCounts", IdListQuery.placeholders(padded.size()), batch.size(),
+                    padded.size());
+            }
+        }
+
+        IdListQuery.StatementStats stats = idListQuery.getStatistics().get("jobCounts");
+        assertEquals(6L, stats.getExecutions());
+        assertEquals(2, stats.getParses());
+        assertEquals(3600L, stats.getIds());
+        assertEquals(3L * 312, stats.getPaddedIds());
+        assertEquals("(#{id0},#{id1})", IdListQuery.namedPlaceholders("id", 2));
+    }
+}
@@ -0,0 +1,49 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class IdSetBindingTest {
+
+    @Test
+    void tempTableKeepsStatementTextIndependentOfBatchSize() throws SQLException {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        IdSetBinding binding = new IdSetBinding.TempTable("OPS_ID_SET");
+
+        IdSetBinding.IdSet small = binding.prepare(connection, List.of("A"));
+        IdSetBinding.IdSet large = binding.prepare(connection, List.of("A", "B", "B", "C"));
+
+        assertEquals(small.sql(), large.sql());
+        assertEquals("(SELECT ID_ FROM OPS_ID_SET)", large.sql());
+        assertEquals(3, large.bind(statement, 3));
+        verify(statement, times(4)).addBatch();
+    }
+
+    @Test
+    void inListIsTheDefaultAndPadsToTheNextBucket() throws SQLException {
+        OpsCleanupProperties.NativeSql nativeSql = new OpsCleanupProperties().getNativeSql();
+        IdSetBinding binding = IdSetBinding.create(nativeSql, new IdListQuery(nativeSql.getInClauseLimit()));
+        PreparedStatement statement = mock(PreparedStatement.class);
+
+        IdSetBinding.IdSet set = binding.prepare(null, List.of("A", "B", "C"));
+
+        assertEquals(nativeSql.getInClauseLimit(), binding.maxBatchSize());
+        assertEquals(IdListQuery.placeholders(8), set.sql());
+        assertEquals(10, set.bind(statement, 2));
+        verify(statement).setString(4, "C");
+        verify(statement).setString(9, "C");
+    }
+}
@@ -0,0 +1,122 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class IncrementalScanCacheTest {
+    private final Instant firstScan = Instant.parse("2024-01-10T12:00:00Z");
+    private final Instant refresh = firstScan.plus(Duration.ofHours(2));
+
+    @Test
+    void deltaRefreshDropsEndedReagesUnchangedAndAppendsEntrants() {
+        CleanupScanner scanner = Mockito.mock(CleanupScanner.class);
+        List<Collection<String>> reloaded = stubScanner(scanner);
+
+        // The rescan interval is longer than the gap between the two refreshes, so the second is a delta.
+        IncrementalScanCache cache = new IncrementalScanCache(scanner, 4, 1000, Duration.ofHours(3), Duration.ofSeconds(30));
+        FilterCriteria criteria = new FilterCriteria();
+
+        List<Candidate> first = new ArrayList<>();
+        cache.refresh(criteria, 6, firstScan.minus(Duration.ofHours(6)), firstScan, first::add);
+        assertEquals(Arrays.asList("A", "B"), ids(first));
+
+        List<Candidate> second = new ArrayList<>();
+        cache.refresh(criteria, 6, refresh.minus(Duration.ofHours(6)), refresh, second::add);
+
+        assertEquals(Arrays.asList("A", "C"), ids(second));
+        assertEquals(Collections.singletonList(Collections.singletonList("B")), reloaded);
+        assertEquals(12, second.get(0).getHoursRunning());
+        assertEquals(7, second.get(0).getTasks().get(0).getAgeHours());
+        verify(scanner, times(1)).scanWithFilters(any(Instant.class), any(Instant.class), any(FilterCriteria.class),
+            any(CandidateSink.class));
+    }
+
+    @Test
+    void refreshAfterTheRescanIntervalScansInFull() {
+        CleanupScanner scanner = Mockito.mock(CleanupScanner.class);
+        List<Collection<String>> reloaded = stubScanner(scanner);
+
+        IncrementalScanCache cache = new IncrementalScanCache(scanner, 4, 1000, Duration.ofMinutes(30), Duration.ofSeconds(30));
+        FilterCriteria criteria = new FilterCriteria();
+        cache.refresh(criteria, 6, firstScan.minus(Duration.ofHours(6)), firstScan, candidate -> { });
+
+        List<Candidate> second = new ArrayList<>();
+        cache.refresh(criteria, 6, refresh.minus(Duration.ofHours(6)), refresh, second::add);
+
+        assertEquals(Arrays.asList("A", "B"), ids(second));
+        assertEquals(Collections.emptyList(), reloaded);
+        verify(scanner, times(2)).scanWithFilters(any(Instant.class), any(Instant.class), any(FilterCriteria.class),
+            any(CandidateSink.class));
+        verify(scanner, never()).findChangedProcessIds(any(Instant.class), any(Instant.class));
+    }
+
+    /**
+     * Full scans return A and B; delta scans find C as a new entrant and B as changed, reloading to
+     * nothing (it ended). Returns the id lists passed to {@code reloadCandidates}.
+     */
+    private List<Collection<String>> stubScanner(CleanupScanner scanner) {
+        Candidate a = candidate("A", firstScan.minus(Duration.ofHours(10)), firstScan.minus(Duration.ofHours(5)));
+        Candidate b = candidate("B", firstScan.minus(Duration.ofHours(9)), null);
+        Candidate c = candidate("C", refresh.minus(Duration.ofHours(7)), null);
+        when(scanner.scanWithFilters(any(Instant.class), any(Instant.class), any(FilterCriteria.class), any(CandidateSink.class)))
+            .thenAnswer(invocation -> {
+                CandidateSink sink = invocation.getArgument(3);
+                sink.accept(a);
+                sink.accept(b);
+                return 2;
+            });
+        when(scanner.scanWithFilters(any(Instant.class), any(Instant.class), any(FilterCriteria.class), any(ScanCursor.class),
+            any(CandidateSink.class)))
+            .thenAnswer(invocation -> {
+                CandidateSink sink = invocation.getArgument(4);
+                sink.accept(c);
+                return 1;
+            });
+        when(scanner.findChangedProcessIds(any(Instant.class), any(Instant.class)))
+            .thenReturn(new HashSet<>(Arrays.asList("B", "untracked")));
+        List<Collection<String>> reloaded = new ArrayList<>();
+        when(scanner.reloadCandidates(any(), any(Instant.class), any(Instant.class), any(FilterCriteria.class)))
+            .thenAnswer(invocation -> {
+                reloaded.add(new ArrayList<>(invocation.<Collection<String>>getArgument(0)));
+                return Collections.emptyList();
+            });
+        return reloaded;
+    }
+
+    private Candidate candidate(String pid, Instant start, Instant taskCreated) {
+        Candidate candidate = new Candidate();
+        candidate.setProcessInstanceId(pid);
+        candidate.setProcessDefinitionKey("orderFlow");
+        candidate.setStartTime(start);
+        candidate.setHoursRunning(Duration.between(start, firstScan).toHours());
+        if (taskCreated != null) {
+            candidate.getTasks().add(new TaskSummary(pid + "-task", "Review", null, taskCreated,
+                Duration.between(taskCreated, firstScan).toHours()));
+        }
+        return candidate;
+    }
+
+    private List<String> ids(List<Candidate> candidates) {
+        List<String> ids = new ArrayList<>();
+        for (Candidate candidate : candidates) {
+            ids.add(candidate.getProcessInstanceId());
+        }
+        return ids;
+    }
+}
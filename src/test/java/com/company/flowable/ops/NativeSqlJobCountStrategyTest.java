@@ -0,0 +1,108 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+public class NativeSqlJobCountStrategyTest {
+
+    @Test
+    void heavyTimerFanOutComesBackAsOneRowPerInstanceAndKind() throws SQLException {
+        OpsCleanupProperties props = new OpsCleanupProperties();
+        props.getNativeSql().setInClauseLimit(2);
+        List<String> statements = new ArrayList<>();
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        when(rs.next()).thenReturn(true, true, false, true, true, false);
+        when(rs.getString("KIND_")).thenReturn(NativeSqlJobCountStrategy.KIND_JOB, NativeSqlJobCountStrategy.KIND_TIMER);
+        when(rs.getString("PID_")).thenReturn("A");
+        when(rs.getInt("TOTAL_")).thenReturn(3, 10_000);
+        when(rs.getInt("OVERDUE_")).thenReturn(1, 9_999);
+        PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        Connection connection = Mockito.mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            return ps;
+        });
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public <T> T execute(ConnectionCallback<T> action) {
+                try {
+                    return action.doInConnection(connection);
+                } catch (SQLException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        };
+        NativeSqlJobCountStrategy strategy = new NativeSqlJobCountStrategy(jdbcTemplate, props.getNativeSql(),
+            new IdListQuery(props.getNativeSql().getInClauseLimit()));
+        CleanupScanner.PrefetchData data = new CleanupScanner.PrefetchData();
+
+        strategy.countJobsAndTimers(List.of("A", "B", "C"), Instant.now(), data);
+
+        assertEquals(2, statements.size());
+        assertTrue(statements.get(1).contains("PROCESS_INSTANCE_ID_ IN (?) GROUP BY"));
+        String sql = statements.get(0);
+        assertTrue(sql.contains(" UNION ALL "));
+        assertTrue(sql.contains("GROUP BY PROCESS_INSTANCE_ID_"));
+        assertTrue(sql.contains("SUM(CASE WHEN DUEDATE_ < ? THEN 1 ELSE 0 END)"));
+        assertTrue(sql.contains("PROCESS_INSTANCE_ID_ IN (?,?)"));
+        assertEquals(10_000, (int) data.timerCountByProcessId.get("A"));
+        assertEquals(9_999, (int) data.overdueTimerCountByProcessId.get("A"));
+        assertEquals(3, (int) data.jobCountByProcessId.get("A"));
+        assertEquals(1, (int) data.overdueJobCountByProcessId.get("A"));
+    }
+
+    @Test
+    void tempTableIdSetIsPreparedOnTheWritePoolDuringAReadScan() throws SQLException {
+        OpsCleanupProperties props = new OpsCleanupProperties();
+        props.getNativeSql().setIdSetMode(OpsCleanupProperties.IdSetMode.TEMP_TABLE);
+        List<String> statements = new ArrayList<>();
+        List<Boolean> readRouting = new ArrayList<>();
+        ResultSet rs = Mockito.mock(ResultSet.class);
+        when(rs.next()).thenReturn(false);
+        PreparedStatement ps = Mockito.mock(PreparedStatement.class);
+        when(ps.executeQuery()).thenReturn(rs);
+        Connection connection = Mockito.mock(Connection.class);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            statements.add(invocation.getArgument(0));
+            return ps;
+        });
+        JdbcTemplate jdbcTemplate = new JdbcTemplate() {
+            @Override
+            public <T> T execute(ConnectionCallback<T> action) {
+                readRouting.add(ReadRouting.isRead());
+                try {
+                    return action.doInConnection(connection);
+                } catch (SQLException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        };
+        NativeSqlJobCountStrategy strategy = new NativeSqlJobCountStrategy(jdbcTemplate, props.getNativeSql(),
+            new IdListQuery(props.getNativeSql().getInClauseLimit()));
+
+        ReadRouting.runRead(() -> strategy.countJobsAndTimers(List.of("A", "B"), Instant.now(),
+            new CleanupScanner.PrefetchData()));
+
+        assertEquals(List.of(false), readRouting);
+        assertTrue(statements.get(0).startsWith("DELETE FROM "));
+        assertTrue(statements.get(1).startsWith("INSERT INTO "));
+        assertFalse(ReadRouting.isRead());
+    }
+}
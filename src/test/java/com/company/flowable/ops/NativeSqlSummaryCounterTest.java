@@ -0,0 +1,107 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+public class NativeSqlSummaryCounterTest {
+    private final Instant now = Instant.parse("2024-01-10T12:00:00Z");
+    private final OpsCleanupProperties props = new OpsCleanupProperties();
+    private final ClassificationService classificationService = new ClassificationService();
+    private final NativeSqlSummaryCounter counter = new NativeSqlSummaryCounter(null, props, classificationService);
+
+    @Test
+    void flagClassificationMatchesClassifierForEveryCandidateShape() {
+        long escalation = props.getTaskEscalationHours();
+        long[][] taskAges = {{}, {0}, {escalation - 1}, {escalation}, {1, escalation + 3}, {-1}};
+        int checked = 0;
+        for (long[] ages : taskAges) {
+            for (int timers = 0; timers <= 2; timers++) {
+                for (int overdueTimers = 0; overdueTimers <= timers; overdueTimers++) {
+                    for (int jobs = 0; jobs <= 2; jobs++) {
+                        for (int overdueJobs = 0; overdueJobs <= jobs; overdueJobs++) {
+                            Candidate candidate = candidate(ages, timers, overdueTimers, jobs, overdueJobs);
+                            RecommendedAction expected = classificationService.classify(candidate, props).getRecommendedAction();
+                            assertEquals(expected, counter.classify(flags(candidate)), "tasks aged " + describe(ages)
+                                + ", timers " + timers + "/" + overdueTimers + ", jobs " + jobs + "/" + overdueJobs);
+                            checked++;
+                        }
+                    }
+                }
+            }
+        }
+        assertTrue(checked > 100);
+    }
+
+    @Test
+    void groupsByEveryFlagAndBindsPlaceholdersInOrder() {
+        FilterCriteria criteria = new FilterCriteria();
+        criteria.setProcDefKey("orderFlow");
+        List<Object> params = new ArrayList<>();
+
+        String sql = counter.buildSql(criteria, now.minus(Duration.ofHours(6)), now, params);
+
+        assertTrue(sql.endsWith("GROUP BY F.OPEN_TASK_, F.STALE_TASK_, F.TIMER_, F.OVERDUE_TIMER_, F.OVERDUE_JOB_"));
+        assertEquals(sql.length() - sql.replace("?", "").length(), params.size());
+        assertEquals("orderFlow", params.get(params.size() - 1));
+    }
+
+    /**
+     * Derives the flags exactly as the aggregate statement does from the runtime rows.
+     */
+    private Set<ScanFilterPushdown.Flag> flags(Candidate candidate) {
+        Set<ScanFilterPushdown.Flag> flags = EnumSet.noneOf(ScanFilterPushdown.Flag.class);
+        Instant staleBefore = now.minus(Duration.ofHours(props.getTaskEscalationHours()));
+        for (TaskSummary task : candidate.getTasks()) {
+            flags.add(ScanFilterPushdown.Flag.OPEN_TASK);
+            if (task.getCreateTime() != null && !task.getCreateTime().isAfter(staleBefore)) {
+                flags.add(ScanFilterPushdown.Flag.STALE_TASK);
+            }
+        }
+        if (candidate.getTimerCount() > 0) {
+            flags.add(ScanFilterPushdown.Flag.TIMER);
+        }
+        if (candidate.getOverdueTimerCount() > 0) {
+            flags.add(ScanFilterPushdown.Flag.OVERDUE_TIMER);
+        }
+        if (candidate.getOverdueJobCount() > 0) {
+            flags.add(ScanFilterPushdown.Flag.OVERDUE_JOB);
+        }
+        return flags;
+    }
+
+    /**
+     * Builds a candidate the way the scanner does; a negative age stands for a task without a
+     * create time.
+     */
+    private Candidate candidate(long[] taskAges, int timers, int overdueTimers, int jobs, int overdueJobs) {
+        Candidate candidate = new Candidate();
+        candidate.setProcessInstanceId("pi");
+        for (long age : taskAges) {
+            Instant created = age < 0 ? null : now.minus(Duration.ofHours(age)).minus(Duration.ofMinutes(1));
+            long ageHours = created == null ? 0 : Duration.between(created, now).toHours();
+            candidate.getTasks().add(new TaskSummary("t" + age, "Task", null, created, ageHours));
+        }
+        candidate.setTimerCount(timers);
+        candidate.setOverdueTimerCount(overdueTimers);
+        candidate.setJobCount(jobs);
+        candidate.setOverdueJobCount(overdueJobs);
+        return candidate;
+    }
+
+    private String describe(long[] ages) {
+        StringBuilder text = new StringBuilder("[");
+        for (long age : ages) {
+            text.append(age).append(' ');
+        }
+        return text.append(']').toString();
+    }
+}
@@ -0,0 +1,95 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class PartitionedScanTest {
+    private final Instant base = Instant.parse("2024-01-10T00:00:00Z");
+
+    @Test
+    void mergesPartitionsIntoSequentialScanOrder() {
+        List<Candidate> all = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            // Several instances share a start time, so the id breaks ties.
+            all.add(candidate(String.format("%05d", (i * 7919) % 1000), base.plusSeconds(i / 3)));
+        }
+        List<Candidate> expected = new ArrayList<>(all);
+        expected.sort(PartitionedScan.SCAN_ORDER);
+
+        for (int count : new int[] {1, 2, 4, 8}) {
+            List<String> merged = new ArrayList<>();
+            try (PartitionedScan scan = new PartitionedScan("test", partitions(count), 3,
+                (partition, sink) -> expected.stream()
+                    .filter(candidate -> Math.abs(candidate.getProcessInstanceId().hashCode()) % count == partition.getIndex())
+                    .forEach(sink::accept))) {
+                assertEquals(500, scan.mergeInto(candidate -> merged.add(candidate.getProcessInstanceId()), Integer.MAX_VALUE));
+            }
+            List<String> ids = new ArrayList<>();
+            expected.forEach(candidate -> ids.add(candidate.getProcessInstanceId()));
+            assertEquals(ids, merged, count + " partitions");
+        }
+    }
+
+    @Test
+    void stopsAtTheLimitAndRethrowsPartitionFailures() {
+        try (PartitionedScan scan = new PartitionedScan("test", partitions(2), 1,
+            (partition, sink) -> {
+                for (int i = 0; i < 1000; i++) {
+                    sink.accept(candidate(partition.getIndex() + "-" + i, base.plusSeconds(i)));
+                }
+            })) {
+            assertEquals(10, scan.mergeInto(candidate -> { }, 10));
+        }
+
+        try (PartitionedScan scan = new PartitionedScan("test", partitions(2), 1,
+            (partition, sink) -> {
+                if (partition.getIndex() == 1) {
+                    throw new IllegalStateException("boom");
+                }
+            })) {
+            assertThrows(IllegalStateException.class, () -> scan.mergeInto(candidate -> { }, 10));
+            assertEquals(0, scan.getEmitted());
+        }
+    }
+
+    @Test
+    void partitionPredicateKeepsOneStatementTextPerScan() {
+        StringBuilder sql = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+        ScanPartition.of(3, 8, ScanPartition.Function.ORA_HASH).appendPredicate(sql, "RES.ID_", (name, value) -> {
+            params.add(value);
+            return "#{" + name + "}";
+        });
+        assertEquals(" AND ORA_HASH(RES.ID_, 7) = #{partitionIndex}", sql.toString());
+        assertEquals(3, (int) params.get(0));
+
+        StringBuilder mod = new StringBuilder();
+        ScanPartition.of(0, 4, ScanPartition.Function.MOD).appendPredicate(mod, "H.ID_", (name, value) -> "?");
+        assertEquals(" AND MOD(TO_NUMBER(H.ID_), 4) = ?", mod.toString());
+
+        StringBuilder whole = new StringBuilder();
+        ScanPartition.all().appendPredicate(whole, "H.ID_", (name, value) -> "?");
+        assertEquals("", whole.toString());
+    }
+
+    private List<ScanPartition> partitions(int count) {
+        List<ScanPartition> partitions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            partitions.add(ScanPartition.of(i, count, ScanPartition.Function.ORA_HASH));
+        }
+        return partitions;
+    }
+
+    private Candidate candidate(String id, Instant startTime) {
+        Candidate candidate = new Candidate();
+        candidate.setProcessInstanceId(id);
+        candidate.setStartTime(startTime);
+        return candidate;
+    }
+}
@@ -0,0 +1,79 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.Test;
+
+public class PrefetchExecutorTest {
+
+    @Test
+    void capsParallelismBelowConnectionPool() {
+        try (PrefetchExecutor executor = new PrefetchExecutor(8, 4, 1000)) {
+            assertEquals(3, executor.getParallelism());
+        }
+        try (PrefetchExecutor executor = new PrefetchExecutor(8, 1, 1000)) {
+            assertEquals(1, executor.getParallelism());
+        }
+    }
+
+    @Test
+    void mergesResultsInDeclarationOrder() {
+        try (PrefetchExecutor executor = new PrefetchExecutor(3, 10, 5000)) {
+            Map<String, Callable<Consumer<List<String>>>> lookups = new LinkedHashMap<>();
+            lookups.put("slow", () -> {
+                Thread.sleep(50);
+                return target -> target.add("slow");
+            });
+            lookups.put("fast", () -> target -> target.add("fast"));
+            List<String> target = new ArrayList<>();
+
+            Map<String, Long> timings = executor.invokeAll(lookups, target);
+
+            assertEquals(List.of("slow", "fast"), target);
+            assertTrue(timings.get("slow") >= 50);
+            assertEquals(1, executor.getTimings().get("fast").getCount());
+        }
+    }
+
+    @Test
+    void failureCancelsRemainingLookupsAndLeavesTargetUntouched() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        try (PrefetchExecutor executor = new PrefetchExecutor(2, 10, 5000)) {
+            Map<String, Callable<Consumer<List<String>>>> lookups = new LinkedHashMap<>();
+            lookups.put("blocked", () -> {
+                started.countDown();
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException ex) {
+                    interrupted.countDown();
+                    throw ex;
+                }
+                return target -> target.add("blocked");
+            });
+            lookups.put("broken", () -> {
+                started.await(2, TimeUnit.SECONDS);
+                throw new IllegalArgumentException("boom");
+            });
+            List<String> target = new ArrayList<>();
+
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> executor.invokeAll(lookups, target));
+
+            assertEquals("boom", ex.getMessage());
+            assertTrue(target.isEmpty());
+            assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+
+public class ReadRoutingTest {
+    private final List<String> connections = Collections.synchronizedList(new ArrayList<>());
+    private final ReadWriteRoutingDataSource dataSource =
+        new ReadWriteRoutingDataSource(recording("write"), recording("read"));
+
+    @Test
+    void routesOnlyReadScopesToReadPool() throws Exception {
+        dataSource.getConnection();
+        ReadRouting.runRead(this::connect);
+        dataSource.getConnection();
+
+        assertEquals(List.of("write", "read", "write"), connections);
+    }
+
+    @Test
+    void prefetchLookupsAndPartitionReadersKeepReadRouting() {
+        ReadRouting.runRead(() -> {
+            try (PrefetchExecutor executor = new PrefetchExecutor(4, 0, 0)) {
+                Map<String, Callable<Consumer<List<String>>>> lookups = new LinkedHashMap<>();
+                for (int i = 0; i < 3; i++) {
+                    lookups.put("lookup" + i, () -> {
+                        connect();
+                        return target -> { };
+                    });
+                }
+                executor.invokeAll(lookups, new ArrayList<>());
+            }
+            List<ScanPartition> partitions = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                partitions.add(ScanPartition.of(i, 2, ScanPartition.Function.ORA_HASH));
+            }
+            try (PartitionedScan scan = new PartitionedScan("test-scan", partitions, 1, (partition, sink) -> connect())) {
+                scan.mergeInto(candidate -> { }, Integer.MAX_VALUE);
+            }
+        });
+
+        assertEquals(5, connections.size());
+        assertEquals(Collections.singleton("read"), new HashSet<>(connections));
+    }
+
+    private void connect() {
+        try {
+            dataSource.getConnection();
+        } catch (SQLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private DataSource recording(String name) {
+        return (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {DataSource.class},
+            (proxy, method, args) -> {
+                if ("getConnection".equals(method.getName())) {
+                    connections.add(name);
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {Connection.class},
+                        (c, m, a) -> null);
+                }
+                return null;
+            });
+    }
+}
@@ -0,0 +1,86 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import org.flowable.engine.HistoryService;
+import org.flowable.engine.IdentityService;
+import org.flowable.engine.ManagementService;
+import org.flowable.engine.RuntimeService;
+import org.flowable.engine.TaskService;
+import org.flowable.engine.history.HistoricProcessInstance;
+import org.flowable.engine.history.NativeHistoricProcessInstanceQuery;
+import org.flowable.engine.repository.ProcessDefinition;
+import org.flowable.engine.runtime.Execution;
+import org.flowable.engine.runtime.NativeProcessInstanceQuery;
+import org.flowable.engine.runtime.ProcessInstance;
+import org.flowable.job.api.Job;
+import org.flowable.task.api.Task;
+import org.flowable.task.api.TaskQuery;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+public class RuntimeFallbackScanTest {
+    private final Instant now = Instant.parse("2024-01-10T12:00:00Z");
+    private final Instant cutoff = now.minus(Duration.ofHours(6));
+
+    @Test
+    void fallbackPushesCutoffIntoRuntimeQueryAndSkipsHistory() {
+        RuntimeService runtimeService = Mockito.mock(RuntimeService.class);
+        HistoryService historyService = Mockito.mock(HistoryService.class);
+        TaskService taskService = Mockito.mock(TaskService.class);
+        ManagementService managementService = Mockito.mock(ManagementService.class);
+        when(managementService.getTableName(Execution.class)).thenReturn("ACT_RU_EXECUTION");
+        when(managementService.getTableName(ProcessDefinition.class)).thenReturn("ACT_RE_PROCDEF");
+        when(managementService.getTableName(HistoricProcessInstance.class)).thenReturn("ACT_HI_PROCINST");
+        when(managementService.getTableName(Task.class)).thenReturn("ACT_RU_TASK");
+        when(managementService.getTableName(Job.class)).thenReturn("ACT_RU_JOB");
+
+        NativeHistoricProcessInstanceQuery history = Mockito.mock(NativeHistoricProcessInstanceQuery.class, Mockito.RETURNS_SELF);
+        when(historyService.createNativeHistoricProcessInstanceQuery()).thenReturn(history);
+        when(history.listPage(anyInt(), anyInt())).thenThrow(new IllegalStateException("history unavailable"));
+
+        NativeProcessInstanceQuery runtime = Mockito.mock(NativeProcessInstanceQuery.class, Mockito.RETURNS_SELF);
+        when(runtimeService.createNativeProcessInstanceQuery()).thenReturn(runtime);
+        ProcessInstance stale = Mockito.mock(ProcessInstance.class);
+        when(stale.getId()).thenReturn("100");
+        when(stale.getProcessDefinitionId()).thenReturn("orderFlow:1:5");
+        when(stale.getProcessDefinitionKey()).thenReturn("orderFlow");
+        when(stale.getStartTime()).thenReturn(Date.from(now.minus(Duration.ofHours(48))));
+        when(stale.getStartUserId()).thenReturn(null);
+        when(runtime.listPage(anyInt(), anyInt())).thenReturn(Collections.singletonList(stale));
+
+        when(managementService.executeCustomSql(any())).thenReturn(Collections.emptyList());
+        TaskQuery tasks = Mockito.mock(TaskQuery.class, Mockito.RETURNS_SELF);
+        when(taskService.createTaskQuery()).thenReturn(tasks);
+        when(tasks.list()).thenReturn(Collections.emptyList());
+        when(history.list()).thenReturn(Collections.emptyList());
+
+        CleanupScanner scanner = new CleanupScanner(new CleanupConfig(), runtimeService, historyService, taskService,
+            managementService, Mockito.mock(IdentityService.class), (ids, at, data) -> { }, null, null, null);
+        List<Candidate> found = new ArrayList<>();
+        scanner.scanWithFilters(cutoff, now, null, found::add);
+
+        assertEquals(1, found.size());
+        assertEquals("100", found.get(0).getProcessInstanceId());
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(runtime).sql(sql.capture());
+        assertTrue(sql.getValue().contains("RES.START_TIME_ <= #{cutoff}"));
+        assertTrue(sql.getValue().contains("ORDER BY RES.START_TIME_ ASC, RES.ID_ ASC"));
+        verify(historyService, never()).createHistoricProcessInstanceQuery();
+        verify(runtimeService, never()).createProcessInstanceQuery();
+    }
+}
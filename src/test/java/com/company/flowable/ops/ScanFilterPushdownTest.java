@@ -0,0 +1,70 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class ScanFilterPushdownTest {
+    private final ScanFilterPushdown pushdown = new ScanFilterPushdown("ACT_RU_TASK", "ACT_RU_EXECUTION", "ACT_RU_JOB",
+        "ACT_RU_TIMER_JOB", "PROCESS_INSTANCE_ID_", "DUEDATE_");
+    private final Instant now = Instant.parse("2024-01-10T12:00:00Z");
+
+    @Test
+    void rendersNothingWithoutNarrowingFilters() {
+        FilterCriteria criteria = new FilterCriteria();
+        criteria.setAction("ALL");
+        StringBuilder sql = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+
+        pushdown.appendPredicates(sql, "H.ID_", criteria, true, 6, now, jdbc(params));
+
+        assertEquals("", sql.toString());
+        assertTrue(params.isEmpty());
+        assertEquals(false, ScanFilterPushdown.narrows(criteria));
+    }
+
+    @Test
+    void escalateBindsPlaceholdersInTextOrder() {
+        FilterCriteria criteria = new FilterCriteria();
+        criteria.setAction("escalate");
+        criteria.setHasTasks(true);
+        StringBuilder sql = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+
+        pushdown.appendPredicates(sql, "H.ID_", criteria, false, 6, now, jdbc(params));
+
+        String rendered = sql.toString();
+        assertTrue(rendered.startsWith(" AND NOT EXISTS (SELECT 1 FROM ACT_RU_EXECUTION SE WHERE SE.ID_ = H.ID_"));
+        assertTrue(rendered.contains(" AND NOT (NOT EXISTS (SELECT 1 FROM ACT_RU_TASK PT"));
+        assertTrue(rendered.contains("PT.CREATE_TIME_ <= ?"));
+        assertEquals(rendered.length() - rendered.replace("?", "").length(), params.size());
+        Date nowDate = Date.from(now);
+        Date staleBefore = Date.from(now.minus(Duration.ofHours(6)));
+        assertEquals(List.of(nowDate, nowDate, staleBefore), params);
+    }
+
+    @Test
+    void splitsKeyListsAtInClauseLimit() {
+        StringBuilder sql = new StringBuilder();
+        List<Object> params = new ArrayList<>();
+
+        ScanFilterPushdown.appendKeyPredicates(sql, "D.KEY_", List.of("c", "a", "b"), List.of("x"), 2, jdbc(params));
+
+        assertEquals(" AND (D.KEY_ IN (?,?) OR D.KEY_ IN (?)) AND D.KEY_ NOT IN (?)", sql.toString());
+        assertEquals(List.of("a", "b", "c", "x"), params);
+    }
+
+    private ScanFilterPushdown.ParameterBinder jdbc(List<Object> params) {
+        return (name, value) -> {
+            params.add(value);
+            return "?";
+        };
+    }
+}
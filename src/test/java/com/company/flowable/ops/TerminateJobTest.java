@@ -0,0 +1,63 @@
+package com.company.flowable.ops;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+public class TerminateJobTest {
+    private static final Instant T1 = Instant.parse("2024-01-01T00:00:00Z");
+    private static final Instant T2 = Instant.parse("2024-01-01T01:00:00Z");
+
+    @Test
+    void countsResultsAndMovesTheResumePosition() {
+        TerminateJob job = job();
+        job.start(4);
+
+        job.recordChunk(Arrays.asList(
+            new DeleteResultDto("a", "OK", null),
+            new DeleteResultDto("b", "FAIL", "boom"),
+            new DeleteResultDto("c", "SKIPPED", "Not eligible or not found")), T1, "c");
+
+        assertEquals(1, job.getDone());
+        assertEquals(1, job.getFailed());
+        assertEquals(1, job.getSkipped());
+        assertEquals(4, job.getTotal());
+        assertEquals("c", job.getLastPid());
+        assertEquals(TerminateJob.Status.RUNNING, job.getStatus());
+    }
+
+    @Test
+    void resumesStrictlyAfterTheLastFinishedInstance() {
+        TerminateJob job = job();
+        assertTrue(job.isAfterPosition(T1, "a"));
+
+        job.recordChunk(Arrays.asList(new DeleteResultDto("m", "OK", null)), T1, "m");
+
+        assertFalse(job.isAfterPosition(T1, "a"));
+        assertFalse(job.isAfterPosition(T1, "m"));
+        assertTrue(job.isAfterPosition(T1, "z"));
+        assertTrue(job.isAfterPosition(T2, "a"));
+    }
+
+    @Test
+    void restoredJobKeepsEarlierProgressInTheTotal() {
+        TerminateJob job = job();
+        job.restore(TerminateJob.Status.RUNNING, 10, 5, 1, 0, T1, "f", T1, null);
+
+        job.start(3);
+
+        assertEquals(9, job.getTotal());
+        assertEquals(6, job.getProcessed());
+        assertEquals(T1, job.getStartedAt());
+        assertFalse(job.getStatus().isFinished());
+    }
+
+    private static TerminateJob job() {
+        return new TerminateJob("job-1", "opsadmin", "cleanup", 6, "TERMINATE", null, T2, T2);
+    }
+}